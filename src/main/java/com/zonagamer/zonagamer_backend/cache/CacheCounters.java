@@ -0,0 +1,40 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores para las cachés que no son de Caffeine (catálogo, árbol de
+ * categorías, índices de búsqueda). Caffeine ya los lleva con recordStats().
+ */
+public final class CacheCounters {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordEvictions(long count) {
+        evictions.add(count);
+    }
+
+    public void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+    }
+
+    public CacheStatistics snapshot() {
+        long loadCount = loads.sum();
+        double averageLoadMillis = loadCount == 0 ? 0 : loadNanos.sum() / 1_000_000.0 / loadCount;
+
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), loadCount, averageLoadMillis);
+    }
+}
@@ -0,0 +1,80 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de todo el estado en memoria de la instancia (cachés, catálogo,
+ * árbol de categorías). Cada servicio registra lo suyo al crearse.
+ *
+ * Por cada caché publica en Micrometer (tag cache=nombre):
+ * cache.managed.size, cache.managed.hits, cache.managed.misses,
+ * cache.managed.evictions, cache.managed.loads, cache.managed.load.average
+ * y cache.managed.memory (bytes estimados).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheRegistry {
+
+    private final MeterRegistry meterRegistry;
+
+    /** Por nombre, en orden alfabético */
+    private final Map<String, ManagedCache> caches = new ConcurrentSkipListMap<>();
+
+    public void register(ManagedCache cache) {
+        if (caches.putIfAbsent(cache.getName(), cache) != null) {
+            throw new IllegalStateException("Ya hay una caché registrada con el nombre " + cache.getName());
+        }
+
+        String name = cache.getName();
+
+        Gauge.builder("cache.managed.size", cache, ManagedCache::size)
+            .description("Entradas en la caché")
+            .tag("cache", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.managed.hits", cache, c -> c.stats().hits())
+            .tag("cache", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.managed.misses", cache, c -> c.stats().misses())
+            .tag("cache", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.managed.evictions", cache, c -> c.stats().evictions())
+            .tag("cache", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.managed.loads", cache, c -> c.stats().loads())
+            .tag("cache", name)
+            .register(meterRegistry);
+        TimeGauge.builder("cache.managed.load.average", cache, TimeUnit.MILLISECONDS, c -> c.stats().averageLoadMillis())
+            .description("Duración promedio de una carga")
+            .tag("cache", name)
+            .register(meterRegistry);
+        Gauge.builder("cache.managed.memory", cache, ManagedCache::estimatedBytes)
+            .description("Memoria retenida estimada")
+            .baseUnit("bytes")
+            .tag("cache", name)
+            .register(meterRegistry);
+
+        log.debug("Caché registrada: {}", name);
+    }
+
+    public List<ManagedCache> getAll() {
+        return new ArrayList<>(caches.values());
+    }
+
+    public Optional<ManagedCache> get(String name) {
+        return Optional.ofNullable(caches.get(name));
+    }
+}
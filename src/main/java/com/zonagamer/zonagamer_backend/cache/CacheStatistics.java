@@ -0,0 +1,15 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+/**
+ * Contadores acumulados desde el arranque
+ *
+ * @param loads Cargas desde Firestore (o reconstrucciones completas)
+ * @param averageLoadMillis Duración promedio de una carga, 0 si no hubo
+ */
+public record CacheStatistics(long hits, long misses, long evictions, long loads, double averageLoadMillis) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,60 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Adaptador de una caché de Caffeine (creada con recordStats()) a ManagedCache
+ */
+public final class CaffeineManagedCache<K, V> implements ManagedCache {
+
+    private final String name;
+    private final Cache<K, V> cache;
+    private final ToLongFunction<Map.Entry<K, V>> entrySize;
+
+    /**
+     * @param entrySize Bytes aproximados de una entrada (clave + valor), ver MemoryEstimator
+     */
+    public CaffeineManagedCache(String name, Cache<K, V> cache, ToLongFunction<Map.Entry<K, V>> entrySize) {
+        this.name = name;
+        this.cache = cache;
+        this.entrySize = entrySize;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public CacheStatistics stats() {
+        CacheStats stats = cache.stats();
+
+        return new CacheStatistics(
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            stats.loadCount(),
+            stats.averageLoadPenalty() / 1_000_000.0
+        );
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return MemoryEstimator.sampled(cache.asMap().entrySet(),
+            entry -> MemoryEstimator.MAP_ENTRY + entrySize.applyAsLong(entry));
+    }
+
+    @Override
+    public void flush() {
+        cache.invalidateAll();
+    }
+}
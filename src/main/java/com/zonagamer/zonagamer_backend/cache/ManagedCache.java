@@ -0,0 +1,40 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Estado en memoria que se registra en CacheRegistry para poder verlo y
+ * operarlo desde /api/admin/caches sin reiniciar la instancia.
+ */
+public interface ManagedCache {
+
+    String getName();
+
+    /**
+     * Entradas (o elementos) que tiene ahora
+     */
+    long size();
+
+    CacheStatistics stats();
+
+    /**
+     * Memoria retenida aproximada, en bytes (ver MemoryEstimator)
+     */
+    long estimatedBytes();
+
+    /**
+     * Descarta el contenido; la próxima lectura vuelve a Firestore
+     */
+    void flush();
+
+    default boolean supportsWarm() {
+        return false;
+    }
+
+    /**
+     * Carga el contenido completo ahora, en lugar de esperar a las lecturas
+     */
+    default void warm() throws ExecutionException, InterruptedException {
+        throw new IllegalStateException("La caché " + getName() + " no admite precarga");
+    }
+}
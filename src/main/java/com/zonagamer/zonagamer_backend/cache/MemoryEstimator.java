@@ -0,0 +1,59 @@
+package com.zonagamer.zonagamer_backend.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Estimaciones gruesas de memoria retenida (JVM de 64 bits con compressed
+ * oops). Sirven para comparar cachés y ver tendencias, no son exactas.
+ */
+public final class MemoryEstimator {
+
+    /** Encabezado de un objeto */
+    public static final long OBJECT = 16;
+
+    /** Referencia a otro objeto */
+    public static final long REFERENCE = 4;
+
+    /** Entrada de un ConcurrentHashMap / nodo de Caffeine */
+    public static final long MAP_ENTRY = 48;
+
+    /** Elementos que se miden al estimar una colección grande */
+    private static final int SAMPLE_SIZE = 64;
+
+    private MemoryEstimator() {
+    }
+
+    /**
+     * String + su arreglo de bytes (Latin-1: 1 byte por carácter, si no 2)
+     */
+    public static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return 24 + 16 + (long) value.length() * (latin1 ? 1 : 2);
+    }
+
+    /**
+     * Tamaño de una colección midiendo solo los primeros SAMPLE_SIZE
+     * elementos y extrapolando (no recorre las colecciones grandes)
+     */
+    public static <T> long sampled(Collection<T> items, ToLongFunction<T> sizer) {
+        int total = items.size();
+        if (total == 0) {
+            return 0;
+        }
+
+        long sampledBytes = 0;
+        int sampled = 0;
+        Iterator<T> iterator = items.iterator();
+        while (sampled < SAMPLE_SIZE && iterator.hasNext()) {
+            sampledBytes += sizer.applyAsLong(iterator.next());
+            sampled++;
+        }
+
+        return sampled == 0 ? 0 : sampledBytes * total / sampled;
+    }
+}
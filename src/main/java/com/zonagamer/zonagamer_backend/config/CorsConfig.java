@@ -18,6 +18,7 @@ public class CorsConfig implements WebMvcConfigurer {
             .allowedOriginPatterns(allowedOrigins.split(","))  //ORIGENES PERMITIDOS (usando patterns para compatibilidad con credentials)
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")  // METODOS HTTP
             .allowedHeaders("*")    // TODOS LOS HEADERS
+            .exposedHeaders("X-Total-Count")  // TOTAL DE RESULTADOS DE /api/products/search
             .allowCredentials(true) // PERMITE COOKIES Y AUTHORIZATION HEADER
             .maxAge(3600);  // CACHE DE PREFLIGHT POR 1 HORA
     }
@@ -11,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
@@ -21,9 +22,11 @@ import java.io.InputStream;
  * 
  * Esta clase inicializa la conexión con Firebase al arrancar la aplicación.
  * Configura tanto Firestore (base de datos) como Cloud Storage (imágenes).
+ * No se carga con el perfil "memory" (ver InMemoryConfig).
  */
 @Slf4j  // Lombok: genera automáticamente el logger
 @Configuration(proxyBeanMethods = false)  // Le dice a Spring que esta clase contiene configuración
+@Profile("!memory")
 public class FirebaseConfig {
 
     // Inyecta valores desde application.yml
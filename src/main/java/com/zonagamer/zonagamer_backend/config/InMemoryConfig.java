@@ -0,0 +1,28 @@
+package com.zonagamer.zonagamer_backend.config;
+
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuración del perfil "memory": reemplaza a FirebaseConfig cuando los
+ * repositorios usan el backend en memoria (InMemoryDocumentStore).
+ *
+ * No inicializa Firebase ni necesita el archivo de credenciales. Storage se
+ * crea sin autenticación, así que la subida de imágenes no funciona en este
+ * perfil (los productos se pueden crear con imageUrl).
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@Profile("memory")
+public class InMemoryConfig {
+
+    @Bean
+    public Storage storage() {
+        log.info("☁️ Storage sin credenciales (perfil memory)");
+        return StorageOptions.getUnauthenticatedInstance().getService();
+    }
+}
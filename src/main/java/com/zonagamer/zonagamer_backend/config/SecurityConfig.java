@@ -53,6 +53,7 @@ public class SecurityConfig {
                     corsConfig.setAllowedOriginPatterns(java.util.List.of("*"));
                     corsConfig.setAllowedMethods(java.util.List.of("*"));
                     corsConfig.setAllowedHeaders(java.util.List.of("*"));
+                    corsConfig.setExposedHeaders(java.util.List.of("X-Total-Count")); // Total de resultados de /search
                     corsConfig.setAllowCredentials(true); // Permitir credenciales (Authorization header)
                     return corsConfig;
                 }))
@@ -83,6 +84,7 @@ public class SecurityConfig {
 
                         // Health check
                         .requestMatchers("/api/health").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
 
                         // ===== ENDPOINTS PROTEGIDOS (requieren autenticación) =====
 
@@ -120,6 +122,12 @@ public class SecurityConfig {
                         // Calendario (solo admin)
                         .requestMatchers("/api/calendar/**").hasAuthority("ROLE_ADMIN")
 
+                        // Cachés en memoria (estadísticas, vaciar, precargar)
+                        .requestMatchers("/api/admin/**").hasAuthority("ROLE_ADMIN")
+
+                        // Métricas (hit rate de cachés, etc.)
+                        .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
+
                         // Todas las demás peticiones requieren autenticación
                         .anyRequest().authenticated()
                 )
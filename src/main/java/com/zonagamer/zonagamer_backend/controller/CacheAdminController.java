@@ -0,0 +1,107 @@
+package com.zonagamer.zonagamer_backend.controller;
+
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.dto.CacheStatsDTO;
+import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
+import com.zonagamer.zonagamer_backend.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Cachés en memoria de la instancia (CacheRegistry): estadísticas, vaciar
+ * y precargar. Solo afecta a la instancia que atiende la petición.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/caches")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@RequiredArgsConstructor
+public class CacheAdminController {
+
+    private final CacheRegistry cacheRegistry;
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDTO>> obtenerCaches() {
+
+        log.debug("Admin obteniendo estadisticas de caches");
+
+        List<CacheStatsDTO> caches = cacheRegistry.getAll().stream()
+            .map(this::mapToDTO)
+            .collect(Collectors.toList());
+
+        return ResponseEntity.ok(caches);
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<CacheStatsDTO> obtenerCache(@PathVariable String name) {
+
+        log.debug("Admin obteniendo estadisticas de la cache: {}", name);
+
+        return ResponseEntity.ok(mapToDTO(findCache(name)));
+    }
+
+    @PostMapping("/{name}/flush")
+    public ResponseEntity<CacheStatsDTO> vaciarCache(
+        @PathVariable String name,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+
+        ManagedCache cache = findCache(name);
+
+        log.info("Admin {} vaciando la cache: {} ({} entradas)", principal.getEmail(), name, cache.size());
+
+        cache.flush();
+
+        return ResponseEntity.ok(mapToDTO(cache));
+    }
+
+    /**
+     * 409 si la caché no admite precarga
+     */
+    @PostMapping("/{name}/warm")
+    public ResponseEntity<CacheStatsDTO> precargarCache(
+        @PathVariable String name,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) throws ExecutionException, InterruptedException {
+
+        ManagedCache cache = findCache(name);
+
+        log.info("Admin {} precargando la cache: {}", principal.getEmail(), name);
+
+        cache.warm();
+
+        return ResponseEntity.ok(mapToDTO(cache));
+    }
+
+    private ManagedCache findCache(String name) {
+        return cacheRegistry.get(name)
+            .orElseThrow(() -> new ResourceNotFoundException("Cache", "nombre", name));
+    }
+
+    private CacheStatsDTO mapToDTO(ManagedCache cache) {
+        CacheStatistics stats = cache.stats();
+
+        return CacheStatsDTO.builder()
+            .name(cache.getName())
+            .size(cache.size())
+            .hits(stats.hits())
+            .misses(stats.misses())
+            .hitRate(stats.hitRate())
+            .evictions(stats.evictions())
+            .loads(stats.loads())
+            .averageLoadMillis(stats.averageLoadMillis())
+            .estimatedBytes(cache.estimatedBytes())
+            .warmable(cache.supportsWarm())
+            .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.zonagamer.zonagamer_backend.controller;
 
 import com.zonagamer.zonagamer_backend.dto.CalendarEventDTO;
 import com.zonagamer.zonagamer_backend.dto.CalendarEventResponseDTO;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.security.UserPrincipal;
 import com.zonagamer.zonagamer_backend.service.CalendarService;
 import lombok.RequiredArgsConstructor;
@@ -44,8 +45,24 @@ public class CalendarController {
     }
 
 
+    /**
+     * Sin parámetros devuelve la lista completa (compatibilidad).
+     * Con ?limit= y/o ?cursor= devuelve una CursorPage ordenada por fecha de inicio.
+     */
     @GetMapping("/eventos")
-    public ResponseEntity<List<CalendarEventResponseDTO>> obtenerTodosLosEventos() throws ExecutionException, InterruptedException {
+    public ResponseEntity<?> obtenerTodosLosEventos(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        if (limit != null || cursor != null) {
+            log.debug("Admin obteniendo pagina de eventos (limit: {})", limit);
+
+            CursorPage<CalendarEventResponseDTO> page = calendarService.getEventsPage(limit, cursor);
+
+            return ResponseEntity.ok(page);
+        }
+
         log.debug("Admin obteniendo todos los eventos");
 
         List<CalendarEventResponseDTO> events = calendarService.getAllEvents();
@@ -154,7 +171,7 @@ public class CalendarController {
 
         log.debug("Admin obteniendo estadisticas del calendario");
 
-        long totalEventos = calendarService.getAllEvents().size();
+        long totalEventos = calendarService.countEvents();
         long eventosPendientes = calendarService.countPendingEvents();
         long eventosCompletados = totalEventos - eventosPendientes;
 
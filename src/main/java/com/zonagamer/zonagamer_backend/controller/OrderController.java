@@ -1,22 +1,30 @@
 package com.zonagamer.zonagamer_backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zonagamer.zonagamer_backend.dto.CheckoutDTO;
 import com.zonagamer.zonagamer_backend.dto.OrderResponseDTO;
 import com.zonagamer.zonagamer_backend.model.Order;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.security.UserPrincipal;
 import com.zonagamer.zonagamer_backend.service.OrderService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 
 
@@ -27,6 +35,7 @@ import java.util.concurrent.ExecutionException;
 public class OrderController {
     
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/checkout")
     public ResponseEntity<OrderResponseDTO> checkout(
@@ -77,15 +86,47 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
-    @GetMapping
+    /**
+     * Sin parámetros devuelve la lista completa (compatibilidad). El arreglo
+     * JSON se escribe en la respuesta a medida que se leen las páginas de
+     * órdenes, así nunca están todas en memoria.
+     */
+    @GetMapping(params = {"!limit", "!cursor"})
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<OrderResponseDTO>> obtenerTodasLasOrdenes() throws ExecutionException, InterruptedException {
-        
+    public void obtenerTodasLasOrdenes(HttpServletResponse response) throws IOException {
+
         log.debug("Admin obteniendo todas las ordeness");
 
-        List<OrderResponseDTO> orders = orderService.getAllOrders();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
 
-        return ResponseEntity.ok(orders);
+        try (Stream<OrderResponseDTO> orders = orderService.streamAllOrders();
+             JsonGenerator json = objectMapper.createGenerator(response.getOutputStream())) {
+
+            // Si falla a la mitad, el JSON queda incompleto (no se cierra el arreglo como si fuera todo)
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            json.writeStartArray();
+            for (Iterator<OrderResponseDTO> it = orders.iterator(); it.hasNext(); ) {
+                json.writeObject(it.next());
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Con ?limit= y/o ?cursor= devuelve una CursorPage (más recientes primero).
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<CursorPage<OrderResponseDTO>> obtenerPaginaDeOrdenes(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        log.debug("Admin obteniendo pagina de ordenes (limit: {})", limit);
+
+        CursorPage<OrderResponseDTO> page = orderService.getOrdersPage(limit, cursor);
+
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/status/{status}")
@@ -1,8 +1,18 @@
 package com.zonagamer.zonagamer_backend.controller;
 
 
+import com.zonagamer.zonagamer_backend.dto.ProductBulkCreateDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductBulkUpdateDTO;
 import com.zonagamer.zonagamer_backend.dto.ProductCreateDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductQueryResponseDTO;
 import com.zonagamer.zonagamer_backend.dto.ProductResponseDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductSummaryDTO;
+import com.zonagamer.zonagamer_backend.dto.SuggestionDTO;
+import com.zonagamer.zonagamer_backend.repository.BulkWriteResult;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
+import com.zonagamer.zonagamer_backend.search.ProductQuery;
+import com.zonagamer.zonagamer_backend.search.ProductSuggester;
+import com.zonagamer.zonagamer_backend.search.SearchPage;
 import com.zonagamer.zonagamer_backend.service.ProductService;
 import com.zonagamer.zonagamer_backend.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
@@ -26,11 +36,29 @@ import java.util.concurrent.ExecutionException;
 public class ProductController {
     
 
+    /** Total de resultados de /search (el cuerpo es solo la página pedida) */
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final ProductService productService;
 
 
+    /**
+     * Sin parámetros devuelve la lista completa (compatibilidad).
+     * Con ?limit= y/o ?cursor= devuelve una CursorPage.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> obtenerTodosLosProductos() throws ExecutionException, InterruptedException {
+    public ResponseEntity<?> obtenerTodosLosProductos(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        if (limit != null || cursor != null) {
+            log.debug("Obteniendo pagina de productos (limit: {})", limit);
+
+            CursorPage<ProductResponseDTO> page = productService.getProductsPage(limit, cursor);
+
+            return ResponseEntity.ok(page);
+        }
 
         log.debug("Obteniendo todos los productos");
 
@@ -39,6 +67,31 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Versión liviana del listado para grillas del catálogo (sin descripción).
+     * Acepta ?limit= y ?cursor= igual que el listado completo.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> obtenerResumenProductos(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        if (limit != null || cursor != null) {
+            log.debug("Obteniendo pagina de resumen de productos (limit: {})", limit);
+
+            CursorPage<ProductSummaryDTO> page = productService.getProductSummariesPage(limit, cursor);
+
+            return ResponseEntity.ok(page);
+        }
+
+        log.debug("Obteniendo resumen de productos");
+
+        List<ProductSummaryDTO> products = productService.getProductSummaries();
+
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> obtenerProductoPorId(@PathVariable String id) throws ExecutionException, InterruptedException {
 
@@ -68,10 +121,20 @@ public class ProductController {
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * Resultados del más al menos relevante, de a ?limit= (por defecto 20)
+     * desde ?offset=. El total de coincidencias va en X-Total-Count.
+     * Con ?fuzzy=true tolera errores de tipeo ("nintedo swtich").
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDTO>> buscarProductos(@RequestParam(name="q") String searchTerm) throws ExecutionException, InterruptedException {
+    public ResponseEntity<List<ProductResponseDTO>> buscarProductos(
+        @RequestParam(name="q") String searchTerm,
+        @RequestParam(defaultValue = "false") boolean fuzzy,
+        @RequestParam(defaultValue = "0") int offset,
+        @RequestParam(required = false) Integer limit
+    ) throws ExecutionException, InterruptedException {
 
-        log.debug("Buscando productos: {}", searchTerm);
+        log.debug("Buscando productos: {} (fuzzy: {})", searchTerm, fuzzy);
 
         if(searchTerm.length() < 2){
             throw new IllegalArgumentException(
@@ -79,9 +142,69 @@ public class ProductController {
             );
         }
 
-        List<ProductResponseDTO> products = productService.searchProducts(searchTerm);
+        SearchPage<ProductResponseDTO> page = productService.searchProducts(
+            searchTerm, fuzzy, offset, CursorPage.pageSize(limit)
+        );
 
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok()
+            .header(TOTAL_COUNT_HEADER, String.valueOf(page.total()))
+            .body(page.items());
+    }
+
+    /**
+     * Autocompletado para la caja de búsqueda: productos y categorías cuyo
+     * nombre tiene una palabra que empieza con prefix, los más populares primero
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> sugerirProductos(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "8") int limit
+    ) {
+
+        log.debug("Sugerencias para: {}", prefix);
+
+        if (limit < 1 || limit > ProductSuggester.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException(
+                "limit debe estar entre 1 y " + ProductSuggester.MAX_SUGGESTIONS
+            );
+        }
+
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
+    /**
+     * Catálogo con filtros combinados (todos opcionales), orden y conteos
+     * por categoría y tramo de precio para armar los filtros del frontend.
+     * sort: name (por defecto), price_asc, price_desc o newest.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<ProductQueryResponseDTO> consultarProductos(
+        @RequestParam(required = false) String categoryId,
+        @RequestParam(required = false) Double minPrice,
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) Boolean inStock,
+        @RequestParam(required = false) Boolean featured,
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false) String sort,
+        @RequestParam(defaultValue = "0") int offset,
+        @RequestParam(required = false) Integer limit
+    ) throws ExecutionException, InterruptedException {
+
+        log.debug("Consultando productos (categoria: {}, q: {}, sort: {})", categoryId, q, sort);
+
+        ProductQuery query = ProductQuery.builder()
+            .categoryId(categoryId)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .inStock(inStock)
+            .featured(featured)
+            .text(q)
+            .sort(ProductQuery.Sort.from(sort))
+            .offset(offset)
+            .limit(CursorPage.pageSize(limit))
+            .build();
+
+        return ResponseEntity.ok(productService.queryProducts(query));
     }
 
     @PostMapping
@@ -126,6 +249,66 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Operaciones masivas (admin). Responden 200 aunque algunos productos
+     * fallen: el detalle por producto viene en "failures".
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BulkWriteResult> crearProductosMasivo(
+        @Valid @RequestBody ProductBulkCreateDTO bulkDTO,
+        @AuthenticationPrincipal UserPrincipal currentUser
+    ) throws ExecutionException, InterruptedException {
+
+        log.info("Admin {} creando {} productos", currentUser.getUsername(), bulkDTO.getProducts().size());
+
+        BulkWriteResult result = productService.createProducts(bulkDTO.getProducts());
+
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/bulk")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BulkWriteResult> actualizarProductosMasivo(
+        @Valid @RequestBody ProductBulkUpdateDTO bulkDTO,
+        @AuthenticationPrincipal UserPrincipal currentUser
+    ) throws ExecutionException, InterruptedException {
+
+        log.info("Admin {} actualizando {} productos", currentUser.getUsername(), bulkDTO.getProducts().size());
+
+        BulkWriteResult result = productService.patchProducts(bulkDTO.getProducts());
+
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/category/{categoryId}/deactivate")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BulkWriteResult> desactivarProductosDeCategoria(
+        @PathVariable String categoryId,
+        @AuthenticationPrincipal UserPrincipal currentUser
+    ) throws ExecutionException, InterruptedException {
+
+        log.info("Admin {} desactivando productos de categoria: {}", currentUser.getUsername(), categoryId);
+
+        BulkWriteResult result = productService.deactivateProductsByCategory(categoryId);
+
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BulkWriteResult> eliminarProductosMasivo(
+        @RequestBody List<String> productIds,
+        @AuthenticationPrincipal UserPrincipal currentUser
+    ) throws ExecutionException, InterruptedException {
+
+        log.info("Admin {} eliminando {} productos", currentUser.getUsername(), productIds.size());
+
+        BulkWriteResult result = productService.deleteProducts(productIds);
+
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/low-stock")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<List<ProductResponseDTO>> obtenerProductosConBajoStock(
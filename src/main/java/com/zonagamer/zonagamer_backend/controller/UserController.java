@@ -1,6 +1,8 @@
 package com.zonagamer.zonagamer_backend.controller;
 
 import com.zonagamer.zonagamer_backend.dto.UserResponseDTO;
+import com.zonagamer.zonagamer_backend.dto.UserSummaryDTO;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.security.UserPrincipal;
 import com.zonagamer.zonagamer_backend.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -87,9 +89,25 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Sin parámetros devuelve la lista completa (compatibilidad).
+     * Con ?limit= y/o ?cursor= devuelve una CursorPage.
+     */
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> obtenerTodosLosUsuarios() throws ExecutionException, InterruptedException {
+    public ResponseEntity<?> obtenerTodosLosUsuarios(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        if (limit != null || cursor != null) {
+            log.debug("Admin obteniendo pagina de usuarios (limit: {})", limit);
+
+            CursorPage<UserResponseDTO> page = userService.getUsersPage(limit, cursor);
+
+            return ResponseEntity.ok(page);
+        }
+
         log.debug("Admin obteniendo todos los usuarios");
 
         List<UserResponseDTO> users = userService.getAllUsers();
@@ -97,6 +115,32 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Versión liviana del listado para tablas de administración.
+     * Acepta ?limit= y ?cursor= igual que el listado completo.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<?> obtenerResumenUsuarios(
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) throws ExecutionException, InterruptedException {
+
+        if (limit != null || cursor != null) {
+            log.debug("Admin obteniendo pagina de resumen de usuarios (limit: {})", limit);
+
+            CursorPage<UserSummaryDTO> page = userService.getUserSummariesPage(limit, cursor);
+
+            return ResponseEntity.ok(page);
+        }
+
+        log.debug("Admin obteniendo resumen de usuarios");
+
+        List<UserSummaryDTO> users = userService.getUserSummaries();
+
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<UserResponseDTO> obtenerUsuarioPorId(
@@ -0,0 +1,38 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de una caché registrada en CacheRegistry (/api/admin/caches)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+
+    private String name;
+
+    private long size;
+
+    private long hits;
+
+    private long misses;
+
+    private double hitRate;
+
+    private long evictions;
+
+    private long loads;
+
+    private double averageLoadMillis;
+
+    /** Memoria retenida aproximada */
+    private long estimatedBytes;
+
+    /** true si admite POST /{name}/warm */
+    private boolean warmable;
+}
@@ -0,0 +1,21 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacetDTO {
+    private String categoryId;
+
+    private String nombre;
+
+    private String parentId;
+
+    private int count;
+}
@@ -0,0 +1,22 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Tramo de precio [min, max); max es null en el último tramo
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceFacetDTO {
+    private Double min;
+
+    private Double max;
+
+    private int count;
+}
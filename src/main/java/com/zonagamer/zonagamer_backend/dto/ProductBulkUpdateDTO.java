@@ -0,0 +1,18 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.Data;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+
+@Data
+public class ProductBulkUpdateDTO {
+    
+
+    @NotEmpty(message = "Debe incluir al menos un producto")
+    @Size(max = 1000, message = "No se pueden actualizar más de 1000 productos por solicitud")
+    private List<@Valid ProductPatchDTO> products;
+}
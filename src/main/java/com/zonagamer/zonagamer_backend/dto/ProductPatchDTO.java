@@ -0,0 +1,27 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.*;
+
+
+/**
+ * Cambios parciales de un producto: solo se escriben los campos no nulos
+ */
+@Data
+public class ProductPatchDTO {
+    
+
+    @NotBlank(message = "El ID del producto es obligatorio")
+    private String productId;
+
+    @Positive(message = "El precio debe ser mayor a 0")
+    @Max(value = 10000000, message = "El precio no puede exceder 10 millones")
+    private Double price;
+
+    @Min(value = 0, message = "El stock no puede ser negativo")
+    private Integer stock;
+
+    private Boolean active;
+
+    private Boolean isFeatured;
+}
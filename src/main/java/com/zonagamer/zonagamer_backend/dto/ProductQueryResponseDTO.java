@@ -0,0 +1,33 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+
+/**
+ * Respuesta de /api/products/query: una página de productos, el total que
+ * cumple los filtros y los conteos por faceta
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQueryResponseDTO {
+    private List<ProductSummaryDTO> items;
+
+    private int total;
+
+    private int offset;
+
+    private int limit;
+
+    /** Conteo por categoría (incluye sus subcategorías), sin el filtro de categoría */
+    private List<CategoryFacetDTO> categories;
+
+    /** Conteo por tramo de precio, sin el filtro de precio */
+    private List<PriceFacetDTO> prices;
+}
@@ -0,0 +1,35 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Versión liviana de ProductResponseDTO para grillas del catálogo
+ * (sin descripción ni fechas)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDTO {
+    private String id;
+
+    private String nombre;
+
+    private Double precio;
+
+    private Integer stock;
+
+    private String imageUrl;
+
+    private String categoryId;
+
+    @JsonProperty("isFeatured")
+    private boolean featured;
+
+    private boolean disponibilidad;
+}
@@ -0,0 +1,30 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sugerencia de /api/products/suggest: un producto o una categoría.
+ * Las instancias se arman al construir el índice y se comparten entre
+ * respuestas: no modificarlas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+
+    public static final String PRODUCT = "product";
+
+    public static final String CATEGORY = "category";
+
+    /** "product" o "category" */
+    private String type;
+
+    private String id;
+
+    /** Nombre tal como se muestra */
+    private String text;
+}
@@ -0,0 +1,30 @@
+package com.zonagamer.zonagamer_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Versión liviana de UserResponseDTO para tablas de administración
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDTO {
+
+    private String id;
+    
+    private String email;
+    
+    private String nombreCompleto;
+
+    @JsonProperty("isAdmin")
+    private boolean admin;
+    
+    private boolean active;
+}
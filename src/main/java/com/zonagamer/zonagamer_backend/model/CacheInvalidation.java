@@ -0,0 +1,46 @@
+package com.zonagamer.zonagamer_backend.model;
+
+import com.google.cloud.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aviso de que una entidad cambió, para que las demás instancias descarten
+ * lo que tengan cacheado de ella (ver CacheInvalidationBus).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    private String id;
+
+    private EntityType entityType;
+
+    private String entityId;
+
+    /**
+     * Creciente por instancia de origen (milisegundos del reloj de esa instancia)
+     */
+    private Long version;
+
+    /**
+     * Instancia que hizo la escritura
+     */
+    private String origin;
+
+    /**
+     * Reloj de la instancia de origen; se usa para medir el retraso de propagación
+     */
+    private Timestamp publishedAt;
+
+    public enum EntityType {
+        PRODUCT,
+        USER,
+        CATEGORY,
+        CART
+    }
+}
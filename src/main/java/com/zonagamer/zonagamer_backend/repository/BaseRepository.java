@@ -1,145 +1,673 @@
 package com.zonagamer.zonagamer_backend.repository;
 
-import org.springframework.stereotype.Repository;
-
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.zonagamer.zonagamer_backend.repository.codec.FirestoreCodec;
+import com.zonagamer.zonagamer_backend.repository.codec.FirestoreCodecs;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentBulkWriter;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentChangeListener;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentQuery;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
+import com.zonagamer.zonagamer_backend.repository.store.StoredDocument;
+import com.zonagamer.zonagamer_backend.repository.store.StoredDocumentChange;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Repository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /**
  * Repositorio base genérico para operaciones CRUD en Firestore
- * 
+ *
  * T = Tipo de entidad (User, Product, etc.)
- * 
+ *
+ * El acceso a datos pasa por un DocumentStore: Firestore por defecto, o un
+ * backend en memoria con el perfil "memory" (ver InMemoryDocumentStore).
+ *
  * Métodos disponibles:
  * - save(T entity): Guarda una entidad
  * - findById(String id): Busca por ID
+ * - findAllByIds(Collection ids): Busca varios IDs en un solo round trip
  * - findAll(): Obtiene todas las entidades
+ * - streamAll(): Recorre todas las entidades por páginas, sin cargarlas todas en memoria
+ * - findPage(pageSize, orderBy, cursor): Obtiene una página con cursor
+ * - findAllProjected(fields...): Obtiene todas las entidades solo con algunos campos
  * - update(String id, T entity): Actualiza una entidad
+ * - patch(String id, Map fields): Actualiza solo algunos campos (admite FieldValue)
+ * - patchAtomically(ids, updates): Lee varias entidades y las actualiza en una transacción
  * - delete(String id): Elimina una entidad
+ * - saveAll / updateAll / patchAll / deleteAll: Escrituras masivas (BulkWriter en Firestore)
+ * - count() / countWhere(field, op, value): Cuenta con agregación en el servidor
+ * - listen(listener): Recibe los cambios de la colección (snapshot listener)
+ *
+ * Cada método tiene una variante *Async que devuelve un CompletableFuture
+ * sin bloquear el hilo que la invoca. Las variantes síncronas solo esperan
+ * el resultado de la asíncrona, por eso las subclases deben sobrescribir
+ * la variante *Async cuando necesiten otro comportamiento.
+ *
+ * Lecturas agrupadas (single-flight): si llegan varias lecturas idénticas
+ * mientras la primera sigue en curso (get por ID, consultas y count), todas
+ * esperan esa misma lectura en lugar de ir cada una a Firestore. Cada llamada
+ * convierte su propia entidad, así que pueden modificarla sin afectar a las
+ * demás. Se desactiva por colección con repository.single-flight.<colección>=false.
+ * Métrica: repository.reads{collection, operation, result=executed|coalesced}.
  */
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
-public abstract class BaseRepository<T> {
+public abstract class BaseRepository<T> implements EnvironmentAware {
+
+    /**
+     * Máximo de escrituras encoladas en el BulkWriter antes de esperar a
+     * que terminen (acota memoria y escrituras en vuelo).
+     */
+    private static final int BULK_MAX_IN_FLIGHT = 500;
+
+    /**
+     * Documentos por página en streamAll / stream
+     */
+    private static final int STREAM_PAGE_SIZE = 300;
+
+    protected final DocumentStore store;
+
+    private final SingleFlight reads = new SingleFlight();
+
+    private volatile boolean singleFlightEnabled = true;
 
-    protected final Firestore firestore;
-    
     protected abstract String getCollectionName();
 
     protected abstract Class<T> getEntityClass();
 
-    public String save(T entity) throws ExecutionException, InterruptedException {
+    /**
+     * Lee repository.single-flight.<colección> (true por defecto)
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        singleFlightEnabled = environment.getProperty(
+            "repository.single-flight." + getCollectionName(), Boolean.class, true);
+
+        if (!singleFlightEnabled) {
+            log.info("Lecturas agrupadas desactivadas para {}", getCollectionName());
+        }
+    }
+
+    public CompletableFuture<String> saveAsync(T entity) {
         String id = UUID.randomUUID().toString();
 
         log.debug("Guardado {} con ID: {}", getEntityClass().getSimpleName(), id);
 
-        firestore.collection(getCollectionName())
-            .document(id)
-            .set(entity)
-            .get();
+        return store.set(getCollectionName(), id, getCodec().encode(entity))
+            .thenApply(result -> {
+                log.info("{} guardado exitosamente: {}", getEntityClass().getSimpleName(), id);
+                return id;
+            });
+    }
 
-        log.info("{} guardado exitosamente: {}", getEntityClass().getSimpleName(), id);
+    public String save(T entity) throws ExecutionException, InterruptedException {
+        return saveAsync(entity).get();
+    }
 
-        return id;
+    public CompletableFuture<Optional<T>> findByIdAsync(String id) {
+        log.debug("Buscando {} con ID: {}", getEntityClass().getSimpleName(), id);
+
+        return coalesce("get", id, () -> store.get(getCollectionName(), id))
+            .thenApply(doc -> {
+                if (doc.isEmpty()) {
+                    log.debug("{} no encontrado: {}", getEntityClass().getSimpleName(), id);
+                    return Optional.empty();
+                }
+
+                T entity = toEntity(doc.get());
+
+                log.debug("{} encontrado: {}", getEntityClass().getSimpleName(), id);
+                return Optional.ofNullable(entity);
+            });
     }
 
     public Optional<T> findById(String id) throws ExecutionException, InterruptedException {
-        log.debug("Buscando {} con ID: {}", getEntityClass().getSimpleName(), id);
+        return findByIdAsync(id).get();
+    }
 
-        var doc = firestore.collection(getCollectionName())
-            .document(id)
-            .get()
-            .get();
+    /**
+     * Busca varios documentos por ID en un solo round trip (getAll en Firestore,
+     * en bloques lanzados en paralelo). Los IDs inexistentes se omiten del resultado.
+     */
+    public CompletableFuture<Map<String, T>> findAllByIdsAsync(Collection<String> ids) {
+        log.debug("Buscando {} {} por ID", ids.size(), getEntityClass().getSimpleName());
 
-        if (!doc.exists()) {
-            log.debug("{} no encontrado: {}", getEntityClass().getSimpleName(), id);
-            return Optional.empty();
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
         }
 
-        T entity = doc.toObject(getEntityClass());
-        
-        // CRÍTICO: Asignar el document ID al objeto
-        if (entity != null) {
-            setEntityId(entity, doc.getId());
-        }
-        
-        log.debug("{} encontrado: {}", getEntityClass().getSimpleName());
-        return Optional.ofNullable(entity);
+        return store.getAll(getCollectionName(), ids)
+            .thenApply(docs -> {
+                Map<String, T> entities = new LinkedHashMap<>();
+                for (StoredDocument doc : docs) {
+                    T entity = toEntity(doc);
+                    if (entity != null) {
+                        entities.put(doc.getId(), entity);
+                    }
+                }
+                return entities;
+            });
     }
 
-    public List<T> findAll() throws ExecutionException, InterruptedException {
+    public Map<String, T> findAllByIds(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return findAllByIdsAsync(ids).get();
+    }
+
+    public CompletableFuture<List<T>> findAllAsync() {
         log.debug("Obteniendo a todos los {}", getEntityClass().getSimpleName());
 
-        var querySnapshot = firestore.collection(getCollectionName())
-            .get()
-            .get();
+        return queryAsync(query())
+            .thenApply(entities -> {
+                log.info("Obtenidos {} registros de {}", entities.size(), getEntityClass().getSimpleName());
+                return entities;
+            });
+    }
+
+    public List<T> findAll() throws ExecutionException, InterruptedException {
+        return findAllAsync().get();
+    }
+
+    /**
+     * Recorre toda la colección de forma perezosa, por páginas de STREAM_PAGE_SIZE
+     * con la página siguiente pedida por adelantado. A diferencia de findAll,
+     * solo hay una o dos páginas en memoria a la vez.
+     *
+     * Cada página bloquea al consumirse, por eso no debe usarse desde los
+     * callbacks de un CompletableFuture. Cerrar el Stream (try-with-resources)
+     * cancela la página pendiente si se deja de recorrer antes del final.
+     */
+    public Stream<T> streamAll() {
+        return streamAll(STREAM_PAGE_SIZE);
+    }
 
-        List<T> entities = querySnapshot.getDocuments().stream()
-            .map(doc -> {
-                T entity = doc.toObject(getEntityClass());
-                if (entity != null) {
-                    setEntityId(entity, doc.getId());
+    public Stream<T> streamAll(int pageSize) {
+        return stream(query(), pageSize);
+    }
+
+    /**
+     * Igual que streamAll, pero solo con los documentos que cumplen field op value
+     *
+     * @param op Operador: ==, !=, <, <=, >, >=
+     */
+    public Stream<T> streamWhere(String field, String op, Object value) {
+        return stream(query().where(field, op, value));
+    }
+
+    protected Stream<T> stream(DocumentQuery query) {
+        return stream(query, STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Recorre una consulta por páginas. Respeta sus filtros, orderBy y select;
+     * el límite se reemplaza por pageSize.
+     */
+    protected Stream<T> stream(DocumentQuery query, int pageSize) {
+        log.debug("Recorriendo {} en páginas de {}", getEntityClass().getSimpleName(), pageSize);
+
+        PagedSpliterator<T> pages = new PagedSpliterator<>(store, getCollectionName(), query, pageSize, this::toEntity);
+
+        return StreamSupport.stream(pages, false).onClose(pages::close);
+    }
+
+    /**
+     * Paginación por cursor (keyset): ordena por orderBy y por document ID
+     * como desempate, y continúa después del cursor de la página anterior.
+     * Solo lee pageSize + 1 documentos (el extra indica si hay más páginas).
+     *
+     * @param orderBy Campo de orden, o null para ordenar solo por document ID
+     * @param startAfterCursor Cursor devuelto por la página anterior, o null para la primera
+     */
+    public CompletableFuture<CursorPage<T>> findPageAsync(
+            int pageSize, String orderBy, Query.Direction direction, String startAfterCursor) {
+
+        return findPageAsync(query(), pageSize, orderBy, direction, startAfterCursor);
+    }
+
+    public CursorPage<T> findPage(int pageSize, String orderBy, String startAfterCursor)
+            throws ExecutionException, InterruptedException {
+        return findPageAsync(pageSize, orderBy, Query.Direction.ASCENDING, startAfterCursor).get();
+    }
+
+    public CursorPage<T> findPage(int pageSize, String orderBy, Query.Direction direction, String startAfterCursor)
+            throws ExecutionException, InterruptedException {
+        return findPageAsync(pageSize, orderBy, direction, startAfterCursor).get();
+    }
+
+    /**
+     * Igual que findAll pero solo descarga los campos indicados (Query.select).
+     * Los campos no seleccionados quedan en null/false en la entidad.
+     */
+    public CompletableFuture<List<T>> findAllProjectedAsync(String... fields) {
+        log.debug("Obteniendo {} (campos: {})", getEntityClass().getSimpleName(), String.join(",", fields));
+
+        return queryAsync(query().select(fields));
+    }
+
+    public List<T> findAllProjected(String... fields) throws ExecutionException, InterruptedException {
+        return findAllProjectedAsync(fields).get();
+    }
+
+    /**
+     * Variante paginada de findAllProjected. El campo de orden se agrega a la
+     * selección si no está, porque el cursor necesita su valor.
+     */
+    public CompletableFuture<CursorPage<T>> findPageProjectedAsync(
+            int pageSize, String orderBy, Query.Direction direction, String startAfterCursor, String... fields) {
+
+        List<String> selected = new ArrayList<>(List.of(fields));
+        if (orderBy != null && !selected.contains(orderBy)) {
+            selected.add(orderBy);
+        }
+
+        DocumentQuery query = query().select(selected.toArray(new String[0]));
+
+        return findPageAsync(query, pageSize, orderBy, direction, startAfterCursor);
+    }
+
+    public CursorPage<T> findPageProjected(int pageSize, String orderBy, String startAfterCursor, String... fields)
+            throws ExecutionException, InterruptedException {
+        return findPageProjectedAsync(pageSize, orderBy, Query.Direction.ASCENDING, startAfterCursor, fields).get();
+    }
+
+    private CompletableFuture<CursorPage<T>> findPageAsync(
+            DocumentQuery query, int pageSize, String orderBy, Query.Direction direction, String startAfterCursor) {
+
+        log.debug("Obteniendo página de {} (tamaño: {}, orden: {})",
+            getEntityClass().getSimpleName(), pageSize, orderBy);
+
+        if (orderBy != null) {
+            query = query.orderBy(orderBy, direction);
+        }
+        query = query.orderByDocumentId(direction);
+
+        if (startAfterCursor != null && !startAfterCursor.isBlank()) {
+            Object[] cursor = PageCursor.decode(startAfterCursor);
+            query = orderBy != null
+                ? query.startAfter(cursor[0], cursor[1])
+                : query.startAfter(cursor[1]);
+        }
+
+        DocumentQuery page = query.limit(pageSize + 1);
+
+        return coalesce("query", page, () -> store.query(getCollectionName(), page))
+            .thenApply(docs -> {
+                boolean hasMore = docs.size() > pageSize;
+                List<StoredDocument> pageDocs = hasMore ? docs.subList(0, pageSize) : docs;
+
+                List<T> items = pageDocs.stream()
+                    .map(this::toEntity)
+                    .collect(Collectors.toList());
+
+                String nextCursor = null;
+                if (hasMore) {
+                    StoredDocument last = pageDocs.get(pageDocs.size() - 1);
+                    nextCursor = PageCursor.encode(
+                        orderBy != null ? last.get(orderBy) : null,
+                        last.getId()
+                    );
                 }
-                return entity;
-            })
-            .collect(Collectors.toList());
 
-        log.info("Obtenidos {} registros de {}", entities.size(), getEntityClass().getSimpleName());
+                return new CursorPage<>(items, nextCursor);
+            });
+    }
+
+    public CompletableFuture<Void> updateAsync(String id, T entity) {
+        log.debug("Actualizando {} con ID: {}", getEntityClass().getSimpleName(), id);
 
-        return entities;
+        return store.set(getCollectionName(), id, getCodec().encode(entity))
+            .thenAccept(result -> log.info("{} actualizado: {}", getEntityClass().getSimpleName(), id));
     }
 
     public void update(String id, T entity) throws ExecutionException, InterruptedException {
-        log.debug("Actualizando {} con ID: {}", getEntityClass().getSimpleName(), id);
+        updateAsync(id, entity).get();
+    }
 
-        firestore.collection(getCollectionName())
-            .document(id)
-            .set(entity)
-            .get();
-        log.info("{} actualizado: {}", getEntityClass().getSimpleName(), id);
+    /**
+     * Actualiza solo los campos indicados, sin reescribir el documento completo.
+     * Los valores pueden ser FieldValue (increment, arrayUnion, arrayRemove,
+     * serverTimestamp), que se aplican de forma atómica en el servidor.
+     * Falla con NOT_FOUND si el documento no existe.
+     */
+    public CompletableFuture<Void> patchAsync(String id, Map<String, Object> fields) {
+        log.debug("Actualizando campos {} de {} con ID: {}", fields.keySet(), getEntityClass().getSimpleName(), id);
+
+        return store.update(getCollectionName(), id, fields)
+            .thenAccept(result -> log.debug("{} actualizado: {}", getEntityClass().getSimpleName(), id));
     }
 
-    public void delete(String id) throws ExecutionException, InterruptedException {
+    public void patch(String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        patchAsync(id, fields).get();
+    }
+
+    /**
+     * Lee las entidades ids y aplica los campos que devuelve updates (ID -> campos)
+     * en una transacción: si otro escribe esos documentos entre la lectura y la
+     * escritura, se vuelve a leer y updates se llama de nuevo. Una excepción de
+     * updates cancela todo y hace fallar el future.
+     */
+    public CompletableFuture<Void> patchAtomicallyAsync(Collection<String> ids,
+            Function<Map<String, T>, Map<String, Map<String, Object>>> updates) {
+        log.debug("Actualizando en transacción {} {}", ids.size(), getEntityClass().getSimpleName());
+
+        return store.updateAtomically(getCollectionName(), ids, documents -> {
+            Map<String, T> entities = new LinkedHashMap<>();
+            documents.forEach((id, doc) -> entities.put(id, toEntity(doc)));
+            return updates.apply(entities);
+        });
+    }
+
+    public void patchAtomically(Collection<String> ids,
+            Function<Map<String, T>, Map<String, Map<String, Object>>> updates)
+            throws ExecutionException, InterruptedException {
+        patchAtomicallyAsync(ids, updates).get();
+    }
+
+    public CompletableFuture<Void> deleteAsync(String id) {
         log.debug("Eliminando {} con ID: {}", getEntityClass().getSimpleName(), id);
 
-        firestore.collection(getCollectionName())
-            .document(id)
-            .delete()
-            .get();
+        return store.delete(getCollectionName(), id)
+            .thenAccept(result -> log.info("{} eliminado: {}", getEntityClass().getSimpleName(), id));
+    }
+
+    public void delete(String id) throws ExecutionException, InterruptedException {
+        deleteAsync(id).get();
+    }
+
+    /**
+     * Guarda varias entidades en una escritura masiva, cada una con un ID nuevo (igual que save).
+     * Los IDs generados vienen en BulkWriteResult.ids, en el orden de la lista.
+     */
+    public CompletableFuture<BulkWriteResult> saveAllAsync(List<T> entities) {
+        Map<String, T> byId = new LinkedHashMap<>();
+        for (T entity : entities) {
+            byId.put(UUID.randomUUID().toString(), entity);
+        }
+
+        return bulkWriteAsync("saveAll", new ArrayList<>(byId.keySet()),
+            (writer, id) -> writer.set(getCollectionName(), id, getCodec().encode(byId.get(id))));
+    }
+
+    public BulkWriteResult saveAll(List<T> entities) throws ExecutionException, InterruptedException {
+        return saveAllAsync(entities).get();
+    }
+
+    /**
+     * Reemplaza varios documentos completos (ID -> entidad), como update.
+     */
+    public CompletableFuture<BulkWriteResult> updateAllAsync(Map<String, T> entities) {
+        return bulkWriteAsync("updateAll", new ArrayList<>(entities.keySet()),
+            (writer, id) -> writer.set(getCollectionName(), id, getCodec().encode(entities.get(id))));
+    }
+
+    public BulkWriteResult updateAll(Map<String, T> entities) throws ExecutionException, InterruptedException {
+        return updateAllAsync(entities).get();
+    }
+
+    /**
+     * Actualiza solo los campos indicados de varios documentos (ID -> campos).
+     * Los documentos que no existen quedan en failures (update no los crea).
+     */
+    public CompletableFuture<BulkWriteResult> patchAllAsync(Map<String, Map<String, Object>> changes) {
+        return bulkWriteAsync("patchAll", new ArrayList<>(changes.keySet()),
+            (writer, id) -> writer.update(getCollectionName(), id, changes.get(id)));
+    }
 
-        log.info("{} eliminado: {}", getEntityClass().getSimpleName(), id);
+    public BulkWriteResult patchAll(Map<String, Map<String, Object>> changes)
+            throws ExecutionException, InterruptedException {
+        return patchAllAsync(changes).get();
+    }
+
+    public CompletableFuture<BulkWriteResult> deleteAllAsync(Collection<String> ids) {
+        return bulkWriteAsync("deleteAll", new ArrayList<>(new LinkedHashSet<>(ids)),
+            (writer, id) -> writer.delete(getCollectionName(), id));
+    }
+
+    public BulkWriteResult deleteAll(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return deleteAllAsync(ids).get();
+    }
+
+    /**
+     * Escucha los cambios de la colección (addSnapshotListener en Firestore).
+     * El primer evento trae todas las entidades; los siguientes, solo las que
+     * cambiaron. Devuelve el registro para dejar de escuchar (remove()).
+     */
+    public ListenerRegistration listen(EntityChangeListener<T> listener) {
+        return listen(query(), listener);
+    }
+
+    /**
+     * Igual que listen, pero solo con las entidades que cumplen los filtros
+     * de la consulta. Las que dejan de cumplirlos llegan en removed.
+     */
+    protected ListenerRegistration listen(DocumentQuery query, EntityChangeListener<T> listener) {
+        log.debug("Escuchando cambios de {}", getEntityClass().getSimpleName());
+
+        return store.listen(getCollectionName(), query, new DocumentChangeListener() {
+            @Override
+            public void onChanges(List<StoredDocumentChange> changes) {
+                Map<String, T> upserted = new LinkedHashMap<>();
+                Set<String> removed = new LinkedHashSet<>();
+
+                for (StoredDocumentChange change : changes) {
+                    String id = change.getDocument().getId();
+
+                    if (change.getType() == StoredDocumentChange.Type.REMOVED) {
+                        upserted.remove(id);
+                        removed.add(id);
+                    } else {
+                        removed.remove(id);
+                        upserted.put(id, toEntity(change.getDocument()));
+                    }
+                }
+
+                listener.onChanges(upserted, removed);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                log.error("❌ Listener de {} detenido: {}", getEntityClass().getSimpleName(), error.getMessage());
+                listener.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Cuenta los documentos con una agregación (count() en Firestore),
+     * sin descargar ningún documento.
+     */
+    public CompletableFuture<Long> countAsync() {
+        return countAsync(query());
     }
 
     public long count() throws ExecutionException, InterruptedException {
-        var querySnapshot = firestore.collection(getCollectionName())
-            .get()
-            .get();
-        
-        return querySnapshot.size();
-    }
-    
-    /**
-     * Asigna el document ID de Firestore al campo 'id' de la entidad usando reflection.
-     * Este método es crítico porque Firestore no mapea automáticamente el document ID.
-     * 
-     * @param entity La entidad a la que se asignará el ID
-     * @param documentId El ID del documento de Firestore
-     */
-    private void setEntityId(T entity, String documentId) {
-        try {
-            var setIdMethod = getEntityClass().getMethod("setId", String.class);
-            setIdMethod.invoke(entity, documentId);
-        } catch (Exception e) {
-            log.warn("No se pudo asignar ID a la entidad {}: {}", 
-                getEntityClass().getSimpleName(), e.getMessage());
+        return countAsync().get();
+    }
+
+    /**
+     * Cuenta los documentos que cumplen field op value con una agregación.
+     *
+     * @param op Operador: ==, !=, <, <=, >, >=
+     */
+    public CompletableFuture<Long> countWhereAsync(String field, String op, Object value) {
+        return countAsync(query().where(field, op, value));
+    }
+
+    public long countWhere(String field, String op, Object value) throws ExecutionException, InterruptedException {
+        return countWhereAsync(field, op, value).get();
+    }
+
+    /**
+     * Ejecuta la agregación count() de una consulta.
+     */
+    protected CompletableFuture<Long> countAsync(DocumentQuery query) {
+        return coalesce("count", query, () -> store.count(getCollectionName(), query));
+    }
+
+    /**
+     * Consulta vacía sobre la colección del repositorio (equivale a firestore.collection(...))
+     */
+    protected DocumentQuery query() {
+        return new DocumentQuery();
+    }
+
+    /**
+     * Ejecuta una consulta y convierte cada documento en entidad (con su ID asignado).
+     */
+    protected CompletableFuture<List<T>> queryAsync(DocumentQuery query) {
+        return coalesce("query", query, () -> store.query(getCollectionName(), query))
+            .thenApply(docs -> docs.stream()
+                .map(this::toEntity)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Ejecuta la lectura, o se une a una idéntica (misma operación y argumento)
+     * que siga en curso. El resultado compartido son los documentos sin
+     * convertir: cada llamada arma sus propias entidades.
+     */
+    private <V> CompletableFuture<V> coalesce(String operation, Object argument, Supplier<CompletableFuture<V>> read) {
+        if (!singleFlightEnabled) {
+            countRead(operation, "executed");
+            return read.get();
+        }
+
+        return reads.run(List.of(operation, argument),
+            () -> {
+                countRead(operation, "executed");
+                return read.get();
+            },
+            () -> countRead(operation, "coalesced"));
+    }
+
+    private void countRead(String operation, String result) {
+        Metrics.counter("repository.reads",
+            "collection", getCollectionName(),
+            "operation", operation,
+            "result", result
+        ).increment();
+    }
+
+    /**
+     * Ejecuta una escritura por ID en un DocumentBulkWriter, en tandas de
+     * BULK_MAX_IN_FLIGHT: cada tanda se hace flush y se espera (sin bloquear)
+     * antes de encolar la siguiente. Un error en un documento se registra en
+     * failures y no detiene al resto.
+     */
+    private CompletableFuture<BulkWriteResult> bulkWriteAsync(
+            String operation, List<String> ids, BiFunction<DocumentBulkWriter, String, CompletableFuture<Void>> write) {
+
+        log.debug("{} de {}: {} documentos", operation, getEntityClass().getSimpleName(), ids.size());
+
+        DocumentBulkWriter writer = store.bulkWriter();
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int from = 0; from < ids.size(); from += BULK_MAX_IN_FLIGHT) {
+            List<String> chunk = ids.subList(from, Math.min(from + BULK_MAX_IN_FLIGHT, ids.size()));
+            chain = chain.thenCompose(ignored -> writeChunk(writer, chunk, write, failures));
+        }
+
+        return chain.handle((ignored, error) -> {
+            writer.close();
+
+            if (error != null) {
+                throw error instanceof CompletionException
+                    ? (CompletionException) error
+                    : new CompletionException(error);
+            }
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            double opsPerSecond = elapsedMillis > 0 ? ids.size() * 1000.0 / elapsedMillis : ids.size();
+
+            BulkWriteResult result = BulkWriteResult.builder()
+                .operation(operation)
+                .total(ids.size())
+                .succeeded(ids.size() - failures.size())
+                .ids(ids)
+                .failures(new LinkedHashMap<>(failures))
+                .elapsedMillis(elapsedMillis)
+                .opsPerSecond(Math.round(opsPerSecond * 10) / 10.0)
+                .build();
+
+            log.info("{} de {}: {}/{} OK, {} fallidos en {} ms ({} ops/s)",
+                operation, getEntityClass().getSimpleName(), result.getSucceeded(), result.getTotal(),
+                result.getFailed(), elapsedMillis, result.getOpsPerSecond());
+
+            return result;
+        });
+    }
+
+    private CompletableFuture<Void> writeChunk(
+            DocumentBulkWriter writer,
+            List<String> chunk,
+            BiFunction<DocumentBulkWriter, String, CompletableFuture<Void>> write,
+            Map<String, String> failures) {
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(chunk.size());
+
+        for (String id : chunk) {
+            CompletableFuture<Void> future;
+            try {
+                future = write.apply(writer, id);
+            } catch (RuntimeException e) {
+                // Ej: el codec no pudo serializar la entidad
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            pending.add(future.handle((result, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                    log.warn("⚠️ Escritura masiva fallida en {} {}: {}",
+                        getEntityClass().getSimpleName(), id, cause.getMessage());
+                    failures.put(id, String.valueOf(cause.getMessage()));
+                }
+                return null;
+            }));
         }
+
+        writer.flush();
+
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Convierte un documento en la entidad, asignando el document ID.
+     * Usa el codec de la entidad (sin reflection).
+     */
+    protected T toEntity(StoredDocument doc) {
+        return getCodec().decode(doc.getId(), doc.getData());
+    }
+
+    /**
+     * Codec campo por campo de la entidad (ver FirestoreCodecs).
+     */
+    protected FirestoreCodec<T> getCodec() {
+        return FirestoreCodecs.forClass(getEntityClass());
     }
 }
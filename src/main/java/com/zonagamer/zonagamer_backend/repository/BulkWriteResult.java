@@ -0,0 +1,56 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una operación masiva (saveAll, updateAll, patchAll, deleteAll)
+ *
+ * Ejemplo de JSON:
+ * {
+ *   "operation": "patchAll",
+ *   "total": 250,
+ *   "succeeded": 249,
+ *   "ids": [ ... ],
+ *   "failures": { "abc123": "NOT_FOUND: No document to update" },
+ *   "elapsedMillis": 812,
+ *   "opsPerSecond": 307.9
+ * }
+ *
+ * Un documento que falla no aborta el resto: queda en failures con su error.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkWriteResult {
+
+    private String operation;
+
+    private int total;
+
+    private int succeeded;
+
+    /**
+     * IDs de los documentos procesados, en el mismo orden de la entrada
+     */
+    private List<String> ids;
+
+    /**
+     * ID del documento -> mensaje de error
+     */
+    private Map<String, String> failures;
+
+    private long elapsedMillis;
+
+    private double opsPerSecond;
+
+    public int getFailed() {
+        return failures != null ? failures.size() : 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import com.google.cloud.Timestamp;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Colección cache_invalidations: cada documento es un aviso de cambio que
+ * todas las instancias reciben con un snapshot listener. Los avisos viejos
+ * se borran (ver CacheInvalidationBus), así la colección se mantiene chica.
+ */
+@Repository
+public class CacheInvalidationRepository extends BaseRepository<CacheInvalidation> {
+
+    public CacheInvalidationRepository(DocumentStore store) {
+        super(store);
+    }
+
+    @Override
+    protected String getCollectionName() {
+        return "cache_invalidations";
+    }
+
+    @Override
+    protected Class<CacheInvalidation> getEntityClass() {
+        return CacheInvalidation.class;
+    }
+
+    /**
+     * Igual que BaseRepository.saveAsync pero sin el log INFO: se publica un
+     * aviso por cada escritura de productos, usuarios, categorías y carritos
+     */
+    @Override
+    public CompletableFuture<String> saveAsync(CacheInvalidation entity) {
+        String id = UUID.randomUUID().toString();
+
+        return store.set(getCollectionName(), id, getCodec().encode(entity))
+            .thenApply(result -> id);
+    }
+
+    /**
+     * IDs de los avisos publicados antes de cutoff (sin descargar los campos)
+     */
+    public CompletableFuture<List<String>> findIdsPublishedBeforeAsync(Timestamp cutoff) {
+        return queryAsync(query().whereLessThan("publishedAt", cutoff).select())
+            .thenApply(invalidations -> invalidations.stream()
+                .map(CacheInvalidation::getId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Avisos publicados después de since (filtra solo por fecha: no necesita índice compuesto)
+     */
+    public CompletableFuture<List<CacheInvalidation>> findPublishedAfterAsync(Timestamp since) {
+        return queryAsync(query().where("publishedAt", ">", since).select("entityType", "entityId"));
+    }
+}
@@ -1,11 +1,11 @@
 package com.zonagamer.zonagamer_backend.repository;
 
 
-import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.Timestamp;
 import com.zonagamer.zonagamer_backend.model.CalendarEvent;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -14,14 +14,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Repository
 public class CalendarEventRepository extends BaseRepository<CalendarEvent> {
     
 
-    public CalendarEventRepository(Firestore firestore){
-        super(firestore);
+    public CalendarEventRepository(DocumentStore store){
+        super(store);
     }
 
     @Override
@@ -35,82 +36,47 @@ public class CalendarEventRepository extends BaseRepository<CalendarEvent> {
     }
 
     @Override
-    public String save(CalendarEvent entity) throws ExecutionException, InterruptedException {
+    public CompletableFuture<String> saveAsync(CalendarEvent entity) {
         String id = UUID.randomUUID().toString();
         
         // Crear Map para garantizar timestamps automáticos
-        Map<String, Object> eventData = new HashMap<>();
-        eventData.put("titulo", entity.getTitulo());
-        eventData.put("descripcion", entity.getDescripcion());
-        eventData.put("fechaDeInicio", entity.getFechaDeInicio());
-        eventData.put("fechaDeTermino", entity.getFechaDeTermino());
-        eventData.put("type", entity.getType().name());
-        eventData.put("completed", entity.isCompleted());
-        eventData.put("creadoPor", entity.getCreadoPor());
+        Map<String, Object> eventData = getCodec().encode(entity);
         
         // ✅ Timestamp automático para fechaDeCreacion
         eventData.put("fechaDeCreacion", FieldValue.serverTimestamp());
         
-        firestore.collection(getCollectionName())
-            .document(id)
-            .set(eventData)
-            .get();
-        
-        return id;
+        return store.set(getCollectionName(), id, eventData)
+            .thenApply(result -> id);
     }
 
     @Override
-    public void update(String id, CalendarEvent entity) throws ExecutionException, InterruptedException {
-        Map<String, Object> eventData = new HashMap<>();
-        eventData.put("titulo", entity.getTitulo());
-        eventData.put("descripcion", entity.getDescripcion());
-        eventData.put("fechaDeInicio", entity.getFechaDeInicio());
-        eventData.put("fechaDeTermino", entity.getFechaDeTermino());
-        eventData.put("type", entity.getType().name());
-        eventData.put("completed", entity.isCompleted());
+    public CompletableFuture<Void> updateAsync(String id, CalendarEvent entity) {
+        Map<String, Object> eventData = getCodec().encode(entity);
         // NO actualizar creadoPor ni fechaDeCreacion
+        eventData.remove("creadoPor");
         
-        firestore.collection(getCollectionName())
-            .document(id)
-            .update(eventData)
-            .get();
+        return store.update(getCollectionName(), id, eventData);
     }
 
-    public List<CalendarEvent> findPending() throws ExecutionException, InterruptedException {
-        var querySnapshot = firestore.collection(getCollectionName())
+    public CompletableFuture<List<CalendarEvent>> findPendingAsync() {
+        return queryAsync(query()
             .whereEqualTo("completed", false)
-            .orderBy("fechaDeInicio", Query.Direction.ASCENDING)
-            .get()
-            .get();
-        
-        return querySnapshot.getDocuments().stream()
-            .map(doc -> {
-                CalendarEvent event = doc.toObject(CalendarEvent.class);
-                if (event != null) {
-                    event.setId(doc.getId());
-                }
-                return event;
-            })
-            .collect(java.util.stream.Collectors.toList());
+            .orderBy("fechaDeInicio", Query.Direction.ASCENDING));
     }
 
-    public List<CalendarEvent> findByDateRange(Timestamp start, Timestamp end) 
-            throws ExecutionException, InterruptedException {
-        var querySnapshot = firestore.collection(getCollectionName())
+    public List<CalendarEvent> findPending() throws ExecutionException, InterruptedException {
+        return findPendingAsync().get();
+    }
+
+    public CompletableFuture<List<CalendarEvent>> findByDateRangeAsync(Timestamp start, Timestamp end) {
+        return queryAsync(query()
             .whereGreaterThanOrEqualTo("fechaDeInicio", start)
             .whereLessThanOrEqualTo("fechaDeInicio", end)
-            .orderBy("fechaDeInicio", Query.Direction.ASCENDING)
-            .get()
-            .get();
-        
-        return querySnapshot.getDocuments().stream()
-            .map(doc -> {
-                CalendarEvent event = doc.toObject(CalendarEvent.class);
-                if (event != null) {
-                    event.setId(doc.getId());
-                }
-                return event;
-            })
-            .collect(java.util.stream.Collectors.toList());
+            .orderBy("fechaDeInicio", Query.Direction.ASCENDING));
+    }
+
+    public List<CalendarEvent> findByDateRange(Timestamp start, Timestamp end) 
+            throws ExecutionException, InterruptedException {
+        return findByDateRangeAsync(start, end).get();
     }
 }
@@ -1,18 +1,25 @@
 package com.zonagamer.zonagamer_backend.repository;
 
 
-import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FieldValue;
 import com.zonagamer.zonagamer_backend.model.Cart;
+import com.zonagamer.zonagamer_backend.model.CartItem;
+import com.zonagamer.zonagamer_backend.repository.codec.CartCodec;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @Repository
 public class CartRepository extends BaseRepository<Cart> {
     
-    public CartRepository(Firestore firestore){
-        super(firestore);
+    public CartRepository(DocumentStore store){
+        super(store);
     }
 
     @Override
@@ -25,25 +32,48 @@ public class CartRepository extends BaseRepository<Cart> {
         return Cart.class;
     }
 
+    public CompletableFuture<Optional<Cart>> findByUserIdAsync(String userId) {
+        return queryAsync(query()
+                .whereEqualTo("userId", userId)
+                .limit(1))
+            .thenApply(carts -> carts.stream().findFirst());
+    }
+
     public Optional<Cart> findByUserId(String userId) throws ExecutionException, InterruptedException{
-        var querySnapshot = firestore.collection(getCollectionName())
-            .whereEqualTo("userId", userId)
-            .limit(1)
-            .get()
-            .get();
-
-        if (querySnapshot.isEmpty()) {
-            return Optional.empty();
-        }
-
-        // ✅ CORRECCIÓN: Obtener el documento y asignar el ID
-        var document = querySnapshot.getDocuments().get(0);
-        Cart cart = document.toObject(Cart.class);
-        
-        if (cart != null) {
-            cart.setId(document.getId());  // ← CRÍTICO: Asignar document ID
-        }
-        
-        return Optional.of(cart);
+        return findByUserIdAsync(userId).get();
+    }
+
+    /**
+     * Agrega un item al final del carrito con arrayUnion, sin reescribir los demás
+     */
+    public CompletableFuture<Void> addItemAsync(String cartId, CartItem item) {
+        return patchAsync(cartId, Map.of(
+            "items", FieldValue.arrayUnion(CartCodec.encodeItem(item)),
+            "fechaActualizacion", FieldValue.serverTimestamp()
+        ));
+    }
+
+    public void addItem(String cartId, CartItem item) throws ExecutionException, InterruptedException {
+        addItemAsync(cartId, item).get();
+    }
+
+    /**
+     * Reemplaza solo el campo "items". Firestore no permite modificar un
+     * elemento de un array en el lugar, así que cambiar una cantidad o
+     * quitar un item reescribe la lista (pero no el resto del documento).
+     */
+    public CompletableFuture<Void> replaceItemsAsync(String cartId, List<CartItem> items) {
+        List<Map<String, Object>> encoded = items.stream()
+            .map(CartCodec::encodeItem)
+            .collect(Collectors.toList());
+
+        return patchAsync(cartId, Map.of(
+            "items", encoded,
+            "fechaActualizacion", FieldValue.serverTimestamp()
+        ));
+    }
+
+    public void replaceItems(String cartId, List<CartItem> items) throws ExecutionException, InterruptedException {
+        replaceItemsAsync(cartId, items).get();
     }
 }
@@ -1,21 +1,23 @@
 package com.zonagamer.zonagamer_backend.repository;
 
 import com.fasterxml.jackson.databind.JsonSerializable.Base;
-import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
 import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 @Repository
 public class CategoryRepository extends BaseRepository<Category>{
     
+    private static final int ROOT_SCAN_PAGE_SIZE = 300;
 
-    public CategoryRepository(Firestore firestore){
-        super(firestore);
+    public CategoryRepository(DocumentStore store){
+        super(store);
     }
 
     @Override
@@ -33,33 +35,51 @@ public class CategoryRepository extends BaseRepository<Category>{
      * en lugar de generar un UUID
      */
     @Override
-    public String save(Category entity) throws ExecutionException, InterruptedException {
+    public CompletableFuture<String> saveAsync(Category entity) {
         if (entity.getId() == null || entity.getId().isEmpty()) {
             throw new IllegalArgumentException("Category ID no puede ser null o vacío");
         }
         
         String categoryId = entity.getId();
         
-        firestore.collection(getCollectionName())
-            .document(categoryId)  // Usar el ID de la categoría como document ID
-            .set(entity)
-            .get();
-        
-        return categoryId;
+        return store.set(getCollectionName(), categoryId, getCodec().encode(entity))  // Usar el ID de la categoría como document ID
+            .thenApply(result -> categoryId);
+    }
+
+    /**
+     * Las categorías raíz pueden no tener el campo parentId, por eso se
+     * filtran recorriendo la colección por páginas. Cada página se pide
+     * cuando llega la anterior (findPageAsync encadenadas), sin bloquear
+     * ningún hilo mientras tanto; solo se guardan las raíces.
+     */
+    public CompletableFuture<List<Category>> findRootCategoriesAsync() {
+        return findRootCategoriesAsync(null, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<Category>> findRootCategoriesAsync(String cursor, List<Category> roots) {
+        return findPageAsync(ROOT_SCAN_PAGE_SIZE, null, Query.Direction.ASCENDING, cursor)
+            .thenCompose(page -> {
+                page.getItems().stream()
+                    .filter(Category::isRoot)
+                    .forEach(roots::add);
+
+                return page.isHasMore()
+                    ? findRootCategoriesAsync(page.getNextCursor(), roots)
+                    : CompletableFuture.completedFuture(roots);
+            });
     }
 
     public List<Category> findRootCategories() throws ExecutionException, InterruptedException {
-        return findAll().stream()
-            .filter(Category::isRoot)
-            .collect(Collectors.toList());
+        return findRootCategoriesAsync().get();
     }
 
-    public List<Category> findByParentId(String parentId) throws ExecutionException, InterruptedException {
-        return firestore.collection(getCollectionName())
+    public CompletableFuture<List<Category>> findByParentIdAsync(String parentId) {
+        return queryAsync(query()
             .whereEqualTo("parentId", parentId)
-            .whereEqualTo("active", true)
-            .get()
-            .get()
-            .toObjects(Category.class);
+            .whereEqualTo("active", true));
+    }
+
+    public List<Category> findByParentId(String parentId) throws ExecutionException, InterruptedException {
+        return findByParentIdAsync(parentId).get();
     }
 }
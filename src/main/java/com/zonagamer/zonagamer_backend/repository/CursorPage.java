@@ -0,0 +1,65 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página de resultados con paginación por cursor (keyset)
+ *
+ * Ejemplo de JSON:
+ * {
+ *   "items": [ ... ],
+ *   "nextCursor": "czpQbGF5U3RhdGlvbiA1fGFiYzEyMw",
+ *   "hasMore": true
+ * }
+ *
+ * nextCursor es opaco: el cliente solo lo reenvía como ?cursor= para pedir
+ * la página siguiente. Es null cuando no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Normaliza el ?limit= recibido: null usa el tamaño por defecto y
+     * nunca se supera MAX_PAGE_SIZE.
+     */
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser al menos 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Convierte los items conservando el cursor (ej: entidad -> DTO)
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+
+        return new CursorPage<>(mapped, nextCursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recibe los cambios de una colección ya convertidos a entidades (ver BaseRepository.listen).
+ *
+ * El primer llamado trae todas las entidades existentes en upserted.
+ */
+@FunctionalInterface
+public interface EntityChangeListener<T> {
+
+    /**
+     * @param upserted Entidades creadas o modificadas (ID -> entidad)
+     * @param removed IDs eliminados
+     */
+    void onChanges(Map<String, T> upserted, Set<String> removed);
+
+    /**
+     * El listener quedó detenido; hay que volver a registrarlo
+     */
+    default void onError(Throwable error) {
+    }
+}
@@ -1,18 +1,19 @@
 package com.zonagamer.zonagamer_backend.repository;
 
-import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
 import com.zonagamer.zonagamer_backend.model.Order;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Repository
 public class OrderRepository extends BaseRepository<Order>{
     
-    public OrderRepository(Firestore firestore) {
-        super(firestore);
+    public OrderRepository(DocumentStore store) {
+        super(store);
     }
 
     @Override
@@ -25,39 +26,23 @@ public class OrderRepository extends BaseRepository<Order>{
         return Order.class;
     }
 
-    public List<Order> findByUserId(String userId) throws ExecutionException, InterruptedException{
-        var querySnapshot = firestore.collection(getCollectionName())
+    public CompletableFuture<List<Order>> findByUserIdAsync(String userId) {
+        return queryAsync(query()
             .whereEqualTo("userId", userId)
-            .orderBy("fechaDeCreacion", Query.Direction.DESCENDING)
-            .get()
-            .get();
-        
-        return querySnapshot.getDocuments().stream()
-            .map(doc -> {
-                Order order = doc.toObject(Order.class);
-                if (order != null) {
-                    order.setId(doc.getId());  // CRÍTICO: Asignar document ID
-                }
-                return order;
-            })
-            .collect(java.util.stream.Collectors.toList());
+            .orderBy("fechaDeCreacion", Query.Direction.DESCENDING));
+    }
+
+    public List<Order> findByUserId(String userId) throws ExecutionException, InterruptedException{
+        return findByUserIdAsync(userId).get();
+    }
+
+    public CompletableFuture<List<Order>> findByStatusAsync(Order.OrderStatus status) {
+        return queryAsync(query()
+            .whereEqualTo("status", status.name()));
     }
 
     public List<Order> findByStatus(Order.OrderStatus status) throws ExecutionException, InterruptedException{
-        var querySnapshot = firestore.collection(getCollectionName())
-            .whereEqualTo("status", status.name())
-            .get()
-            .get();
-        
-        return querySnapshot.getDocuments().stream()
-            .map(doc -> {
-                Order order = doc.toObject(Order.class);
-                if (order != null) {
-                    order.setId(doc.getId());  // CRÍTICO: Asignar document ID
-                }
-                return order;
-            })
-            .collect(java.util.stream.Collectors.toList());
+        return findByStatusAsync(status).get();
     }
     
 }
@@ -0,0 +1,106 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import com.google.cloud.Timestamp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores opacos de CursorPage.
+ *
+ * El cursor guarda el valor del campo de orden del último documento de la
+ * página más su document ID (desempate), con un prefijo de tipo para poder
+ * reconstruir el valor exacto que espera Firestore en startAfter().
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private PageCursor() {
+    }
+
+    public static String encode(Object orderValue, String documentId) {
+        String raw = encodeValue(orderValue) + SEPARATOR + documentId;
+
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return {valorDeOrden, documentId}
+     */
+    public static Object[] decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+
+        int separator = raw.lastIndexOf(SEPARATOR);
+        if (separator < 2 || raw.charAt(1) != ':') {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+
+        Object value = decodeValue(raw.charAt(0), raw.substring(2, separator));
+        String documentId = raw.substring(separator + 1);
+
+        return new Object[] { value, documentId };
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "z:";
+        }
+        if (value instanceof String s) {
+            return "s:" + s;
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return "l:" + value;
+        }
+        if (value instanceof Number n) {
+            return "d:" + n.doubleValue();
+        }
+        if (value instanceof Boolean b) {
+            return "b:" + b;
+        }
+        if (value instanceof Timestamp t) {
+            return "t:" + t.getSeconds() + "." + t.getNanos();
+        }
+        if (value instanceof java.util.Date d) {
+            Timestamp t = Timestamp.of(d);
+            return "t:" + t.getSeconds() + "." + t.getNanos();
+        }
+        throw new IllegalArgumentException(
+            "Tipo de campo no soportado para paginación: " + value.getClass().getSimpleName()
+        );
+    }
+
+    private static Object decodeValue(char type, String value) {
+        try {
+            switch (type) {
+                case 'z':
+                    return null;
+                case 's':
+                    return value;
+                case 'l':
+                    return Long.parseLong(value);
+                case 'd':
+                    return Double.parseDouble(value);
+                case 'b':
+                    return Boolean.parseBoolean(value);
+                case 't':
+                    int dot = value.indexOf('.');
+                    return Timestamp.ofTimeSecondsAndNanos(
+                        Long.parseLong(value.substring(0, dot)),
+                        Integer.parseInt(value.substring(dot + 1))
+                    );
+                default:
+                    throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
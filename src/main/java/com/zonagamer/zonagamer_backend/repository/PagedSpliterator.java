@@ -0,0 +1,112 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import com.zonagamer.zonagamer_backend.repository.store.DocumentQuery;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
+import com.zonagamer.zonagamer_backend.repository.store.StoredDocument;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Recorre una consulta por páginas de pageSize documentos (keyset: orderBy +
+ * document ID, igual que findPage), pidiendo la página siguiente en cuanto
+ * llega la actual. Así hay como máximo dos páginas en memoria y la descarga
+ * de la siguiente se solapa con el procesamiento de la actual.
+ *
+ * Los documentos se convierten a entidad uno por uno, al consumirlos.
+ */
+@Slf4j
+class PagedSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final DocumentStore store;
+    private final String collection;
+    private final DocumentQuery query;
+    private final int pageSize;
+    private final Function<StoredDocument, T> decoder;
+
+    private Iterator<StoredDocument> current = Collections.emptyIterator();
+    private CompletableFuture<List<StoredDocument>> next;
+    private boolean started;
+    private int pages;
+    private long total;
+
+    PagedSpliterator(DocumentStore store, String collection, DocumentQuery query, int pageSize,
+            Function<StoredDocument, T> decoder) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize debe ser mayor que 0");
+        }
+
+        DocumentQuery ordered = query.orderByDocumentId(query.getDirection()).limit(pageSize);
+        if (ordered.getSelect() != null && query.getOrderBy() != null
+                && !ordered.getSelect().contains(query.getOrderBy())) {
+            // El cursor necesita el valor del campo de orden
+            List<String> selected = new ArrayList<>(ordered.getSelect());
+            selected.add(query.getOrderBy());
+            ordered = ordered.select(selected.toArray(new String[0]));
+        }
+
+        this.store = store;
+        this.collection = collection;
+        this.query = ordered;
+        this.pageSize = pageSize;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!started) {
+            // La primera página se pide recién al consumir el Stream
+            started = true;
+            next = store.query(collection, query);
+        }
+
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+
+            List<StoredDocument> page = next.join();
+            pages++;
+            total += page.size();
+
+            if (page.size() < pageSize) {
+                next = null;
+                log.debug("Recorridos {} documentos de {} en {} páginas", total, collection, pages);
+            } else {
+                next = store.query(collection, query.startAfter(cursorOf(page.get(page.size() - 1))));
+            }
+
+            current = page.iterator();
+        }
+
+        action.accept(decoder.apply(current.next()));
+        return true;
+    }
+
+    /**
+     * Cancela la página pedida por adelantado (Stream.close / try-with-resources)
+     */
+    void close() {
+        started = true;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    private Object[] cursorOf(StoredDocument last) {
+        return query.getOrderBy() != null
+            ? new Object[] { last.get(query.getOrderBy()), last.getId() }
+            : new Object[] { last.getId() };
+    }
+}
@@ -1,18 +1,20 @@
 package com.zonagamer.zonagamer_backend.repository;
 
-import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
 import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.repository.store.DocumentStore;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 @Repository
 public class ProductRepository extends BaseRepository<Product>{
-    public ProductRepository(Firestore firestore){
-        super(firestore);
+    public ProductRepository(DocumentStore store){
+        super(store);
     }
 
     @Override
@@ -25,42 +27,42 @@ public class ProductRepository extends BaseRepository<Product>{
         return Product.class;
     }
 
-    public List<Product> findByCategory(String categoryId) throws ExecutionException, InterruptedException {
-        return firestore.collection(getCollectionName())
+    public CompletableFuture<List<Product>> findByCategoryAsync(String categoryId) {
+        return queryAsync(query()
             .whereEqualTo("categoryId", categoryId)
-            .whereEqualTo("active", true)
-            .get()
-            .get()
-            .toObjects(Product.class);
+            .whereEqualTo("active", true));
     }
 
-    public List<Product> findFeatured() throws ExecutionException, InterruptedException {
-        return firestore.collection(getCollectionName())
+    public List<Product> findByCategory(String categoryId) throws ExecutionException, InterruptedException {
+        return findByCategoryAsync(categoryId).get();
+    }
+
+    public CompletableFuture<List<Product>> findFeaturedAsync() {
+        return queryAsync(query()
             .whereEqualTo("isFeatured", true)
-            .whereEqualTo("active", true)
-            .get()
-            .get()
-            .toObjects(null);
+            .whereEqualTo("active", true));
     }
 
-    public List<Product> findLowStock(int threshold) throws ExecutionException, InterruptedException {
-        return firestore.collection(getCollectionName())
-            .whereLessThan("stock", threshold)
-            .whereEqualTo("active", true)
-            .get()
-            .get()
-            .toObjects(Product.class);
+    public List<Product> findFeatured() throws ExecutionException, InterruptedException {
+        return findFeaturedAsync().get();
     }
 
-    public List<Product> searchByName(String searchTerm) throws ExecutionException, InterruptedException {
-        List<Product> allProducts = findAll();
+    public CompletableFuture<List<Product>> findLowStockAsync(int threshold) {
+        return queryAsync(query()
+            .whereLessThan("stock", threshold)
+            .whereEqualTo("active", true));
+    }
 
-        String searchLower = searchTerm.toLowerCase();
+    public List<Product> findLowStock(int threshold) throws ExecutionException, InterruptedException {
+        return findLowStockAsync(threshold).get();
+    }
 
-        return allProducts.stream()
-            .filter(p -> p.getNombreProducto().toLowerCase().contains(searchLower) ||
-                        (p.getDescripcionProducto() != null &&
-                        p.getDescripcionProducto().toLowerCase().contains(searchLower)))
-            .collect(Collectors.toList());
+    /**
+     * Como listen, pero solo con los productos actualizados después de since
+     * (todas las escrituras de ProductService actualizan fechaActualizacion).
+     * El primer evento trae solo esos productos, no la colección completa.
+     */
+    public ListenerRegistration listenUpdatedSince(Date since, EntityChangeListener<Product> listener) {
+        return listen(query().where("fechaActualizacion", ">", since), listener);
     }
 }
@@ -0,0 +1,53 @@
+package com.zonagamer.zonagamer_backend.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa lecturas idénticas que están en curso al mismo tiempo: la primera
+ * llamada con una clave lanza la lectura y las demás reciben el mismo
+ * resultado, sin otra ida a Firestore. La clave se libera apenas la lectura
+ * termina, así que no es una caché: una llamada posterior vuelve a leer.
+ *
+ * Cada llamada recibe su propia copia del future (cancelar una no afecta
+ * a las demás).
+ */
+final class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param onCoalesced Se ejecuta cuando la llamada se une a una lectura ya en curso
+     */
+    @SuppressWarnings("unchecked")
+    <V> CompletableFuture<V> run(Object key, Supplier<CompletableFuture<V>> call, Runnable onCoalesced) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, created);
+
+        if (existing != null) {
+            onCoalesced.run();
+            return ((CompletableFuture<V>) existing).copy();
+        }
+
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+
+        return created.copy();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
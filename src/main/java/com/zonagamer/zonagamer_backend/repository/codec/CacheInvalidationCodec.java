@@ -0,0 +1,34 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CacheInvalidationCodec implements FirestoreCodec<CacheInvalidation> {
+
+    @Override
+    public CacheInvalidation decode(String id, Map<String, Object> data) {
+        Object version = data.get("version");
+
+        return CacheInvalidation.builder()
+            .id(id)
+            .entityType(Fields.enumValue(CacheInvalidation.EntityType.class, data, "entityType"))
+            .entityId(Fields.string(data, "entityId"))
+            .version(version instanceof Number n ? n.longValue() : null)
+            .origin(Fields.string(data, "origin"))
+            .publishedAt(Fields.timestamp(data, "publishedAt"))
+            .build();
+    }
+
+    @Override
+    public Map<String, Object> encode(CacheInvalidation invalidation) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("entityType", invalidation.getEntityType() != null ? invalidation.getEntityType().name() : null);
+        data.put("entityId", invalidation.getEntityId());
+        data.put("version", invalidation.getVersion());
+        data.put("origin", invalidation.getOrigin());
+        data.put("publishedAt", invalidation.getPublishedAt());
+        return data;
+    }
+}
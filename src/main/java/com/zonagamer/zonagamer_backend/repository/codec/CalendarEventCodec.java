@@ -0,0 +1,40 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.CalendarEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CalendarEventCodec implements FirestoreCodec<CalendarEvent> {
+
+    @Override
+    public CalendarEvent decode(String id, Map<String, Object> data) {
+        return CalendarEvent.builder()
+            .id(id)
+            .titulo(Fields.string(data, "titulo"))
+            .descripcion(Fields.string(data, "descripcion"))
+            .fechaDeInicio(Fields.timestamp(data, "fechaDeInicio"))
+            .fechaDeTermino(Fields.timestamp(data, "fechaDeTermino"))
+            .type(Fields.enumValue(CalendarEvent.EventType.class, data, "type"))
+            .completed(Fields.bool(data, "completed"))
+            .creadoPor(Fields.string(data, "creadoPor"))
+            .fechaDeCreacion(Fields.timestamp(data, "fechaDeCreacion"))
+            .build();
+    }
+
+    /**
+     * fechaDeCreacion se deja a cargo de CalendarEventRepository (serverTimestamp al crear).
+     */
+    @Override
+    public Map<String, Object> encode(CalendarEvent event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("titulo", event.getTitulo());
+        data.put("descripcion", event.getDescripcion());
+        data.put("fechaDeInicio", event.getFechaDeInicio());
+        data.put("fechaDeTermino", event.getFechaDeTermino());
+        data.put("type", event.getType() != null ? event.getType().name() : null);
+        data.put("completed", event.isCompleted());
+        data.put("creadoPor", event.getCreadoPor());
+        return data;
+    }
+}
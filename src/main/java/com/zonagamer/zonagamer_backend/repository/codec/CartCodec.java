@@ -0,0 +1,69 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.Cart;
+import com.zonagamer.zonagamer_backend.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec de Cart y de sus CartItem (guardados como lista de maps en "items")
+ */
+public class CartCodec implements FirestoreCodec<Cart> {
+
+    @Override
+    public Cart decode(String id, Map<String, Object> data) {
+        List<Map<String, Object>> rawItems = Fields.list(data, "items");
+        List<CartItem> items = new ArrayList<>(rawItems.size());
+
+        for (Map<String, Object> rawItem : rawItems) {
+            items.add(decodeItem(rawItem));
+        }
+
+        return Cart.builder()
+            .id(id)
+            .userId(Fields.string(data, "userId"))
+            .items(items)
+            .fechaCreacion(Fields.date(data, "fechaCreacion"))
+            .fechaActualizacion(Fields.date(data, "fechaActualizacion"))
+            .build();
+    }
+
+    @Override
+    public Map<String, Object> encode(Cart cart) {
+        List<Map<String, Object>> items = new ArrayList<>(cart.getItems().size());
+
+        for (CartItem item : cart.getItems()) {
+            items.add(encodeItem(item));
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", cart.getUserId());
+        data.put("items", items);
+        data.put("fechaCreacion", Fields.orServerTimestamp(cart.getFechaCreacion()));
+        data.put("fechaActualizacion", Fields.orServerTimestamp(cart.getFechaActualizacion()));
+        return data;
+    }
+
+    public static CartItem decodeItem(Map<String, Object> data) {
+        return CartItem.builder()
+            .productId(Fields.string(data, "productId"))
+            .productName(Fields.string(data, "productName"))
+            .imageUrl(Fields.string(data, "imageUrl"))
+            .quantity(Fields.integer(data, "quantity"))
+            .precio(Fields.decimal(data, "precio"))
+            .build();
+    }
+
+    public static Map<String, Object> encodeItem(CartItem item) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("productId", item.getProductId());
+        data.put("productName", item.getProductName());
+        data.put("imageUrl", item.getImageUrl());
+        data.put("quantity", item.getQuantity());
+        data.put("precio", item.getPrecio());
+        return data;
+    }
+}
@@ -0,0 +1,30 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.Category;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CategoryCodec implements FirestoreCodec<Category> {
+
+    @Override
+    public Category decode(String id, Map<String, Object> data) {
+        return Category.builder()
+            .id(id)
+            .nombreCategoria(Fields.string(data, "nombreCategoria"))
+            .parentId(Fields.string(data, "parentId"))
+            .active(Fields.bool(data, "active"))
+            .build();
+    }
+
+    @Override
+    public Map<String, Object> encode(Category category) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("nombreCategoria", category.getNombreCategoria());
+        data.put("parentId", category.getParentId());
+        data.put("active", category.isActive());
+        // Derivado de parentId, se conserva porque el mapeo automático lo escribía
+        data.put("root", category.isRoot());
+        return data;
+    }
+}
@@ -0,0 +1,82 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura tolerante de valores de Firestore para los codecs.
+ *
+ * Firestore devuelve los enteros como Long y los decimales como Double,
+ * y los documentos antiguos pueden tener campos faltantes o con otro tipo:
+ * en esos casos se devuelve null en lugar de lanzar una excepción.
+ */
+final class Fields {
+
+    private Fields() {
+    }
+
+    static String string(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof String s ? s : null;
+    }
+
+    static boolean bool(Map<String, Object> data, String field) {
+        return Boolean.TRUE.equals(data.get(field));
+    }
+
+    static Integer integer(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number n ? n.intValue() : null;
+    }
+
+    static Double decimal(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number n ? n.doubleValue() : null;
+    }
+
+    static Date date(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        if (value instanceof Timestamp t) {
+            return t.toDate();
+        }
+        return value instanceof Date d ? d : null;
+    }
+
+    static Timestamp timestamp(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        if (value instanceof Date d) {
+            return Timestamp.of(d);
+        }
+        return value instanceof Timestamp t ? t : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> list(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof List<?> l ? (List<Map<String, Object>>) l : Collections.emptyList();
+    }
+
+    static <E extends Enum<E>> E enumValue(Class<E> type, Map<String, Object> data, String field) {
+        String value = string(data, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Equivalente a @ServerTimestamp: si la fecha es null, Firestore la asigna al escribir.
+     */
+    static Object orServerTimestamp(Object value) {
+        return value != null ? value : FieldValue.serverTimestamp();
+    }
+}
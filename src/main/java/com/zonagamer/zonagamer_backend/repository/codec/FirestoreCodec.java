@@ -0,0 +1,35 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * Conversión directa, campo por campo, entre una entidad y un documento
+ * de Firestore. Reemplaza a DocumentSnapshot.toObject(Class) (mapeo por
+ * reflection) y asigna el document ID sin reflection.
+ *
+ * Los nombres de campo son los mismos que usaba el mapeo automático,
+ * por lo que los documentos existentes se leen sin migración.
+ */
+public interface FirestoreCodec<T> {
+
+    /**
+     * Construye la entidad a partir de los datos del documento.
+     *
+     * @param id Document ID (se asigna al campo id de la entidad)
+     */
+    T decode(String id, Map<String, Object> data);
+
+    /**
+     * Convierte la entidad en el Map que se escribe en Firestore.
+     * No incluye el id (el document ID es la fuente de verdad).
+     */
+    Map<String, Object> encode(T entity);
+
+    default T decode(DocumentSnapshot doc) {
+        Map<String, Object> data = doc.getData();
+
+        return data != null ? decode(doc.getId(), data) : null;
+    }
+}
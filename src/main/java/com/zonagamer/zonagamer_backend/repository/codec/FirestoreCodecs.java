@@ -0,0 +1,46 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation;
+import com.zonagamer.zonagamer_backend.model.CalendarEvent;
+import com.zonagamer.zonagamer_backend.model.Cart;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Order;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.model.User;
+
+import java.util.Map;
+
+/**
+ * Registro de codecs por clase de entidad.
+ *
+ * Al agregar un modelo nuevo hay que registrar aquí su codec;
+ * BaseRepository lanza IllegalStateException si no lo encuentra.
+ */
+public final class FirestoreCodecs {
+
+    private static final Map<Class<?>, FirestoreCodec<?>> CODECS = Map.of(
+        Product.class, new ProductCodec(),
+        Category.class, new CategoryCodec(),
+        Cart.class, new CartCodec(),
+        Order.class, new OrderCodec(),
+        User.class, new UserCodec(),
+        CalendarEvent.class, new CalendarEventCodec(),
+        CacheInvalidation.class, new CacheInvalidationCodec()
+    );
+
+    private FirestoreCodecs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> FirestoreCodec<T> forClass(Class<T> entityClass) {
+        FirestoreCodec<T> codec = (FirestoreCodec<T>) CODECS.get(entityClass);
+
+        if (codec == null) {
+            throw new IllegalStateException(
+                "No hay FirestoreCodec registrado para " + entityClass.getSimpleName()
+            );
+        }
+
+        return codec;
+    }
+}
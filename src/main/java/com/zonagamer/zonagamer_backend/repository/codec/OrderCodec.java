@@ -0,0 +1,82 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.Order;
+import com.zonagamer.zonagamer_backend.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec de Order y de sus OrderItem (guardados como lista de maps en "items")
+ */
+public class OrderCodec implements FirestoreCodec<Order> {
+
+    @Override
+    public Order decode(String id, Map<String, Object> data) {
+        List<Map<String, Object>> rawItems = Fields.list(data, "items");
+        List<OrderItem> items = new ArrayList<>(rawItems.size());
+
+        for (Map<String, Object> rawItem : rawItems) {
+            items.add(decodeItem(rawItem));
+        }
+
+        // Documentos antiguos pueden tener el campo con mayúscula (nombre del atributo Java)
+        var fechaDeCreacion = data.containsKey("fechaDeCreacion")
+            ? Fields.date(data, "fechaDeCreacion")
+            : Fields.date(data, "FechaDeCreacion");
+
+        return Order.builder()
+            .id(id)
+            .userId(Fields.string(data, "userId"))
+            .items(items)
+            .total(Fields.decimal(data, "total"))
+            .status(Fields.enumValue(Order.OrderStatus.class, data, "status"))
+            .deliveryAddress(Fields.string(data, "deliveryAddress"))
+            .notes(Fields.string(data, "notes"))
+            .FechaDeCreacion(fechaDeCreacion)
+            .build();
+    }
+
+    @Override
+    public Map<String, Object> encode(Order order) {
+        List<Map<String, Object>> items = new ArrayList<>();
+
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                items.add(encodeItem(item));
+            }
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", order.getUserId());
+        data.put("items", items);
+        data.put("total", order.getTotal());
+        data.put("status", order.getStatus() != null ? order.getStatus().name() : null);
+        data.put("deliveryAddress", order.getDeliveryAddress());
+        data.put("notes", order.getNotes());
+        data.put("fechaDeCreacion", Fields.orServerTimestamp(order.getFechaDeCreacion()));
+        return data;
+    }
+
+    public static OrderItem decodeItem(Map<String, Object> data) {
+        return OrderItem.builder()
+            .productId(Fields.string(data, "productId"))
+            .productName(Fields.string(data, "productName"))
+            .quantity(Fields.integer(data, "quantity"))
+            .precioEnCompra(Fields.decimal(data, "precioEnCompra"))
+            .subtotal(Fields.decimal(data, "subtotal"))
+            .build();
+    }
+
+    public static Map<String, Object> encodeItem(OrderItem item) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("productId", item.getProductId());
+        data.put("productName", item.getProductName());
+        data.put("quantity", item.getQuantity());
+        data.put("precioEnCompra", item.getPrecioEnCompra());
+        data.put("subtotal", item.getSubtotal());
+        return data;
+    }
+}
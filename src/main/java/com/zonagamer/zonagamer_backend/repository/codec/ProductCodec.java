@@ -0,0 +1,48 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.Product;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProductCodec implements FirestoreCodec<Product> {
+
+    @Override
+    public Product decode(String id, Map<String, Object> data) {
+        // "isFeatured" es el nombre usado en las consultas; "featured" lo escribía el mapeo automático
+        boolean featured = data.containsKey("isFeatured")
+            ? Fields.bool(data, "isFeatured")
+            : Fields.bool(data, "featured");
+
+        return Product.builder()
+            .id(id)
+            .nombreProducto(Fields.string(data, "nombreProducto"))
+            .descripcionProducto(Fields.string(data, "descripcionProducto"))
+            .precio(Fields.decimal(data, "precio"))
+            .stock(Fields.integer(data, "stock"))
+            .imageUrl(Fields.string(data, "imageUrl"))
+            .categoryId(Fields.string(data, "categoryId"))
+            .featured(featured)
+            .active(Fields.bool(data, "active"))
+            .fechaCreacion(Fields.date(data, "fechaCreacion"))
+            .fechaActualizacion(Fields.date(data, "fechaActualizacion"))
+            .build();
+    }
+
+    @Override
+    public Map<String, Object> encode(Product product) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("nombreProducto", product.getNombreProducto());
+        data.put("descripcionProducto", product.getDescripcionProducto());
+        data.put("precio", product.getPrecio());
+        data.put("stock", product.getStock());
+        data.put("imageUrl", product.getImageUrl());
+        data.put("categoryId", product.getCategoryId());
+        data.put("isFeatured", product.isFeatured());
+        data.put("featured", product.isFeatured());
+        data.put("active", product.isActive());
+        data.put("fechaCreacion", Fields.orServerTimestamp(product.getFechaCreacion()));
+        data.put("fechaActualizacion", Fields.orServerTimestamp(product.getFechaActualizacion()));
+        return data;
+    }
+}
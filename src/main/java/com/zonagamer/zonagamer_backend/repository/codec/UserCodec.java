@@ -0,0 +1,51 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.zonagamer.zonagamer_backend.model.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class UserCodec implements FirestoreCodec<User> {
+
+    @Override
+    public User decode(String id, Map<String, Object> data) {
+        // "admin" es el campo actual; "isAdmin" lo escribía el mapeo automático
+        boolean admin = data.containsKey("admin")
+            ? Fields.bool(data, "admin")
+            : Fields.bool(data, "isAdmin");
+
+        Integer puntajeCliente = Fields.integer(data, "puntajeCliente");
+
+        return User.builder()
+            .id(id)
+            .email(Fields.string(data, "email"))
+            .password(Fields.string(data, "password"))
+            .nombre(Fields.string(data, "nombre"))
+            .apellido(Fields.string(data, "apellido"))
+            .numeroDeTelefono(Fields.string(data, "numeroDeTelefono"))
+            .admin(admin)
+            .active(Fields.bool(data, "active"))
+            .puntajeCliente(puntajeCliente != null ? puntajeCliente : 0)
+            // Timestamps antiguos con otro tipo se leen como null en lugar de fallar
+            .fechaCreacion(Fields.timestamp(data, "fechaCreacion"))
+            .fechaActualizacion(Fields.timestamp(data, "fechaActualizacion"))
+            .build();
+    }
+
+    /**
+     * Las fechas se dejan a cargo de UserRepository (serverTimestamp al crear/actualizar).
+     */
+    @Override
+    public Map<String, Object> encode(User user) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("email", user.getEmail());
+        data.put("password", user.getPassword());
+        data.put("nombre", user.getNombre());
+        data.put("apellido", user.getApellido());
+        data.put("numeroDeTelefono", user.getNumeroDeTelefono());
+        data.put("admin", user.isAdmin());
+        data.put("active", user.isActive());
+        data.put("puntajeCliente", user.getPuntajeCliente() != null ? user.getPuntajeCliente() : 0);
+        return data;
+    }
+}
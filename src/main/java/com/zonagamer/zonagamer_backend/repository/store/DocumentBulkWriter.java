@@ -0,0 +1,29 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Escrituras masivas encoladas (en Firestore, un BulkWriter).
+ * Cada operación devuelve su propio future: un documento que falla no
+ * afecta a los demás.
+ */
+public interface DocumentBulkWriter extends AutoCloseable {
+
+    CompletableFuture<Void> set(String collection, String id, Map<String, Object> data);
+
+    CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields);
+
+    CompletableFuture<Void> delete(String collection, String id);
+
+    /**
+     * Envía las escrituras encoladas sin esperar su resultado
+     */
+    void flush();
+
+    /**
+     * Libera el writer. Se llama cuando todas sus escrituras ya terminaron.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,23 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import java.util.List;
+
+/**
+ * Recibe los cambios de una colección registrada con DocumentStore.listen.
+ *
+ * El primer llamado trae todos los documentos existentes como ADDED; los
+ * siguientes, solo lo que cambió. Los llamados de un mismo listener nunca
+ * se solapan.
+ */
+@FunctionalInterface
+public interface DocumentChangeListener {
+
+    void onChanges(List<StoredDocumentChange> changes);
+
+    /**
+     * El listener quedó detenido (ej: se perdió el stream en Firestore).
+     * Para seguir recibiendo cambios hay que volver a registrarlo.
+     */
+    default void onError(Throwable error) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.firestore.Query;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Consulta sobre una colección, independiente del backend (Firestore o memoria).
+ *
+ * Imita la API fluida de com.google.cloud.firestore.Query para que los
+ * repositorios se lean igual que antes:
+ *
+ *   query().whereEqualTo("categoryId", id).whereEqualTo("active", true)
+ *
+ * Cada método devuelve una consulta nueva; la original no cambia. Dos
+ * consultas con los mismos criterios son equals (ver SingleFlight).
+ */
+@Getter
+@EqualsAndHashCode
+public final class DocumentQuery {
+
+    /**
+     * Filtro field op value. Operadores: ==, !=, <, <=, >, >=
+     */
+    @Getter
+    @EqualsAndHashCode
+    public static final class Condition {
+        private final String field;
+        private final String op;
+        private final Object value;
+
+        Condition(String field, String op, Object value) {
+            this.field = field;
+            this.op = op;
+            this.value = value;
+        }
+    }
+
+    private final List<Condition> conditions;
+
+    private final String orderBy;
+
+    private final Query.Direction direction;
+
+    /**
+     * Ordena además por document ID (desempate de la paginación por cursor)
+     */
+    private final boolean orderByDocumentId;
+
+    /**
+     * Valores del último documento de la página anterior, en el mismo orden
+     * que los criterios de orden (orderBy y/o document ID)
+     */
+    private final List<Object> startAfter;
+
+    private final Integer limit;
+
+    /**
+     * Campos a descargar (Query.select), o null para el documento completo
+     */
+    private final List<String> select;
+
+    public DocumentQuery() {
+        this(List.of(), null, Query.Direction.ASCENDING, false, null, null, null);
+    }
+
+    private DocumentQuery(List<Condition> conditions, String orderBy, Query.Direction direction,
+            boolean orderByDocumentId, List<Object> startAfter, Integer limit, List<String> select) {
+        this.conditions = conditions;
+        this.orderBy = orderBy;
+        this.direction = direction;
+        this.orderByDocumentId = orderByDocumentId;
+        this.startAfter = startAfter;
+        this.limit = limit;
+        this.select = select;
+    }
+
+    public DocumentQuery where(String field, String op, Object value) {
+        switch (op) {
+            case "==", "!=", "<", "<=", ">", ">=" -> { }
+            default -> throw new IllegalArgumentException("Operador no soportado: " + op);
+        }
+
+        List<Condition> next = new ArrayList<>(conditions);
+        next.add(new Condition(field, op, value));
+
+        return new DocumentQuery(Collections.unmodifiableList(next), orderBy, direction,
+            orderByDocumentId, startAfter, limit, select);
+    }
+
+    public DocumentQuery whereEqualTo(String field, Object value) {
+        return where(field, "==", value);
+    }
+
+    public DocumentQuery whereLessThan(String field, Object value) {
+        return where(field, "<", value);
+    }
+
+    public DocumentQuery whereLessThanOrEqualTo(String field, Object value) {
+        return where(field, "<=", value);
+    }
+
+    public DocumentQuery whereGreaterThanOrEqualTo(String field, Object value) {
+        return where(field, ">=", value);
+    }
+
+    public DocumentQuery orderBy(String field, Query.Direction direction) {
+        return new DocumentQuery(conditions, field, direction, orderByDocumentId, startAfter, limit, select);
+    }
+
+    /**
+     * Agrega el document ID como último criterio de orden (misma dirección)
+     */
+    public DocumentQuery orderByDocumentId(Query.Direction direction) {
+        return new DocumentQuery(conditions, orderBy, direction, true, startAfter, limit, select);
+    }
+
+    public DocumentQuery startAfter(Object... values) {
+        return new DocumentQuery(conditions, orderBy, direction, orderByDocumentId,
+            Collections.unmodifiableList(Arrays.asList(values.clone())), limit, select);
+    }
+
+    public DocumentQuery limit(int limit) {
+        return new DocumentQuery(conditions, orderBy, direction, orderByDocumentId, startAfter, limit, select);
+    }
+
+    public DocumentQuery select(String... fields) {
+        return new DocumentQuery(conditions, orderBy, direction, orderByDocumentId, startAfter, limit,
+            List.of(fields));
+    }
+
+    /**
+     * La misma consulta sin orden, cursor, límite ni selección (para count())
+     */
+    public DocumentQuery filtersOnly() {
+        return new DocumentQuery(conditions, null, Query.Direction.ASCENDING, false, null, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.firestore.ListenerRegistration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Backend de almacenamiento de los repositorios.
+ *
+ * - FirestoreDocumentStore: Firestore real (perfil por defecto)
+ * - InMemoryDocumentStore: ConcurrentHashMap con índices secundarios
+ *   (perfil "memory", para correr local o medir sin red ni credenciales)
+ *
+ * Trabaja con Maps crudos; la conversión a entidades la hacen los codecs
+ * en BaseRepository. Los valores pueden incluir FieldValue (serverTimestamp,
+ * increment, arrayUnion, arrayRemove, delete) y ambos backends los aplican.
+ */
+public interface DocumentStore {
+
+    CompletableFuture<Optional<StoredDocument>> get(String collection, String id);
+
+    /**
+     * Lee varios documentos por ID. Los inexistentes se omiten.
+     */
+    CompletableFuture<List<StoredDocument>> getAll(String collection, Collection<String> ids);
+
+    CompletableFuture<List<StoredDocument>> query(String collection, DocumentQuery query);
+
+    /**
+     * Cuenta los documentos que cumplen los filtros de la consulta
+     */
+    CompletableFuture<Long> count(String collection, DocumentQuery query);
+
+    /**
+     * Crea o reemplaza el documento completo
+     */
+    CompletableFuture<Void> set(String collection, String id, Map<String, Object> data);
+
+    /**
+     * Actualiza solo los campos indicados. Falla si el documento no existe.
+     */
+    CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields);
+
+    CompletableFuture<Void> delete(String collection, String id);
+
+    /**
+     * Lee los documentos ids y escribe los campos que devuelve updates (ID ->
+     * campos, como update) de forma atómica: nadie escribe esos documentos
+     * entre la lectura y la escritura. En Firestore es una transacción, que
+     * se reintenta si hay conflicto, así que updates puede llamarse más de
+     * una vez y no debe tener otros efectos. Si updates lanza una excepción
+     * no se escribe nada y el future falla con ella.
+     *
+     * @param updates Recibe los documentos leídos por ID (los inexistentes no están)
+     */
+    CompletableFuture<Void> updateAtomically(String collection, Collection<String> ids,
+        Function<Map<String, StoredDocument>, Map<String, Map<String, Object>>> updates);
+
+    DocumentBulkWriter bulkWriter();
+
+    /**
+     * Escucha los cambios de toda la colección (addSnapshotListener en Firestore).
+     * Llamar a remove() en el resultado para dejar de escuchar.
+     */
+    default ListenerRegistration listen(String collection, DocumentChangeListener listener) {
+        return listen(collection, new DocumentQuery(), listener);
+    }
+
+    /**
+     * Escucha solo los documentos que cumplen los filtros de la consulta (el
+     * orden, el cursor y el límite se ignoran). El primer evento trae los que
+     * cumplen hoy; un documento que deja de cumplirlos llega como REMOVED.
+     */
+    ListenerRegistration listen(String collection, DocumentQuery query, DocumentChangeListener listener);
+}
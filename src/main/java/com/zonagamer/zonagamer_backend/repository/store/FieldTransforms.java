@@ -0,0 +1,123 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica los FieldValue de Firestore (serverTimestamp, delete, increment,
+ * arrayUnion, arrayRemove) en el backend en memoria.
+ *
+ * FieldValue no expone sus operandos, así que increment y arrayUnion/arrayRemove
+ * se leen por reflection de los campos "operand" y "elements" del SDK. Solo se
+ * usa en el perfil "memory"; si una versión futura del SDK los renombra, falla
+ * con un mensaje claro en lugar de escribir un valor incorrecto.
+ */
+final class FieldTransforms {
+
+    /**
+     * Marca de "borrar el campo" devuelta por resolve()
+     */
+    static final Object DELETE = new Object();
+
+    private static final Map<String, Field> OPERAND_FIELDS = new ConcurrentHashMap<>();
+
+    private FieldTransforms() {
+    }
+
+    /**
+     * Resuelve un valor a escribir sobre el valor actual del campo.
+     * Los valores que no son FieldValue se devuelven tal cual.
+     */
+    static Object resolve(Object value, Object current) {
+        if (!(value instanceof FieldValue)) {
+            return value;
+        }
+
+        if (value.equals(FieldValue.serverTimestamp())) {
+            return Timestamp.now();
+        }
+        if (value.equals(FieldValue.delete())) {
+            return DELETE;
+        }
+
+        String type = value.getClass().getSimpleName();
+
+        switch (type) {
+            case "NumericIncrementFieldValue":
+                return increment(current, (Number) operand(value, "operand"));
+            case "ArrayUnionFieldValue":
+                return arrayUnion(current, elements(value));
+            case "ArrayRemoveFieldValue":
+                return arrayRemove(current, elements(value));
+            default:
+                throw new UnsupportedOperationException("FieldValue no soportado en memoria: " + type);
+        }
+    }
+
+    private static Object increment(Object current, Number operand) {
+        // Igual que Firestore: si el campo no es numérico, se reemplaza por el operando
+        if (!(current instanceof Number number)) {
+            return operand;
+        }
+        if (number instanceof Long && (operand instanceof Long || operand instanceof Integer)) {
+            return number.longValue() + operand.longValue();
+        }
+        return number.doubleValue() + operand.doubleValue();
+    }
+
+    private static List<Object> arrayUnion(Object current, List<Object> elements) {
+        List<Object> result = current instanceof List<?> list ? new ArrayList<>(list) : new ArrayList<>();
+
+        for (Object element : elements) {
+            Object normalized = ValueOrder.normalize(element);
+            if (result.stream().noneMatch(e -> Objects.equals(e, normalized))) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+
+    private static List<Object> arrayRemove(Object current, List<Object> elements) {
+        if (!(current instanceof List<?> list)) {
+            return new ArrayList<>();
+        }
+
+        List<Object> result = new ArrayList<>(list);
+        for (Object element : elements) {
+            Object normalized = ValueOrder.normalize(element);
+            result.removeIf(e -> Objects.equals(e, normalized));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> elements(Object fieldValue) {
+        return (List<Object>) operand(fieldValue, "elements");
+    }
+
+    private static Object operand(Object fieldValue, String name) {
+        Field field = OPERAND_FIELDS.computeIfAbsent(fieldValue.getClass().getName() + "#" + name, key -> {
+            try {
+                Field f = fieldValue.getClass().getDeclaredField(name);
+                f.setAccessible(true);
+                return f;
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(
+                    "Versión del SDK de Firestore no soportada por el backend en memoria: falta " + key, e);
+            }
+        });
+
+        try {
+            return field.get(fieldValue);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("No se pudo leer " + name + " de " + fieldValue, e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Filter;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * DocumentStore sobre Firestore (backend por defecto)
+ */
+@Slf4j
+@Component
+@Profile("!memory")
+@RequiredArgsConstructor
+public class FirestoreDocumentStore implements DocumentStore {
+
+    /**
+     * Máximo de documentos por llamada a getAll.
+     */
+    private static final int GET_ALL_CHUNK_SIZE = 100;
+
+    private final Firestore firestore;
+
+    @Override
+    public CompletableFuture<Optional<StoredDocument>> get(String collection, String id) {
+        return toCompletableFuture(document(collection, id).get())
+            .thenApply(doc -> Optional.ofNullable(toStored(doc)));
+    }
+
+    /**
+     * Usa Firestore getAll en bloques de GET_ALL_CHUNK_SIZE IDs lanzados
+     * en paralelo (un round trip por bloque).
+     */
+    @Override
+    public CompletableFuture<List<StoredDocument>> getAll(String collection, Collection<String> ids) {
+        List<DocumentReference> refs = ids.stream()
+            .distinct()
+            .map(id -> document(collection, id))
+            .collect(Collectors.toList());
+
+        if (refs.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        List<CompletableFuture<List<DocumentSnapshot>>> chunks = new ArrayList<>();
+        for (int i = 0; i < refs.size(); i += GET_ALL_CHUNK_SIZE) {
+            List<DocumentReference> chunk = refs.subList(i, Math.min(i + GET_ALL_CHUNK_SIZE, refs.size()));
+            chunks.add(toCompletableFuture(firestore.getAll(chunk.toArray(new DocumentReference[0]))));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                List<StoredDocument> docs = new ArrayList<>(refs.size());
+                for (CompletableFuture<List<DocumentSnapshot>> chunk : chunks) {
+                    for (DocumentSnapshot doc : chunk.join()) {
+                        StoredDocument stored = toStored(doc);
+                        if (stored != null) {
+                            docs.add(stored);
+                        }
+                    }
+                }
+                return docs;
+            });
+    }
+
+    @Override
+    public CompletableFuture<List<StoredDocument>> query(String collection, DocumentQuery query) {
+        return toCompletableFuture(toFirestoreQuery(collection, query).get())
+            .thenApply(snapshot -> snapshot.getDocuments().stream()
+                .map(this::toStored)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Agregación count() en el servidor, sin descargar documentos
+     */
+    @Override
+    public CompletableFuture<Long> count(String collection, DocumentQuery query) {
+        return toCompletableFuture(toFirestoreQuery(collection, query.filtersOnly()).count().get())
+            .thenApply(AggregateQuerySnapshot::getCount);
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String collection, String id, Map<String, Object> data) {
+        return toCompletableFuture(document(collection, id).set(data))
+            .thenAccept(result -> { });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields) {
+        return toCompletableFuture(document(collection, id).update(fields))
+            .thenAccept(result -> { });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collection, String id) {
+        return toCompletableFuture(document(collection, id).delete())
+            .thenAccept(result -> { });
+    }
+
+    /**
+     * runTransaction: las lecturas van por la transacción, así Firestore la
+     * reintenta si otro cliente escribe alguno de esos documentos antes del commit
+     */
+    @Override
+    public CompletableFuture<Void> updateAtomically(String collection, Collection<String> ids,
+            Function<Map<String, StoredDocument>, Map<String, Map<String, Object>>> updates) {
+
+        DocumentReference[] refs = ids.stream()
+            .distinct()
+            .map(id -> document(collection, id))
+            .toArray(DocumentReference[]::new);
+
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            Map<String, StoredDocument> read = new LinkedHashMap<>();
+            if (refs.length > 0) {
+                for (DocumentSnapshot doc : transaction.getAll(refs).get()) {
+                    StoredDocument stored = toStored(doc);
+                    if (stored != null) {
+                        read.put(stored.getId(), stored);
+                    }
+                }
+            }
+
+            updates.apply(read).forEach((id, fields) -> transaction.update(document(collection, id), fields));
+            return null;
+        })).thenAccept(result -> { });
+    }
+
+    @Override
+    public DocumentBulkWriter bulkWriter() {
+        BulkWriter writer = firestore.bulkWriter();
+
+        return new DocumentBulkWriter() {
+            @Override
+            public CompletableFuture<Void> set(String collection, String id, Map<String, Object> data) {
+                return toCompletableFuture(writer.set(document(collection, id), data))
+                    .thenAccept(result -> { });
+            }
+
+            @Override
+            public CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields) {
+                return toCompletableFuture(writer.update(document(collection, id), fields))
+                    .thenAccept(result -> { });
+            }
+
+            @Override
+            public CompletableFuture<Void> delete(String collection, String id) {
+                return toCompletableFuture(writer.delete(document(collection, id)))
+                    .thenAccept(result -> { });
+            }
+
+            @Override
+            public void flush() {
+                writer.flush();
+            }
+
+            /**
+             * Como ya no hay escrituras pendientes, close() no tiene nada que esperar.
+             */
+            @Override
+            public void close() {
+                try {
+                    writer.close();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.warn("⚠️ Error al cerrar BulkWriter: {}", e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * addSnapshotListener sobre la colección: Firestore envía el estado
+     * inicial completo y luego solo los documentos que cambian.
+     */
+    @Override
+    public ListenerRegistration listen(String collection, DocumentQuery query, DocumentChangeListener listener) {
+        return toFirestoreQuery(collection, query.filtersOnly()).addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                listener.onError(error);
+                return;
+            }
+
+            List<StoredDocumentChange> changes = snapshot.getDocumentChanges().stream()
+                .map(change -> new StoredDocumentChange(
+                    toChangeType(change.getType()),
+                    new StoredDocument(change.getDocument().getId(), change.getDocument().getData())
+                ))
+                .collect(Collectors.toList());
+
+            listener.onChanges(changes);
+        });
+    }
+
+    private static StoredDocumentChange.Type toChangeType(DocumentChange.Type type) {
+        switch (type) {
+            case ADDED:
+                return StoredDocumentChange.Type.ADDED;
+            case MODIFIED:
+                return StoredDocumentChange.Type.MODIFIED;
+            default:
+                return StoredDocumentChange.Type.REMOVED;
+        }
+    }
+
+    private Query toFirestoreQuery(String collection, DocumentQuery query) {
+        Query firestoreQuery = firestore.collection(collection);
+
+        if (query.getSelect() != null) {
+            firestoreQuery = firestoreQuery.select(query.getSelect().toArray(new String[0]));
+        }
+
+        for (DocumentQuery.Condition condition : query.getConditions()) {
+            firestoreQuery = firestoreQuery.where(toFilter(condition));
+        }
+
+        if (query.getOrderBy() != null) {
+            firestoreQuery = firestoreQuery.orderBy(query.getOrderBy(), query.getDirection());
+        }
+        if (query.isOrderByDocumentId()) {
+            firestoreQuery = firestoreQuery.orderBy(FieldPath.documentId(), query.getDirection());
+        }
+
+        if (query.getStartAfter() != null) {
+            firestoreQuery = firestoreQuery.startAfter(query.getStartAfter().toArray());
+        }
+
+        if (query.getLimit() != null) {
+            firestoreQuery = firestoreQuery.limit(query.getLimit());
+        }
+
+        return firestoreQuery;
+    }
+
+    private static Filter toFilter(DocumentQuery.Condition condition) {
+        String field = condition.getField();
+        Object value = condition.getValue();
+
+        switch (condition.getOp()) {
+            case "==":
+                return Filter.equalTo(field, value);
+            case "!=":
+                return Filter.notEqualTo(field, value);
+            case "<":
+                return Filter.lessThan(field, value);
+            case "<=":
+                return Filter.lessThanOrEqualTo(field, value);
+            case ">":
+                return Filter.greaterThan(field, value);
+            case ">=":
+                return Filter.greaterThanOrEqualTo(field, value);
+            default:
+                throw new IllegalArgumentException("Operador no soportado: " + condition.getOp());
+        }
+    }
+
+    private DocumentReference document(String collection, String id) {
+        return firestore.collection(collection).document(id);
+    }
+
+    private StoredDocument toStored(DocumentSnapshot doc) {
+        Map<String, Object> data = doc.exists() ? doc.getData() : null;
+
+        return data != null ? new StoredDocument(doc.getId(), data) : null;
+    }
+
+    /**
+     * Adapta un ApiFuture de Firestore a CompletableFuture sin bloquear ningún hilo.
+     * El callback se ejecuta en el hilo que completa el ApiFuture.
+     */
+    static <V> CompletableFuture<V> toCompletableFuture(ApiFuture<V> apiFuture) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<V>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(V result) {
+                future.complete(result);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return future;
+    }
+}
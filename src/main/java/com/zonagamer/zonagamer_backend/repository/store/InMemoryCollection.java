@@ -0,0 +1,415 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Una colección del backend en memoria.
+ *
+ * - Documentos: ConcurrentSkipListMap ordenado por document ID (el orden
+ *   por defecto de Firestore). Se guardan como Maps inmodificables, así
+ *   las lecturas no copian nada.
+ * - Índices secundarios: por cada campo usado en un filtro se crea (la
+ *   primera vez que se consulta) un mapa ordenado valor -> IDs, que sirve
+ *   tanto para igualdad (userId, email, categoryId, status, parentId) como
+ *   para rangos (fechaDeInicio, stock).
+ *
+ * Las escrituras se serializan por colección para mantener documentos e
+ * índices consistentes; las lecturas no bloquean. Los listeners se notifican
+ * dentro de la escritura, así reciben los cambios en orden.
+ */
+@Slf4j
+class InMemoryCollection {
+
+    private final String name;
+
+    private final ConcurrentSkipListMap<String, Map<String, Object>> documents = new ConcurrentSkipListMap<>();
+
+    /**
+     * Campo -> (valor -> IDs de documentos con ese valor)
+     */
+    private final Map<String, ConcurrentSkipListMap<Object, Set<String>>> indexes = new ConcurrentHashMap<>();
+
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Listener con los filtros de su consulta (vacíos = toda la colección)
+     */
+    private record Subscription(List<DocumentQuery.Condition> conditions, DocumentChangeListener listener) {
+    }
+
+    InMemoryCollection(String name) {
+        this.name = name;
+    }
+
+    StoredDocument get(String id) {
+        Map<String, Object> data = documents.get(id);
+
+        return data != null ? new StoredDocument(id, data) : null;
+    }
+
+    List<StoredDocument> getAll(Collection<String> ids) {
+        return ids.stream()
+            .distinct()
+            .map(this::get)
+            .filter(doc -> doc != null)
+            .collect(Collectors.toList());
+    }
+
+    synchronized void set(String id, Map<String, Object> data) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        data.forEach((field, value) -> write(document, field, value));
+
+        replace(id, freeze(document));
+    }
+
+    synchronized void update(String id, Map<String, Object> fields) {
+        Map<String, Object> current = documents.get(id);
+        if (current == null) {
+            throw new IllegalStateException("NOT_FOUND: No document to update: " + name + "/" + id);
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>(current);
+        fields.forEach((path, value) -> write(document, path, value));
+
+        replace(id, freeze(document));
+    }
+
+    /**
+     * Lee, llama a updates y escribe con el lock de la colección tomado, así
+     * nadie escribe en el medio. Si algún documento a escribir no existe no
+     * se escribe ninguno (como una transacción que falla).
+     */
+    synchronized void updateAtomically(Collection<String> ids,
+            Function<Map<String, StoredDocument>, Map<String, Map<String, Object>>> updates) {
+        Map<String, StoredDocument> read = new LinkedHashMap<>();
+        for (StoredDocument doc : getAll(ids)) {
+            read.put(doc.getId(), doc);
+        }
+
+        Map<String, Map<String, Object>> changes = updates.apply(read);
+        for (String id : changes.keySet()) {
+            if (!documents.containsKey(id)) {
+                throw new IllegalStateException("NOT_FOUND: No document to update: " + name + "/" + id);
+            }
+        }
+
+        changes.forEach(this::update);
+    }
+
+    synchronized void delete(String id) {
+        Map<String, Object> previous = documents.remove(id);
+        if (previous != null) {
+            indexes.forEach((field, index) -> unindex(index, id, previous, field));
+            notifyListeners(id, previous, null);
+        }
+    }
+
+    /**
+     * Registra el listener y le envía de inmediato los documentos que cumplen
+     * los filtros de la consulta como ADDED
+     */
+    synchronized ListenerRegistration listen(DocumentQuery query, DocumentChangeListener listener) {
+        Subscription subscription = new Subscription(query.getConditions(), listener);
+
+        List<StoredDocumentChange> initial = documents.entrySet().stream()
+            .filter(entry -> matchesAll(entry.getValue(), subscription.conditions()))
+            .map(entry -> new StoredDocumentChange(
+                StoredDocumentChange.Type.ADDED, new StoredDocument(entry.getKey(), entry.getValue())))
+            .collect(Collectors.toList());
+
+        listener.onChanges(initial);
+        listeners.add(subscription);
+
+        return () -> listeners.remove(subscription);
+    }
+
+    List<StoredDocument> query(DocumentQuery query) {
+        List<StoredDocument> matched = candidates(query).stream()
+            .map(this::get)
+            .filter(doc -> doc != null && matchesAll(doc.getData(), query.getConditions()))
+            .collect(Collectors.toList());
+
+        String orderBy = query.getOrderBy();
+        boolean descending = query.getDirection() == Query.Direction.DESCENDING;
+
+        if (orderBy != null) {
+            // Igual que Firestore: orderBy excluye los documentos sin ese campo
+            matched.removeIf(doc -> !doc.getData().containsKey(orderBy));
+        }
+
+        Comparator<StoredDocument> order = (a, b) -> {
+            if (orderBy != null) {
+                int cmp = ValueOrder.compare(a.get(orderBy), b.get(orderBy));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return a.getId().compareTo(b.getId());
+        };
+        matched.sort(descending ? order.reversed() : order);
+
+        if (query.getStartAfter() != null) {
+            matched.removeIf(doc -> compareToCursor(doc, query, descending) <= 0);
+        }
+
+        if (query.getLimit() != null && matched.size() > query.getLimit()) {
+            matched = matched.subList(0, query.getLimit());
+        }
+
+        if (query.getSelect() != null) {
+            return matched.stream()
+                .map(doc -> new StoredDocument(doc.getId(), project(doc.getData(), query.getSelect())))
+                .collect(Collectors.toList());
+        }
+
+        return matched;
+    }
+
+    long count(DocumentQuery query) {
+        return candidates(query).stream()
+            .map(documents::get)
+            .filter(data -> data != null && matchesAll(data, query.getConditions()))
+            .count();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * IDs candidatos según el índice más selectivo disponible (igualdad antes
+     * que rango). Sin filtros indexables se recorre la colección completa.
+     */
+    private Collection<String> candidates(DocumentQuery query) {
+        DocumentQuery.Condition best = null;
+
+        for (DocumentQuery.Condition condition : query.getConditions()) {
+            if (condition.getOp().equals("==")) {
+                best = condition;
+                break;
+            }
+            if (best == null && !condition.getOp().equals("!=")) {
+                best = condition;
+            }
+        }
+
+        if (best == null) {
+            return documents.keySet();
+        }
+
+        NavigableMap<Object, Set<String>> index = index(best.getField());
+        Object key = indexKey(ValueOrder.normalize(best.getValue()));
+
+        NavigableMap<Object, Set<String>> range;
+        switch (best.getOp()) {
+            case "==":
+                Set<String> ids = index.get(key);
+                return ids != null ? new ArrayList<>(ids) : List.of();
+            case "<":
+                range = index.headMap(key, false);
+                break;
+            case "<=":
+                range = index.headMap(key, true);
+                break;
+            case ">":
+                range = index.tailMap(key, false);
+                break;
+            default:
+                range = index.tailMap(key, true);
+                break;
+        }
+
+        List<String> result = new ArrayList<>();
+        range.values().forEach(result::addAll);
+        return result;
+    }
+
+    private NavigableMap<Object, Set<String>> index(String field) {
+        ConcurrentSkipListMap<Object, Set<String>> index = indexes.get(field);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            return indexes.computeIfAbsent(field, f -> {
+                ConcurrentSkipListMap<Object, Set<String>> created = new ConcurrentSkipListMap<>(ValueOrder::compare);
+                documents.forEach((id, data) -> addToIndex(created, id, data, f));
+
+                log.info("Índice en memoria creado: {}.{} ({} documentos)", name, f, documents.size());
+                return created;
+            });
+        }
+    }
+
+    /**
+     * Reemplaza el documento y actualiza todos los índices existentes
+     * (debe llamarse con el lock de la colección tomado)
+     */
+    private void replace(String id, Map<String, Object> document) {
+        Map<String, Object> previous = documents.put(id, document);
+
+        indexes.forEach((field, index) -> {
+            if (previous != null) {
+                unindex(index, id, previous, field);
+            }
+            addToIndex(index, id, document, field);
+        });
+
+        notifyListeners(id, previous, document);
+    }
+
+    /**
+     * Igual que un query listener de Firestore: ADDED si el documento empieza a
+     * cumplir los filtros, MODIFIED si los seguía cumpliendo y REMOVED si dejó
+     * de cumplirlos o se borró. Un listener que falla no debe hacer fallar la
+     * escritura.
+     *
+     * @param previous null si el documento no existía
+     * @param current null si se borró
+     */
+    private void notifyListeners(String id, Map<String, Object> previous, Map<String, Object> current) {
+        for (Subscription subscription : listeners) {
+            boolean wasIn = previous != null && matchesAll(previous, subscription.conditions());
+            boolean isIn = current != null && matchesAll(current, subscription.conditions());
+
+            StoredDocumentChange change;
+            if (isIn) {
+                change = new StoredDocumentChange(
+                    wasIn ? StoredDocumentChange.Type.MODIFIED : StoredDocumentChange.Type.ADDED,
+                    new StoredDocument(id, current));
+            } else if (wasIn) {
+                change = new StoredDocumentChange(StoredDocumentChange.Type.REMOVED, new StoredDocument(id, previous));
+            } else {
+                continue;
+            }
+
+            try {
+                subscription.listener().onChanges(List.of(change));
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Listener de {} falló: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static void addToIndex(ConcurrentSkipListMap<Object, Set<String>> index,
+            String id, Map<String, Object> data, String field) {
+        if (data.containsKey(field)) {
+            index.computeIfAbsent(indexKey(data.get(field)), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static void unindex(ConcurrentSkipListMap<Object, Set<String>> index,
+            String id, Map<String, Object> data, String field) {
+        if (!data.containsKey(field)) {
+            return;
+        }
+
+        Object key = indexKey(data.get(field));
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key, ids);
+            }
+        }
+    }
+
+    private static Object indexKey(Object value) {
+        return value != null ? value : ValueOrder.NULL_KEY;
+    }
+
+    /**
+     * Escribe un campo (admite rutas con punto: "a.b") resolviendo FieldValue
+     */
+    @SuppressWarnings("unchecked")
+    private static void write(Map<String, Object> document, String path, Object value) {
+        String[] parts = path.split("\\.");
+        Map<String, Object> target = document;
+
+        for (int i = 0; i < parts.length - 1; i++) {
+            Object nested = target.get(parts[i]);
+            Map<String, Object> copy = nested instanceof Map<?, ?> map
+                ? new LinkedHashMap<>((Map<String, Object>) map)
+                : new LinkedHashMap<>();
+            target.put(parts[i], copy);
+            target = copy;
+        }
+
+        String field = parts[parts.length - 1];
+        Object resolved = FieldTransforms.resolve(value, target.get(field));
+
+        if (resolved == FieldTransforms.DELETE) {
+            target.remove(field);
+        } else {
+            target.put(field, resolved);
+        }
+    }
+
+    /**
+     * Normaliza el documento completo (Long/Double/Timestamp) y lo deja inmodificable
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> freeze(Map<String, Object> document) {
+        return (Map<String, Object>) ValueOrder.normalize(document);
+    }
+
+    private static boolean matchesAll(Map<String, Object> data, List<DocumentQuery.Condition> conditions) {
+        for (DocumentQuery.Condition condition : conditions) {
+            String field = condition.getField();
+            if (!ValueOrder.matches(data.containsKey(field), data.get(field), condition.getOp(), condition.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compara el documento con el cursor startAfter, criterio por criterio
+     * (orderBy y luego document ID), en la dirección de la consulta
+     */
+    private static int compareToCursor(StoredDocument doc, DocumentQuery query, boolean descending) {
+        List<Object> keys = new ArrayList<>(2);
+        if (query.getOrderBy() != null) {
+            keys.add(doc.get(query.getOrderBy()));
+        }
+        if (query.isOrderByDocumentId() || query.getOrderBy() == null) {
+            keys.add(doc.getId());
+        }
+
+        List<Object> cursor = query.getStartAfter();
+        for (int i = 0; i < Math.min(keys.size(), cursor.size()); i++) {
+            int cmp = ValueOrder.compare(keys.get(i), ValueOrder.normalize(cursor.get(i)));
+            if (cmp != 0) {
+                return descending ? -cmp : cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static Map<String, Object> project(Map<String, Object> data, List<String> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (data.containsKey(field)) {
+                projected.put(field, data.get(field));
+            }
+        }
+        return Collections.unmodifiableMap(projected);
+    }
+}
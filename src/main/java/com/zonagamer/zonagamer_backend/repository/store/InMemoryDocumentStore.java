@@ -0,0 +1,144 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * DocumentStore en memoria (perfil "memory").
+ *
+ * Sin red ni credenciales: sirve para correr la API en local y como línea
+ * base de latencia cero al medir controladores y servicios. Todas las
+ * operaciones se ejecutan en el hilo que llama y devuelven futures ya
+ * completados. Los datos se pierden al reiniciar.
+ *
+ * Activar con: --spring.profiles.active=memory
+ */
+@Slf4j
+@Component
+@Profile("memory")
+public class InMemoryDocumentStore implements DocumentStore {
+
+    private final Map<String, InMemoryCollection> collections = new ConcurrentHashMap<>();
+
+    public InMemoryDocumentStore() {
+        log.warn("⚠️ Usando backend en memoria: los datos NO se guardan en Firestore");
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredDocument>> get(String collection, String id) {
+        return run(() -> Optional.ofNullable(collection(collection).get(id)));
+    }
+
+    @Override
+    public CompletableFuture<List<StoredDocument>> getAll(String collection, Collection<String> ids) {
+        return run(() -> collection(collection).getAll(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<StoredDocument>> query(String collection, DocumentQuery query) {
+        return run(() -> collection(collection).query(query));
+    }
+
+    @Override
+    public CompletableFuture<Long> count(String collection, DocumentQuery query) {
+        return run(() -> collection(collection).count(query.filtersOnly()));
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String collection, String id, Map<String, Object> data) {
+        return run(() -> {
+            collection(collection).set(id, data);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields) {
+        return run(() -> {
+            collection(collection).update(id, fields);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collection, String id) {
+        return run(() -> {
+            collection(collection).delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAtomically(String collection, Collection<String> ids,
+            Function<Map<String, StoredDocument>, Map<String, Map<String, Object>>> updates) {
+        return run(() -> {
+            collection(collection).updateAtomically(ids, updates);
+            return null;
+        });
+    }
+
+    /**
+     * Sin batching: cada escritura se aplica al momento
+     */
+    @Override
+    public DocumentBulkWriter bulkWriter() {
+        return new DocumentBulkWriter() {
+            @Override
+            public CompletableFuture<Void> set(String collection, String id, Map<String, Object> data) {
+                return InMemoryDocumentStore.this.set(collection, id, data);
+            }
+
+            @Override
+            public CompletableFuture<Void> update(String collection, String id, Map<String, Object> fields) {
+                return InMemoryDocumentStore.this.update(collection, id, fields);
+            }
+
+            @Override
+            public CompletableFuture<Void> delete(String collection, String id) {
+                return InMemoryDocumentStore.this.delete(collection, id);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Los cambios se entregan en el mismo hilo que hace la escritura
+     */
+    @Override
+    public ListenerRegistration listen(String collection, DocumentQuery query, DocumentChangeListener listener) {
+        return collection(collection).listen(query, listener);
+    }
+
+    private InMemoryCollection collection(String name) {
+        return collections.computeIfAbsent(name, InMemoryCollection::new);
+    }
+
+    /**
+     * Los errores viajan en el future, igual que con Firestore
+     */
+    private static <V> CompletableFuture<V> run(Supplier<V> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Documento leído de un DocumentStore: document ID + datos crudos
+ * (lo que recibe FirestoreCodec.decode)
+ */
+@Value
+public class StoredDocument {
+
+    String id;
+
+    Map<String, Object> data;
+
+    public Object get(String field) {
+        return data.get(field);
+    }
+}
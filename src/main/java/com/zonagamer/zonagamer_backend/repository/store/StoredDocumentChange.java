@@ -0,0 +1,24 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import lombok.Value;
+
+/**
+ * Cambio de un documento recibido por un DocumentChangeListener
+ * (equivale a DocumentChange de Firestore)
+ */
+@Value
+public class StoredDocumentChange {
+
+    public enum Type {
+        ADDED,
+        MODIFIED,
+        REMOVED
+    }
+
+    Type type;
+
+    /**
+     * Documento después del cambio (en REMOVED, el último estado conocido)
+     */
+    StoredDocument document;
+}
@@ -0,0 +1,170 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.GeoPoint;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Normalización, orden y comparación de valores en el backend en memoria,
+ * siguiendo las reglas de Firestore:
+ * - Los enteros se guardan como Long, los decimales como Double y las
+ *   fechas como Timestamp (igual que DocumentSnapshot.getData()).
+ * - Valores de distinto tipo se ordenan por tipo:
+ *   null < boolean < número < timestamp < string < bytes < geopoint < array < map
+ * - Los filtros de rango (<, <=, >, >=) solo coinciden con valores del mismo tipo.
+ */
+final class ValueOrder {
+
+    /**
+     * Marca de null en los índices (ConcurrentSkipListMap no admite claves null)
+     */
+    static final Object NULL_KEY = new Object();
+
+    private ValueOrder() {
+    }
+
+    static Object normalize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float f) {
+            return f.doubleValue();
+        }
+        if (value instanceof Date d) {
+            return Timestamp.of(d);
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(String.valueOf(k), normalize(FieldTransforms.resolve(v, null))));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            return Collections.unmodifiableList(list.stream()
+                .map(ValueOrder::normalize)
+                .collect(Collectors.toList()));
+        }
+        return value;
+    }
+
+    static int rank(Object value) {
+        if (value == null || value == NULL_KEY) {
+            return 0;
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Number) {
+            return 2;
+        }
+        if (value instanceof Timestamp) {
+            return 3;
+        }
+        if (value instanceof String) {
+            return 4;
+        }
+        if (value instanceof Blob) {
+            return 5;
+        }
+        if (value instanceof GeoPoint) {
+            return 6;
+        }
+        if (value instanceof List) {
+            return 7;
+        }
+        if (value instanceof Map) {
+            return 8;
+        }
+        return 9;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compare(Object a, Object b) {
+        int rankA = rank(a);
+        int rankB = rank(b);
+        if (rankA != rankB) {
+            return Integer.compare(rankA, rankB);
+        }
+
+        switch (rankA) {
+            case 0:
+                return 0;
+            case 1:
+                return Boolean.compare((Boolean) a, (Boolean) b);
+            case 2:
+                if (a instanceof Long x && b instanceof Long y) {
+                    return Long.compare(x, y);
+                }
+                return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            case 3:
+                return ((Timestamp) a).compareTo((Timestamp) b);
+            case 4:
+                return ((String) a).compareTo((String) b);
+            case 6:
+                GeoPoint pointA = (GeoPoint) a;
+                GeoPoint pointB = (GeoPoint) b;
+                int byLatitude = Double.compare(pointA.getLatitude(), pointB.getLatitude());
+                return byLatitude != 0 ? byLatitude : Double.compare(pointA.getLongitude(), pointB.getLongitude());
+            case 7:
+                List<Object> listA = (List<Object>) a;
+                List<Object> listB = (List<Object>) b;
+                for (int i = 0; i < Math.min(listA.size(), listB.size()); i++) {
+                    int cmp = compare(listA.get(i), listB.get(i));
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return Integer.compare(listA.size(), listB.size());
+            default:
+                return String.valueOf(a).compareTo(String.valueOf(b));
+        }
+    }
+
+    /**
+     * Evalúa actual op expected. present indica si el campo existe en el documento
+     * (un campo ausente no coincide con ningún filtro, igual que en Firestore).
+     */
+    static boolean matches(boolean present, Object actual, String op, Object expected) {
+        if (!present) {
+            return false;
+        }
+
+        Object value = normalize(expected);
+
+        switch (op) {
+            case "==":
+                return rank(actual) == rank(value) && compare(actual, value) == 0;
+            case "!=":
+                return actual != null && !(rank(actual) == rank(value) && compare(actual, value) == 0);
+            default:
+                if (rank(actual) != rank(value)) {
+                    return false;
+                }
+                int cmp = compare(actual, value);
+                switch (op) {
+                    case "<":
+                        return cmp < 0;
+                    case "<=":
+                        return cmp <= 0;
+                    case ">":
+                        return cmp > 0;
+                    case ">=":
+                        return cmp >= 0;
+                    default:
+                        throw new IllegalArgumentException("Operador no soportado: " + op);
+                }
+        }
+    }
+}
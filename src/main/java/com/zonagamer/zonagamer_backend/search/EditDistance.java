@@ -0,0 +1,103 @@
+package com.zonagamer.zonagamer_backend.search;
+
+/**
+ * Distancia de edición con transposiciones (Damerau-Levenshtein restringida):
+ * inserción, borrado, sustitución o intercambio de dos letras vecinas cuestan 1,
+ * así "swtich" está a 1 de "switch".
+ */
+public final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    public static int between(CharSequence a, CharSequence b) {
+        return between(a, b, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Como between, pero deja de calcular apenas la distancia supera limit
+     * (devuelve limit + 1): descarta rápido las palabras muy distintas
+     */
+    public static int between(CharSequence a, CharSequence b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        if (n == 0) {
+            return Math.min(m, limit + 1);
+        }
+        if (m == 0) {
+            return Math.min(n, limit + 1);
+        }
+
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+
+            // Con transposiciones una celda depende también de dos filas atrás: se corta cuando ambas filas superan limit
+            if (rowMin > limit && i > 1 && minimum(previous) > limit) {
+                return limit + 1;
+            }
+
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return Math.min(previous[m], limit + 1);
+    }
+
+    private static int minimum(int[] row) {
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * Como between, pero contra el comienzo de word del mismo largo que
+     * prefix (para la última palabra de una búsqueda mientras se escribe)
+     */
+    public static int toPrefix(String prefix, String word, int limit) {
+        if (word.length() <= prefix.length()) {
+            return between(prefix, word, limit);
+        }
+        return between(prefix, word.subSequence(0, prefix.length()), limit);
+    }
+
+    /**
+     * Errores tolerados según el largo de la palabra buscada
+     */
+    public static int allowed(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        if (length <= 4) {
+            return 1;
+        }
+        return length <= 7 ? 2 : 3;
+    }
+}
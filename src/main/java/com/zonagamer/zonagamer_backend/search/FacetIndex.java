@@ -0,0 +1,558 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Índice inmutable para /api/products/query: filtros combinados, orden y
+ * conteos por faceta sobre los productos activos.
+ *
+ * Cada producto tiene un ordinal (su posición, en orden de document ID) y
+ * cada filtro es un OrdinalSet ya calculado: con stock, destacados, cada
+ * categoría con todas sus subcategorías, cada tramo de precio. Una consulta
+ * es un puñado de AND entre esos conjuntos; un rango de precio arbitrario
+ * sale de los ordinales ordenados por precio (búsqueda binaria).
+ *
+ * Los conteos por faceta no aplican el filtro de la propia faceta (los de
+ * categoría no filtran por categoría, los de precio no filtran por precio),
+ * así el cliente ve cuántos productos tendría al cambiar esa selección.
+ *
+ * Para cada orden hay una permutación de los ordinales ya ordenada: una
+ * página se arma recorriéndola (o, si hay pocos resultados, ordenando sus
+ * posiciones en ella), sin comparar productos en cada consulta.
+ *
+ * Los ordinales también están ordenados por la posición en preorden de su
+ * categoría (CategoryTree.Node): los productos de una categoría y de todas
+ * sus subcategorías son un rango contiguo de ese arreglo, que se ubica con
+ * dos búsquedas binarias (inCategory).
+ */
+public final class FacetIndex {
+
+    /**
+     * Límite inferior de cada tramo de precio (CLP); el último no tiene tope
+     */
+    public static final double[] PRICE_BUCKETS = {0, 20_000, 50_000, 100_000, 250_000, 500_000};
+
+    /**
+     * Con menos de size / SPARSE_RATIO resultados conviene ordenar sus
+     * posiciones en lugar de recorrer la permutación completa
+     */
+    private static final int SPARSE_RATIO = 16;
+
+    private final long version;
+    private final long treeVersion;
+    private final CategoryTree tree;
+
+    private final Product[] products;
+    private final Map<String, Integer> ordinals;
+
+    private final OrdinalSet inStock;
+    private final OrdinalSet featured;
+
+    /** categoryId -> productos de la categoría y de sus subcategorías (solo las que tienen alguno) */
+    private final Map<String, OrdinalSet> subtrees;
+
+    /**
+     * Ordinales con categoría en el árbol, por posición en preorden de la
+     * categoría (y por ordinal a igual categoría), y esas posiciones
+     */
+    private final int[] byCategory;
+    private final int[] categoryPositions;
+
+    /** Ordinales con precio, de menor a mayor precio, y sus precios */
+    private final int[] byPrice;
+    private final double[] sortedPrices;
+
+    private final OrdinalSet[] priceBuckets;
+
+    /** orders[sort] son los ordinales en ese orden; ranks[sort][ordinal] la posición de cada uno */
+    private final int[][] orders;
+    private final int[][] ranks;
+
+    public record CategoryCount(Category category, int count) {
+    }
+
+    /**
+     * @param max null para el último tramo
+     */
+    public record PriceCount(double min, Double max, int count) {
+    }
+
+    /**
+     * @param total Productos que cumplen la consulta (items es solo la página pedida)
+     */
+    public record Result(List<Product> items, int total, List<CategoryCount> categories, List<PriceCount> prices) {
+    }
+
+    private FacetIndex(long version, long treeVersion, CategoryTree tree, Product[] products,
+            Map<String, Integer> ordinals, OrdinalSet inStock, OrdinalSet featured, Map<String, OrdinalSet> subtrees,
+            int[] byCategory, int[] categoryPositions, int[] byPrice, double[] sortedPrices, OrdinalSet[] priceBuckets, int[][] orders, int[][] ranks) {
+        this.version = version;
+        this.treeVersion = treeVersion;
+        this.tree = tree;
+        this.products = products;
+        this.ordinals = ordinals;
+        this.inStock = inStock;
+        this.featured = featured;
+        this.subtrees = subtrees;
+        this.byCategory = byCategory;
+        this.categoryPositions = categoryPositions;
+        this.byPrice = byPrice;
+        this.sortedPrices = sortedPrices;
+        this.priceBuckets = priceBuckets;
+        this.orders = orders;
+        this.ranks = ranks;
+    }
+
+    /**
+     * @param products Productos del catálogo (se indexan solo los activos), en orden de document ID
+     * @param version Versión del catálogo de la que salen (-1 si no viene del catálogo)
+     * @param treeVersion Versión del árbol de categorías
+     */
+    public static FacetIndex build(List<Product> products, CategoryTree tree, long version, long treeVersion) {
+        return build(activeOf(products), tree, version, treeVersion);
+    }
+
+    /**
+     * Como build, pero si desde previous solo cambió el stock (lo más común:
+     * cada venta) reutiliza todo lo demás y solo recalcula el filtro de stock
+     */
+    public static FacetIndex update(FacetIndex previous, List<Product> products, CategoryTree tree, long version,
+            long treeVersion) {
+        Product[] active = activeOf(products);
+
+        if (previous == null || previous.treeVersion != treeVersion || !sameExceptStock(previous.products, active)) {
+            return build(active, tree, version, treeVersion);
+        }
+
+        return new FacetIndex(version, treeVersion, tree, active, previous.ordinals, inStockOf(active),
+            previous.featured, previous.subtrees, previous.byCategory, previous.categoryPositions, previous.byPrice, previous.sortedPrices, previous.priceBuckets,
+            previous.orders, previous.ranks);
+    }
+
+    private static Product[] activeOf(List<Product> products) {
+        return products.stream().filter(Product::isActive).toArray(Product[]::new);
+    }
+
+    private static OrdinalSet inStockOf(Product[] active) {
+        OrdinalSet inStock = OrdinalSet.empty(active.length);
+        for (int ordinal = 0; ordinal < active.length; ordinal++) {
+            if (active[ordinal].getStock() != null && active[ordinal].getStock() > 0) {
+                inStock.add(ordinal);
+            }
+        }
+        return inStock;
+    }
+
+    /**
+     * Mismos productos en el mismo orden y con los mismos campos indexados, salvo el stock
+     */
+    private static boolean sameExceptStock(Product[] previous, Product[] current) {
+        if (previous.length != current.length) {
+            return false;
+        }
+
+        for (int i = 0; i < current.length; i++) {
+            Product a = previous[i];
+            Product b = current[i];
+            if (a == b) {
+                continue;
+            }
+            if (!Objects.equals(a.getId(), b.getId())
+                    || !Objects.equals(a.getNombreProducto(), b.getNombreProducto())
+                    || !Objects.equals(a.getPrecio(), b.getPrecio())
+                    || !Objects.equals(a.getCategoryId(), b.getCategoryId())
+                    || !Objects.equals(a.getFechaCreacion(), b.getFechaCreacion())
+                    || a.isFeatured() != b.isFeatured()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FacetIndex build(Product[] active, CategoryTree tree, long version, long treeVersion) {
+        int size = active.length;
+
+        Map<String, Integer> ordinals = new HashMap<>(size * 2);
+        OrdinalSet inStock = inStockOf(active);
+        OrdinalSet featured = OrdinalSet.empty(size);
+        // (posición de la categoría << 32 | ordinal): ordenar las claves ordena por ambos
+        long[] categoryKeys = new long[size];
+        int categorized = 0;
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Product product = active[ordinal];
+            ordinals.put(product.getId(), ordinal);
+
+            if (product.isFeatured()) {
+                featured.add(ordinal);
+            }
+
+            CategoryTree.Node node = product.getCategoryId() != null
+                ? tree.get(product.getCategoryId()).orElse(null)
+                : null;
+            if (node != null) {
+                categoryKeys[categorized++] = (long) node.position() << 32 | ordinal;
+            }
+        }
+
+        Arrays.sort(categoryKeys, 0, categorized);
+        int[] byCategory = new int[categorized];
+        int[] categoryPositions = new int[categorized];
+        for (int i = 0; i < categorized; i++) {
+            byCategory[i] = (int) categoryKeys[i];
+            categoryPositions[i] = (int) (categoryKeys[i] >>> 32);
+        }
+
+        // El conjunto de cada categoría es su rango en byCategory
+        Map<String, OrdinalSet> subtrees = new HashMap<>();
+        for (Category category : tree.all()) {
+            CategoryTree.Node node = tree.get(category.getId()).orElseThrow();
+            int from = firstAtLeast(categoryPositions, node.position());
+            int to = firstAtLeast(categoryPositions, node.lastDescendant() + 1);
+            if (from < to) {
+                subtrees.put(category.getId(), range(byCategory, size, from, to));
+            }
+        }
+
+        // La entrada va en orden de ID y el sort es estable: a igual clave queda el orden por ID
+        Comparator<Product> byName = Comparator.comparing(Product::getNombreProducto,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+        Comparator<Product>[] comparators = comparators(byName);
+
+        int[][] orders = new int[ProductQuery.Sort.values().length][];
+        int[][] ranks = new int[orders.length][];
+        for (ProductQuery.Sort sort : ProductQuery.Sort.values()) {
+            int[] order = sorted(active, comparators[sort.ordinal()]);
+            int[] rank = new int[size];
+            for (int position = 0; position < size; position++) {
+                rank[order[position]] = position;
+            }
+            orders[sort.ordinal()] = order;
+            ranks[sort.ordinal()] = rank;
+        }
+
+        // PRICE_ASC deja los que no tienen precio al final
+        int[] priceOrder = orders[ProductQuery.Sort.PRICE_ASC.ordinal()];
+        int priced = 0;
+        while (priced < size && active[priceOrder[priced]].getPrecio() != null) {
+            priced++;
+        }
+        int[] byPrice = Arrays.copyOf(priceOrder, priced);
+        double[] sortedPrices = new double[priced];
+        for (int i = 0; i < priced; i++) {
+            sortedPrices[i] = active[byPrice[i]].getPrecio();
+        }
+
+        OrdinalSet[] priceBuckets = new OrdinalSet[PRICE_BUCKETS.length];
+        for (int bucket = 0; bucket < PRICE_BUCKETS.length; bucket++) {
+            priceBuckets[bucket] = range(byPrice, size,
+                lowerBound(sortedPrices, PRICE_BUCKETS[bucket]),
+                bucket + 1 < PRICE_BUCKETS.length ? lowerBound(sortedPrices, PRICE_BUCKETS[bucket + 1]) : priced);
+        }
+
+        return new FacetIndex(version, treeVersion, tree, active, ordinals, inStock, featured, subtrees,
+            byCategory, categoryPositions, byPrice, sortedPrices, priceBuckets, orders, ranks);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Product>[] comparators(Comparator<Product> byName) {
+        Comparator<Product>[] comparators = new Comparator[ProductQuery.Sort.values().length];
+        comparators[ProductQuery.Sort.NAME.ordinal()] = byName;
+        comparators[ProductQuery.Sort.PRICE_ASC.ordinal()] = Comparator.comparing(Product::getPrecio,
+            Comparator.nullsLast(Comparator.<Double>naturalOrder())).thenComparing(byName);
+        comparators[ProductQuery.Sort.PRICE_DESC.ordinal()] = Comparator.comparing(Product::getPrecio,
+            Comparator.nullsLast(Comparator.<Double>reverseOrder())).thenComparing(byName);
+        comparators[ProductQuery.Sort.NEWEST.ordinal()] = Comparator.comparing(Product::getFechaCreacion,
+            Comparator.nullsLast(Comparator.<Date>reverseOrder())).thenComparing(byName);
+        return comparators;
+    }
+
+    private static int[] sorted(Product[] products, Comparator<Product> comparator) {
+        List<Integer> order = new ArrayList<>(products.length);
+        for (int ordinal = 0; ordinal < products.length; ordinal++) {
+            order.add(ordinal);
+        }
+        order.sort((a, b) -> comparator.compare(products[a], products[b]));
+        return order.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long treeVersion() {
+        return treeVersion;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Memoria de los conjuntos y permutaciones (los productos son los del
+     * catálogo y no se cuentan). Lo que update reutiliza del índice anterior
+     * se cuenta en los dos.
+     */
+    public long estimatedBytes() {
+        long size = products.length;
+        long sets = inStock.estimatedBytes() + featured.estimatedBytes();
+        for (OrdinalSet subtree : subtrees.values()) {
+            sets += MemoryEstimator.MAP_ENTRY + subtree.estimatedBytes();
+        }
+        for (OrdinalSet bucket : priceBuckets) {
+            sets += bucket.estimatedBytes();
+        }
+
+        return size * MemoryEstimator.REFERENCE
+            + size * (MemoryEstimator.MAP_ENTRY + MemoryEstimator.OBJECT) // ordinals, con el Integer
+            + sets
+            + (long) (byCategory.length + categoryPositions.length + byPrice.length) * Integer.BYTES
+            + (long) sortedPrices.length * Double.BYTES
+            + (long) orders.length * 2 * size * Integer.BYTES;
+    }
+
+    /**
+     * Productos de la categoría y de todas sus subcategorías, agrupados en
+     * preorden del árbol (la categoría primero) y por ID dentro de cada una.
+     * Si la categoría no está en el árbol, los que tienen exactamente ese categoryId.
+     */
+    public List<Product> inCategory(String categoryId) {
+        CategoryTree.Node node = tree.get(categoryId).orElse(null);
+        if (node == null) {
+            return Arrays.stream(products).filter(p -> categoryId.equals(p.getCategoryId())).toList();
+        }
+
+        int from = firstAtLeast(categoryPositions, node.position());
+        int to = firstAtLeast(categoryPositions, node.lastDescendant() + 1);
+
+        List<Product> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(products[byCategory[i]]);
+        }
+        return items;
+    }
+
+    /**
+     * @param textMatches IDs de los productos que coinciden con query.text(),
+     *                    o null si la consulta no tiene texto
+     */
+    public Result query(ProductQuery query, Collection<String> textMatches) {
+        int size = products.length;
+
+        OrdinalSet base = OrdinalSet.full(size);
+        if (query.inStock() != null) {
+            apply(base, inStock, query.inStock());
+        }
+        if (query.featured() != null) {
+            apply(base, featured, query.featured());
+        }
+        if (textMatches != null) {
+            base.and(ordinalsOf(textMatches));
+        }
+
+        OrdinalSet priceFilter = query.minPrice() != null || query.maxPrice() != null
+            ? priceRange(query.minPrice(), query.maxPrice())
+            : null;
+        OrdinalSet categoryFilter = query.categoryId() != null
+            ? subtrees.getOrDefault(query.categoryId(), OrdinalSet.empty(size))
+            : null;
+
+        // Cada faceta se cuenta con todos los filtros menos el suyo
+        OrdinalSet forCategories = intersect(base, priceFilter);
+        OrdinalSet forPrices = intersect(base, categoryFilter);
+        OrdinalSet matches = intersect(forCategories, categoryFilter);
+
+        int total = matches.cardinality();
+
+        return new Result(
+            page(matches, total, query.sort(), query.offset(), query.limit()),
+            total,
+            categoryCounts(forCategories),
+            priceCounts(forPrices)
+        );
+    }
+
+    private static void apply(OrdinalSet base, OrdinalSet filter, boolean included) {
+        if (included) {
+            base.and(filter);
+        } else {
+            base.andNot(filter);
+        }
+    }
+
+    /**
+     * Copia de set AND filter, o el mismo set si no hay filtro (no se modifica después)
+     */
+    private static OrdinalSet intersect(OrdinalSet set, OrdinalSet filter) {
+        if (filter == null) {
+            return set;
+        }
+        OrdinalSet result = set.copy();
+        result.and(filter);
+        return result;
+    }
+
+    private OrdinalSet ordinalsOf(Collection<String> productIds) {
+        OrdinalSet set = OrdinalSet.empty(products.length);
+        for (String productId : productIds) {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                set.add(ordinal);
+            }
+        }
+        return set;
+    }
+
+    private OrdinalSet priceRange(Double min, Double max) {
+        int from = min != null ? lowerBound(sortedPrices, min) : 0;
+        int to = max != null ? upperBound(sortedPrices, max) : sortedPrices.length;
+        return range(byPrice, products.length, from, Math.max(from, to));
+    }
+
+    /**
+     * Los ordinales de sorted[from..to) como conjunto
+     */
+    private static OrdinalSet range(int[] sorted, int size, int from, int to) {
+        OrdinalSet set = OrdinalSet.empty(size);
+        for (int i = from; i < to; i++) {
+            set.add(sorted[i]);
+        }
+        return set;
+    }
+
+    /**
+     * Primera posición con valor >= value
+     */
+    private static int firstAtLeast(int[] values, int value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Primera posición con precio >= price
+     */
+    private static int lowerBound(double[] prices, double price) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Primera posición con precio > price
+     */
+    private static int upperBound(double[] prices, double price) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<Product> page(OrdinalSet matches, int total, ProductQuery.Sort sort, int offset, int limit) {
+        if (offset >= total) {
+            return List.of();
+        }
+
+        int[] order = orders[sort.ordinal()];
+        int end = (int) Math.min(total, (long) offset + limit);
+        List<Product> items = new ArrayList<>(end - offset);
+
+        if ((long) total * SPARSE_RATIO < products.length) {
+            int[] rank = ranks[sort.ordinal()];
+            int[] positions = new int[total];
+            int count = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                positions[count++] = rank[ordinal];
+            }
+            Arrays.sort(positions);
+
+            for (int i = offset; i < end; i++) {
+                items.add(products[order[positions[i]]]);
+            }
+            return items;
+        }
+
+        int skipped = 0;
+        for (int position = 0; position < order.length && items.size() < end - offset; position++) {
+            int ordinal = order[position];
+            if (!matches.contains(ordinal)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                items.add(products[ordinal]);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Categorías (en orden de ID) con al menos un producto, contando sus subcategorías
+     */
+    private List<CategoryCount> categoryCounts(OrdinalSet matches) {
+        List<CategoryCount> counts = new ArrayList<>();
+        for (Category category : tree.all()) {
+            OrdinalSet subtree = subtrees.get(category.getId());
+            if (subtree == null) {
+                continue;
+            }
+            int count = matches.andCardinality(subtree);
+            if (count > 0) {
+                counts.add(new CategoryCount(category, count));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Todos los tramos, aunque tengan 0
+     */
+    private List<PriceCount> priceCounts(OrdinalSet matches) {
+        List<PriceCount> counts = new ArrayList<>(PRICE_BUCKETS.length);
+        for (int bucket = 0; bucket < PRICE_BUCKETS.length; bucket++) {
+            counts.add(new PriceCount(
+                PRICE_BUCKETS[bucket],
+                bucket + 1 < PRICE_BUCKETS.length ? PRICE_BUCKETS[bucket + 1] : null,
+                matches.andCardinality(priceBuckets[bucket])
+            ));
+        }
+        return counts;
+    }
+}
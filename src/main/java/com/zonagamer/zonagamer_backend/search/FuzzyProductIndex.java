@@ -0,0 +1,366 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryService;
+import com.zonagamer.zonagamer_backend.service.CategoryTree;
+import com.zonagamer.zonagamer_backend.service.ProductCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda tolerante a errores de tipeo (/api/products/search?fuzzy=true):
+ * "nintedo swtich" encuentra "Nintendo Switch".
+ *
+ * 1. TrigramIndex sobre las palabras del nombre del producto y de su
+ *    categoría da hasta MAX_CANDIDATES candidatos
+ * 2. Cada palabra de la consulta debe estar a pocos errores
+ *    (EditDistance.allowed) de alguna palabra del candidato; la última
+ *    también puede ser el comienzo de una palabra
+ * 3. Se ordena por similitud (1 - errores / largo, sumado por palabra)
+ *
+ * El índice es inmutable y se rearma completo en segundo plano
+ * REBUILD_DELAY_MILLIS después de un cambio del catálogo que cambie sus
+ * palabras (nombre, categoría o activo; el stock y el precio no) o del árbol
+ * de categorías. Varios cambios seguidos se juntan en un solo rearmado y
+ * mientras tanto se sigue usando el anterior. El índice solo guarda IDs: los
+ * resultados se leen del catálogo actual, así nunca salen con precio o stock
+ * viejos ni productos ya desactivados o borrados. covers dice si las
+ * palabras del índice están al día con una versión del catálogo (para
+ * CatalogResponseCacheFilter).
+ *
+ * Se registra en CacheRegistry como "fuzzy-index": flush lo descarta y
+ * agenda el rearmado, warm lo rearma ya.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FuzzyProductIndex {
+
+    private static final int MAX_CANDIDATES = 256;
+
+    private static final long REBUILD_DELAY_MILLIS = 500;
+
+    public static final String CACHE_NAME = "fuzzy-index";
+
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final CacheRegistry cacheRegistry;
+
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fuzzy-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    /** null hasta el primer armado */
+    private volatile Index index;
+
+    /** Último lote del catálogo recibido; se reemplaza completo (un solo volatile) */
+    private volatile Seen seen = new Seen(-1, -1);
+
+    /**
+     * @param ids ID de cada producto indexado, por ordinal
+     * @param words Palabras de cada producto (nombre + categoría), por ordinal
+     * @param products Todos los productos con que se armó, activos o no (para saber si un cambio lo afecta)
+     * @param catalogVersion Versión del catálogo con que se armó
+     * @param treeVersion Versión del árbol de categorías con que se armó
+     */
+    private record Index(TrigramIndex trigrams, String[] ids, List<List<String>> words, Map<String, Product> products,
+            long catalogVersion, long treeVersion) {
+    }
+
+    /**
+     * @param version Versión del último lote recibido del catálogo
+     * @param changedAt Versión del último lote que cambió las palabras de algún producto
+     */
+    private record Seen(long version, long changedAt) {
+    }
+
+    private record Match(Product product, double score) {
+    }
+
+    @PostConstruct
+    void start() {
+        cacheRegistry.register(new FuzzyIndexCache());
+        productCatalog.addListener(this::onCatalogChanges);
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilds.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return index != null && productCatalog.isReady();
+    }
+
+    /**
+     * true si el índice tiene las palabras de esa versión del catálogo y del
+     * árbol (una búsqueda responde lo mismo que con uno armado desde cero)
+     */
+    public boolean covers(long catalogVersion, long treeVersion) {
+        // seen antes que index: un lote recibido después solo puede hacerlo más nuevo
+        Seen last = seen;
+        Index current = index;
+        if (current == null || current.treeVersion() != treeVersion) {
+            return false;
+        }
+
+        long upTo = current.catalogVersion() >= last.changedAt()
+            ? Math.max(current.catalogVersion(), last.version())
+            : current.catalogVersion();
+        return upTo == catalogVersion;
+    }
+
+    /**
+     * Productos activos parecidos a la consulta, del más al menos parecido
+     * (vacío si el índice se acaba de descartar)
+     */
+    public List<Product> search(String query) {
+        Index current = index;
+        if (current == null) {
+            counters.recordMiss();
+            return List.of();
+        }
+        counters.recordHit();
+        if (current.treeVersion() != categoryService.getTreeVersion()) {
+            scheduleRebuild();
+        }
+
+        List<String> queryWords = SpanishAnalyzer.words(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int ordinal : current.trigrams().candidates(queryWords, MAX_CANDIDATES)) {
+            double score = similarity(queryWords, current.words().get(ordinal));
+            if (score <= 0) {
+                continue;
+            }
+
+            Product product = productCatalog.getProduct(current.ids()[ordinal]).orElse(null);
+            if (product != null && product.isActive()) {
+                matches.add(new Match(product, score));
+            }
+        }
+
+        return matches.stream()
+            .sorted(Comparator.comparingDouble(Match::score).reversed()
+                .thenComparing(match -> match.product().getNombreProducto(),
+                    Comparator.nullsLast(Comparator.naturalOrder())))
+            .map(Match::product)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Suma de la similitud de cada palabra de la consulta con la palabra más
+     * parecida del producto, o 0 si alguna no tiene ninguna parecida
+     */
+    private static double similarity(List<String> queryWords, List<String> words) {
+        double score = 0;
+
+        for (int i = 0; i < queryWords.size(); i++) {
+            String queryWord = queryWords.get(i);
+            boolean last = i == queryWords.size() - 1;
+            int allowed = EditDistance.allowed(queryWord.length());
+
+            int best = allowed + 1;
+            for (String word : words) {
+                int limit = Math.min(allowed, best);
+                int distance = EditDistance.between(queryWord, word, limit);
+                if (last) {
+                    distance = Math.min(distance, EditDistance.toPrefix(queryWord, word, limit));
+                }
+                best = Math.min(best, distance);
+            }
+
+            if (best > allowed) {
+                return 0;
+            }
+            score += 1 - (double) best / queryWord.length();
+        }
+
+        return score;
+    }
+
+    /**
+     * Corre dentro del lock del catálogo, en orden de versión: getVersion es
+     * la de este lote
+     */
+    private void onCatalogChanges(Map<String, Product> upserted, Set<String> removed) {
+        long version = productCatalog.getVersion();
+        Seen last = seen;
+
+        if (affectsWords(upserted, removed)) {
+            seen = new Seen(version, version);
+            scheduleRebuild();
+        } else {
+            seen = new Seen(version, last.changedAt());
+        }
+    }
+
+    private boolean affectsWords(Map<String, Product> upserted, Set<String> removed) {
+        Index current = index;
+        if (current == null) {
+            return true;
+        }
+
+        for (String id : removed) {
+            if (current.products().containsKey(id)) {
+                return true;
+            }
+        }
+
+        for (Product product : upserted.values()) {
+            Product indexed = current.products().get(product.getId());
+            if (indexed == null
+                    || indexed.isActive() != product.isActive()
+                    || !Objects.equals(indexed.getNombreProducto(), product.getNombreProducto())
+                    || !Objects.equals(indexed.getCategoryId(), product.getCategoryId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilds.schedule(this::rebuild, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // Antes de leer: un cambio durante el armado agenda otro
+        rebuildPending.set(false);
+
+        if (!productCatalog.isReady()) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            // Las versiones se leen antes que los datos: a lo sumo el índice queda marcado más viejo
+            long catalogVersion = productCatalog.getVersion();
+            long treeVersion = categoryService.getTreeVersion();
+            CategoryTree tree = categoryService.getTree();
+
+            List<Product> catalog = productCatalog.getProducts();
+            Map<String, Product> indexed = new HashMap<>(catalog.size() * 2);
+            List<String> ids = new ArrayList<>();
+            List<List<String>> words = new ArrayList<>();
+            for (Product product : catalog) {
+                indexed.put(product.getId(), product);
+                if (!product.isActive()) {
+                    continue;
+                }
+
+                List<String> productWords = SpanishAnalyzer.words(product.getNombreProducto());
+                if (product.getCategoryId() != null) {
+                    tree.get(product.getCategoryId())
+                        .map(CategoryTree.Node::category)
+                        .map(Category::getNombreCategoria)
+                        .ifPresent(name -> productWords.addAll(SpanishAnalyzer.words(name)));
+                }
+
+                ids.add(product.getId());
+                words.add(productWords);
+            }
+
+            index = new Index(TrigramIndex.build(words), ids.toArray(new String[0]), words, indexed, catalogVersion,
+                treeVersion);
+            counters.recordLoad(System.nanoTime() - start);
+
+            log.debug("Índice de trigramas armado en {} ms: {} productos (versión {})",
+                (System.nanoTime() - start) / 1_000_000, ids.size(), catalogVersion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo armar el índice de trigramas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vista del índice para CacheRegistry
+     */
+    private class FuzzyIndexCache implements ManagedCache {
+
+        @Override
+        public String getName() {
+            return CACHE_NAME;
+        }
+
+        @Override
+        public long size() {
+            Index current = index;
+            return current != null ? current.ids().length : 0;
+        }
+
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+
+        @Override
+        public long estimatedBytes() {
+            Index current = index;
+            if (current == null) {
+                return 0;
+            }
+
+            // Los productos y sus IDs son los del catálogo: solo las referencias y las palabras de cada uno
+            return current.trigrams().estimatedBytes()
+                + current.ids().length * MemoryEstimator.REFERENCE
+                + current.products().size() * MemoryEstimator.MAP_ENTRY
+                + MemoryEstimator.sampled(current.words(), words -> MemoryEstimator.OBJECT * 2
+                    + words.stream().mapToLong(word -> MemoryEstimator.REFERENCE + MemoryEstimator.string(word)).sum());
+        }
+
+        @Override
+        public void flush() {
+            Index current = index;
+            index = null;
+            counters.recordEvictions(current != null ? current.ids().length : 0);
+            log.info("Índice de trigramas descartado");
+            scheduleRebuild();
+        }
+
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+
+        @Override
+        public void warm() throws ExecutionException, InterruptedException {
+            // En el mismo hilo que los rearmados agendados, así no se pisan
+            rebuilds.submit(FuzzyProductIndex.this::rebuild).get();
+        }
+    }
+}
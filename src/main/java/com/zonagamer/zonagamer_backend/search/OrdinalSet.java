@@ -0,0 +1,116 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de ordinales (0..size-1) como bits en un long[]: la intersección
+ * de dos conjuntos es un AND palabra por palabra.
+ *
+ * A diferencia de java.util.BitSet tiene tamaño fijo y cuenta una
+ * intersección sin armarla (andCardinality), que es lo que necesitan los
+ * conteos de facetas.
+ */
+final class OrdinalSet {
+
+    private final long[] words;
+
+    private final int size;
+
+    private OrdinalSet(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    static OrdinalSet empty(int size) {
+        return new OrdinalSet(new long[(size + 63) >>> 6], size);
+    }
+
+    static OrdinalSet full(int size) {
+        OrdinalSet set = empty(size);
+        Arrays.fill(set.words, -1L);
+        if ((size & 63) != 0) {
+            set.words[set.words.length - 1] = -1L >>> (64 - (size & 63));
+        }
+        return set;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long estimatedBytes() {
+        return MemoryEstimator.OBJECT * 2 + (long) words.length * Long.BYTES;
+    }
+
+    void add(int ordinal) {
+        words[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    boolean contains(int ordinal) {
+        return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    OrdinalSet copy() {
+        return new OrdinalSet(words.clone(), size);
+    }
+
+    /**
+     * Se queda solo con los ordinales que también están en other
+     */
+    void and(OrdinalSet other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    /**
+     * Quita los ordinales que están en other
+     */
+    void andNot(OrdinalSet other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Tamaño de la intersección con other, sin armarla
+     */
+    int andCardinality(OrdinalSet other) {
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Primer ordinal del conjunto desde from (inclusive), o -1 si no hay más
+     */
+    int nextSetBit(int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryService;
+import com.zonagamer.zonagamer_backend.service.ProductCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mantiene el FacetIndex de /api/products/query al día con ProductCatalog
+ * y el árbol de categorías.
+ *
+ * A diferencia de los otros índices de búsqueda, una consulta nunca usa un
+ * índice atrasado: el filtro de stock cambia con cada venta y la respuesta
+ * se cachea con las versiones del catálogo y del árbol de categorías
+ * (CatalogResponseCacheFilter). Si alguna de las dos no coincide con las
+ * del índice, la consulta lo rearma antes de responder. Para que eso casi
+ * nunca pase, cada cambio del catálogo agenda un rearmado en segundo plano
+ * REBUILD_DELAY_MILLIS después (varios seguidos se juntan); un cambio del
+ * árbol se rearma en la siguiente consulta.
+ * Si solo cambió el stock, rearmar es solo recalcular ese filtro
+ * (FacetIndex.update).
+ *
+ * Se registra en CacheRegistry como "facets": flush descarta el índice (la
+ * siguiente consulta lo arma completo) y warm lo arma ya.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    private static final long REBUILD_DELAY_MILLIS = 100;
+
+    public static final String CACHE_NAME = "facets";
+
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final ProductSearchIndex searchIndex;
+    private final CacheRegistry cacheRegistry;
+
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "facet-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    /** null hasta el primer armado */
+    private volatile FacetIndex index;
+
+    @PostConstruct
+    void start() {
+        cacheRegistry.register(new FacetCache());
+        productCatalog.addListener((upserted, removed) -> scheduleRebuild());
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilds.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return productCatalog.isReady();
+    }
+
+    public FacetIndex.Result query(ProductQuery query) throws ExecutionException, InterruptedException {
+        FacetIndex current = current();
+
+        Set<String> textMatches = query.text() != null ? searchIndex.matchingIds(query.text()) : null;
+
+        return current.query(query, textMatches);
+    }
+
+    /**
+     * Productos activos de la categoría y de sus subcategorías (ver FacetIndex.inCategory)
+     */
+    public List<Product> inCategory(String categoryId) throws ExecutionException, InterruptedException {
+        return current().inCategory(categoryId);
+    }
+
+    /**
+     * El índice de la versión actual del catálogo y del árbol, armándolo si hace falta
+     */
+    private FacetIndex current() throws ExecutionException, InterruptedException {
+        FacetIndex current = index;
+        if (isCurrent(current)) {
+            counters.recordHit();
+            return current;
+        }
+
+        synchronized (this) {
+            current = index;
+            if (isCurrent(current)) {
+                counters.recordHit();
+                return current;
+            }
+
+            counters.recordMiss();
+            long start = System.nanoTime();
+            // Las versiones se leen antes que los datos: a lo sumo quedan atrasadas y se rearma de nuevo
+            long version = productCatalog.getVersion();
+            long treeVersion = categoryService.getTreeVersion();
+
+            current = FacetIndex.update(index, productCatalog.getProducts(), categoryService.getTree(), version,
+                treeVersion);
+            index = current;
+            counters.recordLoad(System.nanoTime() - start);
+
+            log.debug("Índice de facetas armado en {} ms: {} productos (versión {})",
+                (System.nanoTime() - start) / 1_000_000, current.size(), version);
+            return current;
+        }
+    }
+
+    private boolean isCurrent(FacetIndex current) {
+        return current != null
+            && current.version() == productCatalog.getVersion()
+            && current.treeVersion() == categoryService.getTreeVersion();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilds.schedule(this::rebuild, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+
+        if (!productCatalog.isReady()) {
+            return;
+        }
+
+        try {
+            current();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo armar el índice de facetas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vista del índice para CacheRegistry
+     */
+    private class FacetCache implements ManagedCache {
+
+        @Override
+        public String getName() {
+            return CACHE_NAME;
+        }
+
+        @Override
+        public long size() {
+            FacetIndex current = index;
+            return current != null ? current.size() : 0;
+        }
+
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+
+        @Override
+        public long estimatedBytes() {
+            FacetIndex current = index;
+            return current != null ? current.estimatedBytes() : 0;
+        }
+
+        @Override
+        public void flush() {
+            synchronized (ProductFacetIndex.this) {
+                FacetIndex current = index;
+                index = null;
+                counters.recordEvictions(current != null ? current.size() : 0);
+            }
+            log.info("Índice de facetas descartado");
+        }
+
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+
+        @Override
+        public void warm() throws ExecutionException, InterruptedException {
+            current();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Popularidad de los productos para ordenar las sugerencias: cada vista del
+ * detalle suma VIEW_WEIGHT y cada unidad vendida PURCHASE_WEIGHT.
+ *
+ * Se cuenta en memoria desde que arrancó la instancia (no se guarda ni se
+ * comparte entre instancias): es una señal para ordenar, no una estadística.
+ * Solo se deben registrar productos que existen; los que se eliminan se
+ * olvidan (forget), así el mapa no crece más que el catálogo.
+ */
+@Component
+public class ProductPopularity {
+
+    private static final long VIEW_WEIGHT = 1;
+
+    private static final long PURCHASE_WEIGHT = 10;
+
+    private final Map<String, LongAdder> scores = new ConcurrentHashMap<>();
+
+    /** true si algún puntaje cambió desde el último consumeChanged */
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    public void recordView(String productId) {
+        add(productId, VIEW_WEIGHT);
+    }
+
+    public void recordPurchase(String productId, int quantity) {
+        add(productId, PURCHASE_WEIGHT * quantity);
+    }
+
+    /**
+     * Descarta el puntaje de productos eliminados
+     */
+    public void forget(Collection<String> productIds) {
+        productIds.forEach(scores::remove);
+    }
+
+    public long score(String productId) {
+        LongAdder score = scores.get(productId);
+        return score != null ? score.sum() : 0;
+    }
+
+    /**
+     * Si hubo cambios desde el llamado anterior (y los marca como vistos)
+     */
+    public boolean consumeChanged() {
+        return changed.getAndSet(false);
+    }
+
+    private void add(String productId, long amount) {
+        if (productId == null || amount <= 0) {
+            return;
+        }
+        scores.computeIfAbsent(productId, id -> new LongAdder()).add(amount);
+        changed.set(true);
+    }
+}
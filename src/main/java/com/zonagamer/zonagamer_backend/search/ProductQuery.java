@@ -0,0 +1,82 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import lombok.Builder;
+
+/**
+ * Filtros, orden y página de /api/products/query. Los filtros null no se
+ * aplican; todos los demás deben cumplirse a la vez.
+ *
+ * @param categoryId La categoría o cualquiera de sus subcategorías
+ * @param minPrice Precio mínimo (inclusive)
+ * @param maxPrice Precio máximo (inclusive)
+ * @param inStock true: con stock; false: sin stock
+ * @param featured true: destacados; false: no destacados
+ * @param text Texto a buscar (ver ProductSearchIndex)
+ */
+@Builder
+public record ProductQuery(
+    String categoryId,
+    Double minPrice,
+    Double maxPrice,
+    Boolean inStock,
+    Boolean featured,
+    String text,
+    Sort sort,
+    int offset,
+    int limit
+) {
+
+    public enum Sort {
+        NAME("name"),
+        PRICE_ASC("price_asc"),
+        PRICE_DESC("price_desc"),
+        NEWEST("newest");
+
+        private final String param;
+
+        Sort(String param) {
+            this.param = param;
+        }
+
+        /**
+         * Desde el ?sort= recibido (null usa NAME)
+         */
+        public static Sort from(String param) {
+            if (param == null || param.isBlank()) {
+                return NAME;
+            }
+            for (Sort sort : values()) {
+                if (sort.param.equalsIgnoreCase(param.trim())) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException(
+                "Orden inválido: " + param + " (usar name, price_asc, price_desc o newest)"
+            );
+        }
+    }
+
+    public ProductQuery {
+        if (minPrice != null && minPrice < 0 || maxPrice != null && maxPrice < 0) {
+            throw new IllegalArgumentException("El precio no puede ser negativo");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice no puede ser mayor que maxPrice");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset no puede ser negativo");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser al menos 1");
+        }
+        if (sort == null) {
+            sort = Sort.NAME;
+        }
+        if (text != null && text.isBlank()) {
+            text = null;
+        }
+        if (categoryId != null && categoryId.isBlank()) {
+            categoryId = null;
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryService;
+import com.zonagamer.zonagamer_backend.service.ProductCatalog;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido para /api/products/search: término -> productos que lo
+ * tienen en el nombre o la descripción (con cuántas veces), más término ->
+ * categorías que lo tienen en el nombre (un producto coincide también por el
+ * nombre de su categoría). Los términos salen de SpanishAnalyzer.
+ *
+ * - Se mantiene con los cambios de ProductCatalog (addListener): cada lote
+ *   solo reindexa los productos que cambiaron
+ * - Los términos de categorías se rearman cuando cambia la versión del árbol
+ *   de CategoryService (son pocas; renombrar una categoría no toca los productos)
+ * - Todos los términos de la consulta deben coincidir; el último también
+ *   como prefijo, para las búsquedas mientras se escribe
+ *
+ * search ordena por relevancia con BM25 sobre los tres campos (nombre,
+ * descripción y categoría), con más peso para el nombre y un extra para los
+ * productos con stock. Solo se ordenan los offset + limit mejores, con un
+ * heap acotado, nunca todas las coincidencias.
+ *
+ * Solo sirve mientras el catálogo está listo (isReady): antes ProductService
+ * recorre los productos del repositorio. ProductCatalog publica cada versión
+ * antes de avisar a los listeners, así que por un momento el índice queda una
+ * atrás: getCatalogVersion dice cuál tiene (para CatalogResponseCacheFilter).
+ *
+ * Se registra en CacheRegistry como "search-index"; flush y warm lo
+ * vuelven a indexar completo desde el catálogo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    /** Saturación de la frecuencia de un término (BM25) */
+    private static final double K1 = 1.2;
+
+    /** Cuánto penaliza un campo más largo que el promedio (BM25) */
+    private static final double B = 0.75;
+
+    private static final double NAME_WEIGHT = 3.0;
+
+    private static final double CATEGORY_WEIGHT = 1.5;
+
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private static final double IN_STOCK_BOOST = 1.2;
+
+    /**
+     * Peso de un término que solo completa el último de la consulta ("mous"
+     * -> "mousepad"), para que la palabra exacta quede primero
+     */
+    private static final double COMPLETION_WEIGHT = 0.5;
+
+    public static final String CACHE_NAME = "search-index";
+
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final CacheRegistry cacheRegistry;
+
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Término -> ID de producto -> veces que aparece en el nombre */
+    private final TreeMap<String, Map<String, Integer>> namePostings = new TreeMap<>();
+
+    /** Término -> ID de producto -> veces que aparece en la descripción */
+    private final TreeMap<String, Map<String, Integer>> descriptionPostings = new TreeMap<>();
+
+    /** ID -> términos indexados del producto, para quitarlos al cambiar */
+    private final Map<String, Set<String>> termsByProduct = new HashMap<>();
+
+    /** ID -> cantidad de términos del nombre y de la descripción */
+    private final Map<String, FieldLengths> lengths = new HashMap<>();
+
+    /** Suma de los largos de todos los productos, para el largo promedio */
+    private long totalNameLength;
+    private long totalDescriptionLength;
+
+    private final Map<String, Product> products = new HashMap<>();
+
+    /** categoryId -> IDs de productos */
+    private final Map<String, Set<String>> productsByCategory = new HashMap<>();
+
+    /** Términos de las categorías; se reemplaza completo */
+    private volatile CategoryTerms categoryTerms = new CategoryTerms(new TreeMap<>(), Map.of(), 0);
+
+    /** Versión del catálogo indexada (-1 si todavía no se indexa) */
+    private volatile long catalogVersion = -1;
+
+    /** Versión del árbol de categorías indexada (-1 si todavía no se indexa) */
+    private volatile long categoryTreeVersion = -1;
+
+    private record FieldLengths(int name, int description) {
+    }
+
+    /**
+     * @param postings Término -> ID de categoría -> veces que aparece en el nombre
+     * @param lengths ID de categoría -> cantidad de términos del nombre
+     */
+    private record CategoryTerms(NavigableMap<String, Map<String, Integer>> postings, Map<String, Integer> lengths,
+            double averageLength) {
+    }
+
+    private record Scored(Product product, double score) {
+    }
+
+    /** Peor primero: menor puntaje y, a igual puntaje, mayor ID */
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+        .thenComparing(scored -> scored.product().getId(), Comparator.reverseOrder());
+
+    @PostConstruct
+    void start() {
+        cacheRegistry.register(new SearchIndexCache());
+        productCatalog.addListener(this::apply);
+    }
+
+    public boolean isReady() {
+        return productCatalog.isReady();
+    }
+
+    /**
+     * Versión de ProductCatalog que tiene el índice (-1 si todavía no se indexa)
+     */
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Productos activos que coinciden con todos los términos de la consulta,
+     * del más al menos relevante (a igual puntaje, por document ID). Devuelve
+     * solo limit desde offset, y el total de coincidencias.
+     */
+    public SearchPage<Product> search(String query, int offset, int limit)
+            throws ExecutionException, InterruptedException {
+        List<String> terms = SpanishAnalyzer.terms(query);
+        if (terms.isEmpty()) {
+            return SearchPage.empty();
+        }
+
+        counters.recordHit();
+
+        refreshCategories();
+        CategoryTerms categories = categoryTerms;
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<String, Double> termScores = score(terms.get(i), i == terms.size() - 1, categories);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return SearchPage.empty();
+                }
+            }
+
+            // Solo los offset + limit mejores: el heap nunca pasa de ese tamaño
+            int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<Scored> best = new PriorityQueue<>(WORST_FIRST);
+            int total = 0;
+
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (!product.isActive()) {
+                    continue;
+                }
+                total++;
+
+                double score = entry.getValue();
+                if (product.getStock() != null && product.getStock() > 0) {
+                    score *= IN_STOCK_BOOST;
+                }
+
+                Scored scored = new Scored(product, score);
+                if (best.size() < keep) {
+                    best.add(scored);
+                } else if (keep > 0 && WORST_FIRST.compare(scored, best.peek()) > 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+
+            List<Product> ranked = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ranked.add(best.poll().product());
+            }
+
+            List<Product> items = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int i = ranked.size() - 1 - offset; i >= 0; i--) {
+                items.add(ranked.get(i));
+            }
+            return new SearchPage<>(items, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs de los productos activos que coinciden con todos los términos, sin
+     * puntaje ni orden (para combinar con otros filtros)
+     */
+    public Set<String> matchingIds(String query) throws ExecutionException, InterruptedException {
+        List<String> terms = SpanishAnalyzer.terms(query);
+        if (terms.isEmpty()) {
+            return Set.of();
+        }
+
+        counters.recordHit();
+
+        refreshCategories();
+
+        lock.readLock().lock();
+        try {
+            Set<String> result = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Set<String> matches = matching(terms.get(i), i == terms.size() - 1);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    return Set.of();
+                }
+            }
+
+            result.removeIf(id -> !products.get(id).isActive());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs de productos con el término (o un término que empieza con él) en
+     * su texto o en el nombre de su categoría
+     */
+    private Set<String> matching(String term, boolean prefix) {
+        Set<String> matches = new HashSet<>();
+
+        for (Map<String, Integer> productIds : range(namePostings, term, prefix)) {
+            matches.addAll(productIds.keySet());
+        }
+        for (Map<String, Integer> productIds : range(descriptionPostings, term, prefix)) {
+            matches.addAll(productIds.keySet());
+        }
+        for (Map<String, Integer> categoryIds : range(categoryTerms.postings(), term, prefix)) {
+            for (String categoryId : categoryIds.keySet()) {
+                matches.addAll(productsByCategory.getOrDefault(categoryId, Set.of()));
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Puntaje BM25 de cada producto que tiene el término. Con prefix, el
+     * término puede completarse de varias formas ("mous": "mouse",
+     * "mousepad") y cada producto se queda con la que mejor le va; las que
+     * no son el término exacto pesan COMPLETION_WEIGHT. El idf es el del
+     * término de la consulta (cuántos productos tienen alguna de sus formas),
+     * no el de cada forma: si no, una forma rara ganaría solo por rara.
+     */
+    private Map<String, Double> score(String term, boolean prefix, CategoryTerms categories) {
+        Set<String> expansions = new TreeSet<>();
+        expansions.addAll(keys(namePostings, term, prefix));
+        expansions.addAll(keys(descriptionPostings, term, prefix));
+        expansions.addAll(keys(categories.postings(), term, prefix));
+
+        int size = products.size();
+        double averageName = size > 0 ? (double) totalNameLength / size : 0;
+        double averageDescription = size > 0 ? (double) totalDescriptionLength / size : 0;
+
+        Map<String, Double> scores = new HashMap<>();
+        for (String expansion : expansions) {
+            Map<String, Integer> inName = namePostings.getOrDefault(expansion, Map.of());
+            Map<String, Integer> inDescription = descriptionPostings.getOrDefault(expansion, Map.of());
+            Map<String, Integer> inCategories = categories.postings().getOrDefault(expansion, Map.of());
+
+            Set<String> productIds = new HashSet<>(inName.keySet());
+            productIds.addAll(inDescription.keySet());
+            for (String categoryId : inCategories.keySet()) {
+                productIds.addAll(productsByCategory.getOrDefault(categoryId, Set.of()));
+            }
+
+            double weight = expansion.equals(term) ? 1 : COMPLETION_WEIGHT;
+
+            for (String id : productIds) {
+                FieldLengths length = lengths.get(id);
+                String categoryId = products.get(id).getCategoryId();
+
+                double score = NAME_WEIGHT * bm25(inName.getOrDefault(id, 0), length.name(), averageName)
+                    + DESCRIPTION_WEIGHT * bm25(inDescription.getOrDefault(id, 0), length.description(),
+                        averageDescription);
+                if (categoryId != null) {
+                    score += CATEGORY_WEIGHT * bm25(inCategories.getOrDefault(categoryId, 0),
+                        categories.lengths().getOrDefault(categoryId, 0), categories.averageLength());
+                }
+
+                scores.merge(id, weight * score, Math::max);
+            }
+        }
+
+        int matches = scores.size();
+        double idf = Math.log(1 + (size - matches + 0.5) / (matches + 0.5));
+        scores.replaceAll((id, score) -> score * idf);
+
+        return scores;
+    }
+
+    /**
+     * Parte de BM25 de un campo: crece con las apariciones del término, pero
+     * cada vez menos, y pesa menos en un campo más largo que el promedio
+     */
+    private static double bm25(int frequency, int length, double averageLength) {
+        if (frequency == 0) {
+            return 0;
+        }
+        double norm = averageLength > 0 ? 1 - B + B * length / averageLength : 1;
+        return frequency * (K1 + 1) / (frequency + K1 * norm);
+    }
+
+    private static <V> Collection<V> range(NavigableMap<String, V> index, String term, boolean prefix) {
+        if (prefix) {
+            return index.subMap(term, true, term + Character.MAX_VALUE, false).values();
+        }
+        V exact = index.get(term);
+        return exact != null ? List.of(exact) : List.of();
+    }
+
+    private static Set<String> keys(NavigableMap<String, ?> index, String term, boolean prefix) {
+        if (prefix) {
+            return index.subMap(term, true, term + Character.MAX_VALUE, false).keySet();
+        }
+        return index.containsKey(term) ? Set.of(term) : Set.of();
+    }
+
+    private void refreshCategories() throws ExecutionException, InterruptedException {
+        // Se lee antes que el árbol: en el peor caso se rearma una vez de más
+        long version = categoryService.getTreeVersion();
+        if (version >= 0 && version == categoryTreeVersion) {
+            return;
+        }
+
+        NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+        Map<String, Integer> categoryLengths = new HashMap<>();
+        long totalLength = 0;
+
+        for (Category category : categoryService.getTree().all()) {
+            List<String> terms = SpanishAnalyzer.terms(category.getNombreCategoria());
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new HashMap<>()).merge(category.getId(), 1, Integer::sum);
+            }
+            categoryLengths.put(category.getId(), terms.size());
+            totalLength += terms.size();
+        }
+
+        categoryTerms = new CategoryTerms(postings, categoryLengths,
+            categoryLengths.isEmpty() ? 0 : (double) totalLength / categoryLengths.size());
+        categoryTreeVersion = version;
+
+        log.debug("Índice de búsqueda: {} términos de categorías (árbol versión {})", postings.size(), version);
+    }
+
+    private void apply(Map<String, Product> upserted, Set<String> removed) {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            removed.forEach(this::remove);
+            upserted.forEach((id, product) -> {
+                remove(id);
+                add(id, product);
+            });
+            // Los listeners corren dentro del lock del catálogo: es la versión de este lote
+            catalogVersion = productCatalog.getVersion();
+            counters.recordLoad(System.nanoTime() - start);
+
+            log.debug("Índice de búsqueda actualizado: {} cambiados, {} eliminados ({} productos, {} términos)",
+                upserted.size(), removed.size(), products.size(), namePostings.size() + descriptionPostings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta todo y vuelve a indexar el catálogo actual. El catálogo se lee
+     * con el lock tomado: un lote que llegue mientras tanto se aplica después
+     * encima (volver a aplicarlo no cambia nada).
+     */
+    private void reindex() {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+
+            namePostings.clear();
+            descriptionPostings.clear();
+            termsByProduct.clear();
+            lengths.clear();
+            products.clear();
+            productsByCategory.clear();
+            totalNameLength = 0;
+            totalDescriptionLength = 0;
+            categoryTreeVersion = -1;
+
+            // Antes que los productos: a lo sumo queda marcado más viejo, hasta el próximo lote
+            catalogVersion = productCatalog.getVersion();
+            for (Product product : productCatalog.getProducts()) {
+                add(product.getId(), product);
+            }
+            counters.recordLoad(System.nanoTime() - start);
+
+            log.info("Índice de búsqueda rearmado: {} productos, {} términos",
+                products.size(), namePostings.size() + descriptionPostings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(String id, Product product) {
+        List<String> nameTerms = SpanishAnalyzer.terms(product.getNombreProducto());
+        List<String> descriptionTerms = SpanishAnalyzer.terms(product.getDescripcionProducto());
+
+        for (String term : nameTerms) {
+            namePostings.computeIfAbsent(term, key -> new HashMap<>()).merge(id, 1, Integer::sum);
+        }
+        for (String term : descriptionTerms) {
+            descriptionPostings.computeIfAbsent(term, key -> new HashMap<>()).merge(id, 1, Integer::sum);
+        }
+
+        Set<String> terms = new HashSet<>(nameTerms);
+        terms.addAll(descriptionTerms);
+        termsByProduct.put(id, terms);
+
+        lengths.put(id, new FieldLengths(nameTerms.size(), descriptionTerms.size()));
+        totalNameLength += nameTerms.size();
+        totalDescriptionLength += descriptionTerms.size();
+
+        products.put(id, product);
+
+        if (product.getCategoryId() != null) {
+            productsByCategory.computeIfAbsent(product.getCategoryId(), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(String id) {
+        Product previous = products.remove(id);
+        if (previous == null) {
+            return;
+        }
+
+        for (String term : termsByProduct.remove(id)) {
+            removePosting(namePostings, term, id);
+            removePosting(descriptionPostings, term, id);
+        }
+
+        FieldLengths length = lengths.remove(id);
+        totalNameLength -= length.name();
+        totalDescriptionLength -= length.description();
+
+        if (previous.getCategoryId() != null) {
+            Set<String> productIds = productsByCategory.get(previous.getCategoryId());
+            productIds.remove(id);
+            if (productIds.isEmpty()) {
+                productsByCategory.remove(previous.getCategoryId());
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Map<String, Integer>> postings, String term, String id) {
+        Map<String, Integer> productIds = postings.get(term);
+        if (productIds != null && productIds.remove(id) != null && productIds.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    private static long estimateTermBytes(String term) {
+        return MemoryEstimator.MAP_ENTRY + MemoryEstimator.string(term) + MemoryEstimator.OBJECT * 2;
+    }
+
+    /**
+     * Vista del índice para CacheRegistry
+     */
+    private class SearchIndexCache implements ManagedCache {
+
+        @Override
+        public String getName() {
+            return CACHE_NAME;
+        }
+
+        @Override
+        public long size() {
+            lock.readLock().lock();
+            try {
+                return products.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+
+        @Override
+        public long estimatedBytes() {
+            lock.readLock().lock();
+            try {
+                // Cada término: entrada del TreeMap, el String y su mapa de productos
+                long terms = MemoryEstimator.sampled(namePostings.keySet(), ProductSearchIndex::estimateTermBytes)
+                    + MemoryEstimator.sampled(descriptionPostings.keySet(), ProductSearchIndex::estimateTermBytes)
+                    + MemoryEstimator.sampled(categoryTerms.postings().keySet(), ProductSearchIndex::estimateTermBytes);
+                // Cada término de un producto: una entrada en su posting y otra en termsByProduct
+                long occurrences = MemoryEstimator.sampled(termsByProduct.values(),
+                    productTerms -> productTerms.size() * MemoryEstimator.MAP_ENTRY * 2L);
+                // products, lengths (con su FieldLengths), termsByProduct y productsByCategory
+                long perProduct = products.size() * (MemoryEstimator.MAP_ENTRY * 4 + MemoryEstimator.OBJECT);
+
+                return terms + occurrences + perProduct;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void flush() {
+            counters.recordEvictions(size());
+            reindex();
+        }
+
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+
+        @Override
+        public void warm() {
+            reindex();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.dto.SuggestionDTO;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryService;
+import com.zonagamer.zonagamer_backend.service.CategoryTree;
+import com.zonagamer.zonagamer_backend.service.ProductCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocompletado de /api/products/suggest sobre los nombres de productos
+ * activos y de categorías, con un SuggestionTrie.
+ *
+ * Cada nombre se indexa desde el comienzo de cada palabra ("Nintendo Switch
+ * OLED" aparece con "nin", "swi" y "ole"). El orden es por puntaje: la
+ * popularidad del producto (ProductPopularity), más FEATURED_BONUS si es
+ * destacado; una categoría suma la popularidad de sus productos.
+ *
+ * El trie es inmutable y se rearma en segundo plano REBUILD_DELAY_MILLIS
+ * después de un cambio del catálogo que afecte a las sugerencias (nombre,
+ * activo, destacado o categoría; un cambio de stock no), del árbol de
+ * categorías, o cada POPULARITY_REFRESH_SECONDS si cambió la popularidad.
+ * Varios cambios seguidos se juntan en un solo rearmado y mientras tanto se
+ * responde con el trie anterior.
+ *
+ * Se registra en CacheRegistry como "suggestions": flush descarta el trie
+ * y agenda el rearmado, warm lo rearma ya.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    /** Máximo de sugerencias por consulta (lo que guarda cada nodo del trie) */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final long FEATURED_BONUS = 5;
+
+    private static final long REBUILD_DELAY_MILLIS = 500;
+
+    private static final long POPULARITY_REFRESH_SECONDS = 60;
+
+    public static final String CACHE_NAME = "suggestions";
+
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final ProductPopularity popularity;
+    private final CacheRegistry cacheRegistry;
+
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-trie-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    /** null hasta el primer armado */
+    private volatile Index index;
+
+    /**
+     * @param products Productos con que se armó (para saber si un cambio lo afecta)
+     */
+    private record Index(SuggestionTrie<SuggestionDTO> trie, Map<String, Product> products, long treeVersion) {
+    }
+
+    private record Entry(SuggestionDTO suggestion, long score, List<String> keys) {
+    }
+
+    @PostConstruct
+    void start() {
+        cacheRegistry.register(new SuggestionCache());
+        productCatalog.addListener((upserted, removed) -> {
+            popularity.forget(removed);
+            if (affectsSuggestions(upserted, removed)) {
+                scheduleRebuild();
+            }
+        });
+        rebuilds.scheduleWithFixedDelay(() -> {
+            if (popularity.consumeChanged()) {
+                scheduleRebuild();
+            }
+        }, POPULARITY_REFRESH_SECONDS, POPULARITY_REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilds.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Hasta limit sugerencias (como máximo MAX_SUGGESTIONS) para lo que se
+     * lleva escrito, de mayor a menor puntaje. Vacío si el índice todavía no
+     * se arma.
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        Index current = index;
+        if (current == null) {
+            counters.recordMiss();
+            return List.of();
+        }
+        counters.recordHit();
+        if (current.treeVersion() != categoryService.getTreeVersion()) {
+            scheduleRebuild();
+        }
+
+        int size = Math.max(0, Math.min(limit, MAX_SUGGESTIONS));
+        List<SuggestionDTO> suggestions = new ArrayList<>(size);
+        current.trie().suggest(prefix, size, suggestions);
+        return suggestions;
+    }
+
+    private boolean affectsSuggestions(Map<String, Product> upserted, Set<String> removed) {
+        Index current = index;
+        if (current == null) {
+            return true;
+        }
+
+        for (String id : removed) {
+            if (current.products().containsKey(id)) {
+                return true;
+            }
+        }
+
+        for (Product product : upserted.values()) {
+            Product indexed = current.products().get(product.getId());
+            if (indexed == null
+                    || indexed.isActive() != product.isActive()
+                    || indexed.isFeatured() != product.isFeatured()
+                    || !Objects.equals(indexed.getNombreProducto(), product.getNombreProducto())
+                    || !Objects.equals(indexed.getCategoryId(), product.getCategoryId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilds.schedule(this::rebuild, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // Antes de leer: un cambio durante el armado agenda otro
+        rebuildPending.set(false);
+
+        if (!productCatalog.isReady()) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            long treeVersion = categoryService.getTreeVersion();
+            CategoryTree tree = categoryService.getTree();
+
+            List<Entry> entries = new ArrayList<>();
+            Map<String, Long> categoryScores = new HashMap<>();
+            List<Product> products = productCatalog.getProducts();
+            Map<String, Product> indexed = new HashMap<>(products.size() * 2);
+
+            for (Product product : products) {
+                indexed.put(product.getId(), product);
+
+                List<String> keys = keys(product.getNombreProducto());
+                if (!product.isActive() || keys.isEmpty()) {
+                    continue;
+                }
+
+                long score = popularity.score(product.getId()) + (product.isFeatured() ? FEATURED_BONUS : 0);
+                if (product.getCategoryId() != null) {
+                    categoryScores.merge(product.getCategoryId(), score, Long::sum);
+                }
+
+                entries.add(new Entry(
+                    new SuggestionDTO(SuggestionDTO.PRODUCT, product.getId(), product.getNombreProducto()),
+                    score,
+                    keys
+                ));
+            }
+
+            for (Category category : tree.all()) {
+                List<String> keys = keys(category.getNombreCategoria());
+                if (!category.isActive() || keys.isEmpty()) {
+                    continue;
+                }
+
+                entries.add(new Entry(
+                    new SuggestionDTO(SuggestionDTO.CATEGORY, category.getId(), category.getNombreCategoria()),
+                    categoryScores.getOrDefault(category.getId(), 0L),
+                    keys
+                ));
+            }
+
+            // Mayor puntaje primero; a igual puntaje, el nombre más corto (más general)
+            entries.sort(Comparator.comparingLong(Entry::score).reversed()
+                .thenComparingInt(entry -> entry.suggestion().getText().length())
+                .thenComparing(entry -> entry.suggestion().getText()));
+
+            SuggestionTrie<SuggestionDTO> trie = SuggestionTrie.build(
+                entries.stream().map(Entry::suggestion).toList(),
+                entries.stream().map(Entry::keys).toList(),
+                MAX_SUGGESTIONS
+            );
+            index = new Index(trie, indexed, treeVersion);
+            counters.recordLoad(System.nanoTime() - start);
+
+            log.debug("Trie de sugerencias armado en {} ms: {} entradas, {} nodos",
+                (System.nanoTime() - start) / 1_000_000, entries.size(), trie.nodeCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo armar el trie de sugerencias: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * El nombre normalizado desde cada palabra: "nintendo switch", "switch"
+     */
+    private static List<String> keys(String name) {
+        List<String> words = SpanishAnalyzer.tokens(name);
+        List<String> keys = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    /**
+     * Vista del trie para CacheRegistry
+     */
+    private class SuggestionCache implements ManagedCache {
+
+        @Override
+        public String getName() {
+            return CACHE_NAME;
+        }
+
+        @Override
+        public long size() {
+            Index current = index;
+            return current != null ? current.trie().size() : 0;
+        }
+
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+
+        @Override
+        public long estimatedBytes() {
+            Index current = index;
+            if (current == null) {
+                return 0;
+            }
+
+            // Trie + cada SuggestionDTO (sus textos son los del catálogo) + el mapa de productos indexados
+            return current.trie().estimatedBytes()
+                + current.trie().size() * (MemoryEstimator.OBJECT + MemoryEstimator.REFERENCE * 3)
+                + current.products().size() * MemoryEstimator.MAP_ENTRY;
+        }
+
+        @Override
+        public void flush() {
+            Index current = index;
+            index = null;
+            counters.recordEvictions(current != null ? current.trie().size() : 0);
+            log.info("Trie de sugerencias descartado");
+            scheduleRebuild();
+        }
+
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+
+        @Override
+        public void warm() throws ExecutionException, InterruptedException {
+            // En el mismo hilo que los rearmados agendados, así no se pisan
+            rebuilds.submit(ProductSuggester.this::rebuild).get();
+        }
+    }
+}
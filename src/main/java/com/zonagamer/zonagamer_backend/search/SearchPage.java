@@ -0,0 +1,37 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Una página de resultados de búsqueda y el total de coincidencias
+ *
+ * @param total Resultados en todas las páginas (items es solo la pedida)
+ */
+public record SearchPage<T>(List<T> items, int total) {
+
+    public static <T> SearchPage<T> empty() {
+        return new SearchPage<>(List.of(), 0);
+    }
+
+    /**
+     * Página desde offset de una lista ya ordenada completa
+     */
+    public static <T> SearchPage<T> of(List<T> all, int offset, int limit) {
+        int from = Math.min(offset, all.size());
+        int to = (int) Math.min(all.size(), (long) from + limit);
+        return new SearchPage<>(all.subList(from, to), all.size());
+    }
+
+    /**
+     * Convierte los items conservando el total (ej: entidad -> DTO)
+     */
+    public <R> SearchPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+
+        return new SearchPage<>(mapped, total);
+    }
+}
@@ -0,0 +1,107 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte textos en términos para los índices de búsqueda. Se aplica igual
+ * a los productos y a la consulta, así "Cámaras" y "camara" dan el mismo
+ * término.
+ *
+ * - Minúsculas y sin tildes ni diéresis (la ñ queda como n)
+ * - Separa en letras y números: "PS5-Pro" da "ps5" y "pro"
+ * - Descarta stopwords del español ("de", "para", "con", ...)
+ * - Stemming liviano: quita plurales y la vocal final de las palabras de 5
+ *   letras o más ("juegos" y "juego" dan "jueg"; "luces" da "luz")
+ */
+public final class SpanishAnalyzer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "al", "como", "con", "de", "del", "e", "el", "en", "es", "la", "las", "lo", "los",
+        "mas", "muy", "o", "para", "por", "que", "se", "sin", "su", "sus", "u", "un", "una",
+        "unas", "unos", "y"
+    );
+
+    /** Las palabras más cortas no se recortan ("ps5", "xbox", "mando") */
+    private static final int MIN_STEM_LENGTH = 5;
+
+    private SpanishAnalyzer() {
+    }
+
+    /**
+     * Términos del texto, en orden y con repetidos (vacío si es null)
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = words(text);
+        terms.replaceAll(SpanishAnalyzer::stem);
+        return terms;
+    }
+
+    /**
+     * Palabras sin stopwords y sin stemming (para comparar con distancia de edición)
+     */
+    public static List<String> words(String text) {
+        List<String> words = tokens(text);
+        words.removeIf(STOPWORDS::contains);
+        return words;
+    }
+
+    /**
+     * Minúsculas y sin tildes, sin separar en palabras
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Palabras ya normalizadas con fold, sin stopwords ni stemming
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String stem(String word) {
+        int length = word.length();
+        if (length < MIN_STEM_LENGTH) {
+            return word;
+        }
+
+        char last = word.charAt(length - 1);
+        if (last == 'a' || last == 'e' || last == 'o') {
+            return word.substring(0, length - 1);
+        }
+
+        if (last == 's') {
+            if (word.endsWith("eses")) {
+                return word.substring(0, length - 2);
+            }
+            if (word.endsWith("ces")) {
+                return word.substring(0, length - 3) + "z";
+            }
+            char beforeLast = word.charAt(length - 2);
+            if (beforeLast == 'a' || beforeLast == 'e' || beforeLast == 'o') {
+                return word.substring(0, length - 2);
+            }
+        }
+
+        return word;
+    }
+}
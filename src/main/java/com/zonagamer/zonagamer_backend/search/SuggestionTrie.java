@@ -0,0 +1,377 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Trie inmutable para autocompletar, guardado en arreglos paralelos (un
+ * nodo es un índice: label, primer hijo, siguiente hermano) en lugar de
+ * objetos por nodo.
+ *
+ * Cada entrada tiene una o más claves (texto normalizado: a-z, 0-9 y un
+ * espacio entre palabras). Cada nodo guarda ya calculadas sus mejores
+ * maxResults entradas, así una consulta solo baja por el prefijo y copia
+ * esas entradas: no recorre el subárbol, no ordena y no crea objetos
+ * (aparte de la lista de resultado).
+ *
+ * Compacto: la parte final de una clave que no comparte con ninguna otra no
+ * se guarda como nodos (uno por letra) sino como texto en tails, colgando
+ * del último nodo compartido. Las claves se indexan hasta MAX_DEPTH
+ * caracteres; un prefijo más largo se recorta.
+ */
+public final class SuggestionTrie<T> {
+
+    static final int MAX_DEPTH = 32;
+
+    private static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private final List<T> entries;
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+
+    /** tailChars[tailStart[n]..tailEnd[n]) es el resto de la única clave del nodo n (vacío si no tiene) */
+    private final int[] tailStart;
+    private final int[] tailEnd;
+    private final char[] tailChars;
+
+    /** tops[topOffsets[n]..topOffsets[n + 1]) son las mejores entradas del nodo n, de mejor a peor */
+    private final int[] topOffsets;
+    private final int[] tops;
+
+    private SuggestionTrie(List<T> entries, char[] labels, int[] firstChild, int[] nextSibling,
+            int[] tailStart, int[] tailEnd, char[] tailChars, int[] topOffsets, int[] tops) {
+        this.entries = entries;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.tailStart = tailStart;
+        this.tailEnd = tailEnd;
+        this.tailChars = tailChars;
+        this.topOffsets = topOffsets;
+        this.tops = tops;
+    }
+
+    /**
+     * Clave de una entrada y cuántos caracteres van como nodos (el resto va a tails)
+     */
+    private record Key(String text, int rank, int nodes) {
+    }
+
+    /**
+     * @param entries Entradas ya ordenadas de mejor a peor
+     * @param keys Claves de cada entrada (misma posición que en entries)
+     * @param maxResults Entradas que guarda cada nodo (el máximo de una consulta)
+     */
+    public static <T> SuggestionTrie<T> build(List<T> entries, List<List<String>> keys, int maxResults) {
+        List<Key> sorted = new ArrayList<>();
+        for (int rank = 0; rank < entries.size(); rank++) {
+            for (String key : keys.get(rank)) {
+                sorted.add(new Key(key.length() > MAX_DEPTH ? key.substring(0, MAX_DEPTH) : key, rank, 0));
+            }
+        }
+        sorted.sort(Comparator.comparing(Key::text));
+
+        // Ya ordenadas, lo que una clave comparte con cualquier otra es lo que comparte con sus vecinas
+        List<Key> ranked = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            String text = sorted.get(i).text();
+            int shared = Math.max(
+                i > 0 ? commonPrefix(text, sorted.get(i - 1).text()) : 0,
+                i + 1 < sorted.size() ? commonPrefix(text, sorted.get(i + 1).text()) : 0
+            );
+            ranked.add(new Key(text, sorted.get(i).rank(), Math.min(text.length(), shared + 1)));
+        }
+
+        // Como se insertan de mejor a peor, cada nodo se queda con las primeras que le llegan
+        ranked.sort(Comparator.comparingInt(Key::rank));
+
+        Builder builder = new Builder(maxResults);
+        for (Key key : ranked) {
+            builder.insert(key.text(), key.nodes(), key.rank());
+        }
+
+        return builder.build(entries);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Memoria de los arreglos del trie más una referencia por entrada (las
+     * entradas se cuentan aparte)
+     */
+    public long estimatedBytes() {
+        long nodes = labels.length;
+        return MemoryEstimator.OBJECT * 10
+            + nodes * (Character.BYTES + Integer.BYTES * 5)
+            + (long) tailChars.length * Character.BYTES
+            + (long) tops.length * Integer.BYTES
+            + entries.size() * MemoryEstimator.REFERENCE;
+    }
+
+    /**
+     * Agrega a out las mejores entradas (hasta limit) con alguna clave que
+     * empieza con el prefijo. El prefijo se normaliza mientras se recorre:
+     * minúsculas, sin tildes y cualquier separador como un espacio.
+     */
+    public void suggest(CharSequence prefix, int limit, List<T> out) {
+        long position = position(ROOT, NONE);
+        int depth = 0;
+        boolean started = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < prefix.length() && depth < MAX_DEPTH; i++) {
+            char c = fold(prefix.charAt(i));
+            if (c == 0) {
+                continue;
+            }
+            if (c == ' ') {
+                pendingSpace = started;
+                continue;
+            }
+
+            if (pendingSpace) {
+                position = step(position, ' ');
+                depth++;
+                pendingSpace = false;
+                if (position == NONE || depth == MAX_DEPTH) {
+                    break;
+                }
+            }
+
+            position = step(position, c);
+            depth++;
+            started = true;
+            if (position == NONE) {
+                return;
+            }
+        }
+
+        if (position == NONE || !started) {
+            return;
+        }
+        if (pendingSpace && depth < MAX_DEPTH) {
+            position = step(position, ' ');
+            if (position == NONE) {
+                return;
+            }
+        }
+
+        int node = (int) (position >>> 32);
+        int end = Math.min(topOffsets[node + 1], topOffsets[node] + limit);
+        for (int i = topOffsets[node]; i < end; i++) {
+            out.add(entries.get(tops[i]));
+        }
+    }
+
+    /**
+     * Posición en el trie: un nodo y, si ya se entró a su tail, el índice del
+     * próximo carácter en tailChars (NONE si no). Va en un long para no crear
+     * objetos al recorrer.
+     */
+    private static long position(int node, int tail) {
+        return ((long) node << 32) | (tail & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Posición después de leer label, o NONE si ninguna clave sigue así
+     */
+    private long step(long position, char label) {
+        int node = (int) (position >>> 32);
+        int tail = (int) position;
+
+        if (tail != NONE) {
+            return tail < tailEnd[node] && tailChars[tail] == label ? position(node, tail + 1) : NONE;
+        }
+
+        int child = child(node, label);
+        if (child != NONE) {
+            return position(child, NONE);
+        }
+        if (tailStart[node] < tailEnd[node] && tailChars[tailStart[node]] == label) {
+            return position(node, tailStart[node] + 1);
+        }
+        return NONE;
+    }
+
+    private int child(int node, char label) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labels[child] == label) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Igual que SpanishAnalyzer.fold + tokens, de a un carácter: a-z o 0-9,
+     * ' ' para los separadores y 0 para las marcas que se ignoran
+     */
+    static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        if ((lower >= 'a' && lower <= 'z') || (lower >= '0' && lower <= '9')) {
+            return lower;
+        }
+
+        switch (lower) {
+            case 'á', 'à', 'ä', 'â', 'ã', 'å':
+                return 'a';
+            case 'é', 'è', 'ë', 'ê':
+                return 'e';
+            case 'í', 'ì', 'ï', 'î':
+                return 'i';
+            case 'ó', 'ò', 'ö', 'ô', 'õ':
+                return 'o';
+            case 'ú', 'ù', 'ü', 'û':
+                return 'u';
+            case 'ñ':
+                return 'n';
+            case 'ç':
+                return 'c';
+            default:
+                return Character.getType(lower) == Character.NON_SPACING_MARK ? 0 : ' ';
+        }
+    }
+
+    /**
+     * Arreglos que crecen mientras se insertan las claves; build los recorta
+     */
+    private static final class Builder {
+
+        private final int maxResults;
+
+        private char[] labels = new char[1024];
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private int[] tailStart = new int[1024];
+        private int[] tailEnd = new int[1024];
+        private final StringBuilder tailChars = new StringBuilder();
+        private int[] topCounts = new int[1024];
+        /** maxResults lugares por nodo */
+        private int[] tops;
+        private int size;
+
+        Builder(int maxResults) {
+            this.maxResults = maxResults;
+            this.tops = new int[1024 * maxResults];
+            newNode('\0');
+        }
+
+        /**
+         * @param nodes Caracteres de la clave que van como nodos; el resto
+         *              es solo de esta clave y queda como tail del último
+         */
+        void insert(String key, int nodes, int rank) {
+            int node = ROOT;
+
+            for (int i = 0; i < nodes; i++) {
+                node = childOrCreate(node, key.charAt(i));
+                offer(node, rank);
+            }
+
+            if (nodes < key.length()) {
+                tailStart[node] = tailChars.length();
+                tailChars.append(key, nodes, key.length());
+                tailEnd[node] = tailChars.length();
+            }
+        }
+
+        /**
+         * La misma entrada puede llegar por dos claves ("sony ps5 sony"): al
+         * insertarse en orden, el repetido solo puede ser el último
+         */
+        private void offer(int node, int rank) {
+            int count = topCounts[node];
+            int base = node * maxResults;
+            if (count < maxResults && (count == 0 || tops[base + count - 1] != rank)) {
+                tops[base + count] = rank;
+                topCounts[node] = count + 1;
+            }
+        }
+
+        private int childOrCreate(int node, char label) {
+            int last = NONE;
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (labels[child] == label) {
+                    return child;
+                }
+                last = child;
+            }
+
+            int created = newNode(label);
+            if (last == NONE) {
+                firstChild[node] = created;
+            } else {
+                nextSibling[last] = created;
+            }
+            return created;
+        }
+
+        private int newNode(char label) {
+            if (size == labels.length) {
+                int capacity = size * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                tailStart = Arrays.copyOf(tailStart, capacity);
+                tailEnd = Arrays.copyOf(tailEnd, capacity);
+                topCounts = Arrays.copyOf(topCounts, capacity);
+                tops = Arrays.copyOf(tops, capacity * maxResults);
+            }
+
+            labels[size] = label;
+            firstChild[size] = NONE;
+            nextSibling[size] = NONE;
+            tailStart[size] = 0;
+            tailEnd[size] = 0;
+            topCounts[size] = 0;
+            return size++;
+        }
+
+        <T> SuggestionTrie<T> build(List<T> entries) {
+            int[] topOffsets = new int[size + 1];
+            for (int node = 0; node < size; node++) {
+                topOffsets[node + 1] = topOffsets[node] + topCounts[node];
+            }
+
+            int[] compactTops = new int[topOffsets[size]];
+            for (int node = 0; node < size; node++) {
+                System.arraycopy(tops, node * maxResults, compactTops, topOffsets[node], topCounts[node]);
+            }
+
+            return new SuggestionTrie<>(
+                List.copyOf(entries),
+                Arrays.copyOf(labels, size),
+                Arrays.copyOf(firstChild, size),
+                Arrays.copyOf(nextSibling, size),
+                Arrays.copyOf(tailStart, size),
+                Arrays.copyOf(tailEnd, size),
+                tailChars.toString().toCharArray(),
+                topOffsets,
+                compactTops
+            );
+        }
+    }
+}
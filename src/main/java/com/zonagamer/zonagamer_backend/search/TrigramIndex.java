@@ -0,0 +1,210 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de trigramas inmutable para búsqueda tolerante a errores de tipeo.
+ *
+ * Cada documento es una lista de palabras ya normalizadas (SpanishAnalyzer:
+ * solo a-z y 0-9) y se identifica por su posición (ordinal). Cada palabra se
+ * rodea de espacios y se parte en trigramas: " ps", "ps5", "s5 ". Con 37
+ * símbolos hay 37^3 trigramas posibles, así que el trigrama es directamente
+ * el índice en offsets, y las listas de documentos van todas seguidas en
+ * postings (sin mapas ni Integer).
+ *
+ * candidates cuenta cuántos trigramas de la consulta comparte cada documento
+ * y devuelve los que más comparten; el orden final lo decide quien llama
+ * (distancia de edición). Los contadores de una consulta se arman con las
+ * listas que visita, no con un arreglo del tamaño del catálogo, y no se
+ * guardan entre consultas.
+ */
+public final class TrigramIndex {
+
+    /** Espacio, a-z, 0-9 */
+    private static final int ALPHABET = 37;
+
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+
+    /**
+     * Fracción mínima de los trigramas de la consulta que debe compartir un
+     * candidato
+     */
+    private static final double MIN_SHARED = 0.3;
+
+    private final int size;
+
+    /** postings[offsets[t]..offsets[t + 1]) son los documentos con el trigrama t, en orden */
+    private final int[] offsets;
+
+    private final int[] postings;
+
+    private TrigramIndex(int size, int[] offsets, int[] postings) {
+        this.size = size;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    /**
+     * @param documents Palabras de cada documento; el ordinal es la posición en la lista
+     */
+    public static TrigramIndex build(List<List<String>> documents) {
+        int size = documents.size();
+        int[][] trigramsByDocument = new int[size][];
+        int[] counts = new int[TRIGRAMS + 1];
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int[] trigrams = trigrams(documents.get(ordinal));
+            trigramsByDocument[ordinal] = trigrams;
+            for (int trigram : trigrams) {
+                counts[trigram + 1]++;
+            }
+        }
+
+        int[] offsets = new int[TRIGRAMS + 1];
+        for (int trigram = 0; trigram < TRIGRAMS; trigram++) {
+            offsets[trigram + 1] = offsets[trigram] + counts[trigram + 1];
+        }
+
+        // Se llenan en orden de ordinal: cada lista queda ordenada
+        int[] next = Arrays.copyOf(offsets, TRIGRAMS);
+        int[] postings = new int[offsets[TRIGRAMS]];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (int trigram : trigramsByDocument[ordinal]) {
+                postings[next[trigram]++] = ordinal;
+            }
+        }
+
+        return new TrigramIndex(size, offsets, postings);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Memoria de offsets y postings: es todo lo que retiene (una consulta no
+     * guarda nada entre llamadas)
+     */
+    public long estimatedBytes() {
+        return MemoryEstimator.OBJECT * 3 + (long) offsets.length * Integer.BYTES + (long) postings.length * Integer.BYTES;
+    }
+
+    /**
+     * Ordinales de los documentos que comparten más trigramas con las
+     * palabras de la consulta (como máximo max, sin orden definido)
+     */
+    public int[] candidates(List<String> words, int max) {
+        int[] query = trigrams(words);
+        if (query.length == 0 || size == 0) {
+            return new int[0];
+        }
+
+        int visited = 0;
+        for (int trigram : query) {
+            visited += offsets[trigram + 1] - offsets[trigram];
+        }
+        if (visited == 0) {
+            return new int[0];
+        }
+
+        // Juntas y ordenadas, las apariciones de un documento quedan seguidas: el tramo mide cuántos comparte
+        int[] hits = new int[visited];
+        int copied = 0;
+        for (int trigram : query) {
+            int length = offsets[trigram + 1] - offsets[trigram];
+            System.arraycopy(postings, offsets[trigram], hits, copied, length);
+            copied += length;
+        }
+        Arrays.sort(hits);
+
+        int distinct = 1;
+        for (int i = 1; i < visited; i++) {
+            if (hits[i] != hits[i - 1]) {
+                distinct++;
+            }
+        }
+
+        int[] ordinals = new int[distinct];
+        int[] counts = new int[distinct];
+        int found = 0;
+        for (int i = 0; i < visited; i++) {
+            if (i == 0 || hits[i] != hits[i - 1]) {
+                ordinals[found++] = hits[i];
+            }
+            counts[found - 1]++;
+        }
+
+        // Los conteos van de 1 a query.length: se elige el umbral con un histograma, sin ordenar
+        int minShared = Math.max(1, (int) Math.ceil(query.length * MIN_SHARED));
+        int[] histogram = new int[query.length + 1];
+        for (int count : counts) {
+            histogram[count]++;
+        }
+
+        int threshold = query.length;
+        int selected = histogram[threshold];
+        while (threshold > minShared && selected + histogram[threshold - 1] <= max) {
+            threshold--;
+            selected += histogram[threshold];
+        }
+        if (selected == 0 && threshold > minShared) {
+            // Ni siquiera el nivel más alto cabe entero: se toman los primeros max
+            while (threshold > minShared && histogram[threshold] == 0) {
+                threshold--;
+            }
+        }
+
+        int[] result = new int[Math.min(max, distinct)];
+        int selectedCount = 0;
+        for (int i = 0; i < distinct && selectedCount < result.length; i++) {
+            if (counts[i] >= threshold) {
+                result[selectedCount++] = ordinals[i];
+            }
+        }
+        return Arrays.copyOf(result, selectedCount);
+    }
+
+    /**
+     * Trigramas distintos de las palabras, ordenados
+     */
+    static int[] trigrams(List<String> words) {
+        int total = 0;
+        for (String word : words) {
+            total += word.length();
+        }
+
+        int[] trigrams = new int[total];
+        int count = 0;
+        for (String word : words) {
+            int length = word.length();
+            for (int i = -1; i < length - 1; i++) {
+                int first = i < 0 ? 0 : symbol(word.charAt(i));
+                int second = symbol(word.charAt(i + 1));
+                int third = i + 2 < length ? symbol(word.charAt(i + 2)) : 0;
+                trigrams[count++] = (first * ALPHABET + second) * ALPHABET + third;
+            }
+        }
+
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+}
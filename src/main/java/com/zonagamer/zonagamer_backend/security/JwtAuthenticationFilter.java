@@ -1,6 +1,5 @@
 package com.zonagamer.zonagamer_backend.security;
 
-import com.zonagamer.zonagamer_backend.model.User;
 import com.zonagamer.zonagamer_backend.repository.UserRepository;
 import com.zonagamer.zonagamer_backend.service.JwtService;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -52,23 +52,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            User user = userRepository.findById(userId)
-                .orElse(null);
+            // Desde la caché; solo lee Firestore si no está o expiró
+            UserPrincipal userPrincipal = principalCache.get(userId,
+                id -> userRepository.findById(id).orElse(null));
             
-            if (user == null) {
+            if (userPrincipal == null) {
                 log.warn("Usuario no encontrado: {}", userId);
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            if (!user.isActive()) {
-                log.warn("Usuario inacvtivo: {}", user.getEmail());
+            if (!userPrincipal.isActive()) {
+                log.warn("Usuario inacvtivo: {}", userPrincipal.getEmail());
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            UserPrincipal userPrincipal = UserPrincipal.create(user);
-
             UsernamePasswordAuthenticationToken authentication = 
                 new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
             
@@ -78,7 +77,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            log.debug("Usuario autenticado: {} (Admin: {})", user.getEmail(), user.isAdmin());
+            log.debug("Usuario autenticado: {} (Admin: {})", userPrincipal.getEmail(), userPrincipal.isAdmin());
 
         } catch (ExecutionException | InterruptedException e) {
             log.error("Errro al autenticar usuario: {}", e.getMessage());
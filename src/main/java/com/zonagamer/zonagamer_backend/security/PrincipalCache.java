@@ -0,0 +1,122 @@
+package com.zonagamer.zonagamer_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CaffeineManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
+import com.zonagamer.zonagamer_backend.model.User;
+import com.zonagamer.zonagamer_backend.service.CacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caché de UserPrincipal por user ID para JwtAuthenticationFilter, así una
+ * petición autenticada no lee el usuario de Firestore cada vez.
+ *
+ * - Guarda solo id, email, admin y active (sin el hash de la contraseña)
+ * - Acotada por tamaño y con TTL desde la escritura: el TTL acota cuánto
+ *   dura un valor viejo si se pierde un aviso de otra instancia
+ * - UserService la invalida al cambiar contraseña, rol o estado; en las
+ *   demás instancias la invalida el aviso de CacheInvalidationBus
+ *
+ * Métricas (Micrometer, nombre "principals"): cache.gets{result=hit|miss},
+ * cache.puts, cache.evictions, cache.size. Hit rate = hit / (hit + miss).
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    public static final String CACHE_NAME = "principals";
+
+    private final Cache<String, UserPrincipal> principals;
+
+    public PrincipalCache(
+        MeterRegistry meterRegistry,
+        CacheRegistry cacheRegistry,
+        CacheInvalidationBus invalidationBus,
+        @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+        @Value("${security.principal-cache.max-size:10000}") long maxSize
+    ) {
+        this.principals = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+        cacheRegistry.register(new CaffeineManagedCache<>(CACHE_NAME, principals, entry ->
+            MemoryEstimator.string(entry.getKey())
+                + MemoryEstimator.OBJECT + MemoryEstimator.string(entry.getValue().getEmail())));
+        invalidationBus.subscribe(EntityType.USER, this::invalidate);
+
+        log.info("Caché de usuarios autenticados: TTL {}s, máximo {} entradas", ttlSeconds, maxSize);
+    }
+
+    /**
+     * Carga del usuario cuando no está en caché
+     */
+    @FunctionalInterface
+    public interface UserLoader {
+        User load(String userId) throws ExecutionException, InterruptedException;
+    }
+
+    /**
+     * Devuelve el principal cacheado o lo carga con loader. Los usuarios
+     * inexistentes no se cachean. Una invalidación concurrente espera a que
+     * termine la carga, así no queda un valor viejo en la caché.
+     *
+     * @return El principal, o null si el usuario no existe
+     */
+    public UserPrincipal get(String userId, UserLoader loader) throws ExecutionException, InterruptedException {
+        try {
+            return principals.get(userId, id -> {
+                try {
+                    User user = loader.load(id);
+                    return user != null ? toPrincipal(user) : null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                } catch (ExecutionException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (e.getCause() instanceof ExecutionException execution) {
+                throw execution;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Llamar después de escribir el cambio del usuario (no antes: una
+     * petición concurrente volvería a cachear el estado anterior)
+     */
+    public void invalidate(String userId) {
+        principals.invalidate(userId);
+        log.debug("Principal invalidado: {}", userId);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    /**
+     * Solo los campos que usa la autorización; la contraseña no se guarda
+     */
+    private static UserPrincipal toPrincipal(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), null, user.isAdmin(), user.isActive());
+    }
+}
@@ -0,0 +1,388 @@
+package com.zonagamer.zonagamer_backend.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
+import com.zonagamer.zonagamer_backend.repository.CacheInvalidationRepository;
+import com.zonagamer.zonagamer_backend.repository.EntityChangeListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bus de invalidación de cachés entre instancias.
+ *
+ * Cada escritura de productos, usuarios, categorías o carritos publica un
+ * aviso (tipo, ID, versión, instancia de origen) en cache_invalidations, y
+ * todas las instancias lo reciben con un snapshot listener. Los handlers
+ * registrados con subscribe descartan o recargan lo que tengan cacheado.
+ *
+ * - Los avisos de la propia instancia se ignoran: quien escribe ya actualizó
+ *   su caché local
+ * - El primer evento del listener (avisos anteriores al arranque) se ignora:
+ *   una instancia recién iniciada no tiene nada cacheado
+ * - Si el listener se cae, al volver a registrarse su primer evento sí se
+ *   procesa: se reenvían los avisos publicados después del último recibido
+ *   (con REPLAY_MARGIN_SECONDS de margen por la diferencia de reloj; invalidar
+ *   dos veces no es un problema). Si la caída duró más que la retención,
+ *   algunos avisos pueden haberse borrado y solo quedan los TTL
+ * - Publicar nunca hace fallar la escritura: si falla, se registra y los TTL
+ *   de cada caché acotan cuánto dura el dato viejo en las demás instancias
+ * - Los avisos de más de retention-minutes se borran periódicamente
+ *
+ * Pasa por el DocumentStore, así que funciona igual contra Firestore, el
+ * emulador (FIRESTORE_EMULATOR_HOST) o el backend en memoria (perfil "memory").
+ *
+ * Métricas: cache.invalidation.published{entity}, cache.invalidation.received{entity}
+ * y el Timer cache.invalidation.lag{entity} (de publishedAt a la recepción;
+ * incluye la diferencia de reloj entre instancias).
+ */
+@Slf4j
+@Service
+public class CacheInvalidationBus {
+
+    private static final long RETRY_DELAY_SECONDS = 5;
+
+    /**
+     * Diferencia de reloj tolerada entre instancias al reenviar avisos
+     */
+    private static final long REPLAY_MARGIN_SECONDS = 60;
+
+    private final CacheInvalidationRepository invalidationRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration retention;
+
+    /**
+     * Identifica a esta instancia en los avisos que publica
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    private final Map<EntityType, List<Consumer<String>>> handlers = new EnumMap<>(EntityType.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean stopped;
+
+    /**
+     * publishedAt más nuevo recibido (el arranque hasta recibir alguno)
+     */
+    private volatile Timestamp lastReceivedAt;
+
+    /**
+     * Cuándo se cayó el listener (milisegundos del reloj local)
+     */
+    private volatile long downSince;
+
+    private ListenerRegistration registration;
+
+    public CacheInvalidationBus(
+        CacheInvalidationRepository invalidationRepository,
+        MeterRegistry meterRegistry,
+        @Value("${cache.invalidation.retention-minutes:10}") long retentionMinutes
+    ) {
+        this.invalidationRepository = invalidationRepository;
+        this.meterRegistry = meterRegistry;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        for (EntityType type : EntityType.values()) {
+            handlers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        lastReceivedAt = Timestamp.now();
+        subscribeToBus(true);
+        scheduler.scheduleWithFixedDelay(this::purgeExpired,
+            retention.toMinutes(), retention.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        stopped = true;
+        scheduler.shutdownNow();
+
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    /**
+     * Instancia de origen de los avisos que publica este nodo
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Cuánto se conservan los avisos (hasta dónde llega changedSince)
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Registra un handler para los avisos de otras instancias. Recibe el ID
+     * de la entidad y corre en el hilo del listener: no debe bloquear.
+     */
+    public void subscribe(EntityType type, Consumer<String> handler) {
+        handlers.get(type).add(handler);
+    }
+
+    /**
+     * Avisa a las demás instancias que la entidad cambió. Llamar después de
+     * escribir (no antes: otra instancia podría recargar el valor anterior).
+     */
+    public CompletableFuture<Void> publish(EntityType type, String entityId) {
+        CacheInvalidation invalidation = CacheInvalidation.builder()
+            .entityType(type)
+            .entityId(entityId)
+            .version(nextVersion())
+            .origin(origin)
+            .publishedAt(Timestamp.now())
+            .build();
+
+        return invalidationRepository.saveAsync(invalidation)
+            .handle((id, error) -> {
+                if (error != null) {
+                    log.warn("⚠️ No se pudo publicar la invalidación de {} {}: {}",
+                        type, entityId, error.getMessage());
+                } else {
+                    countPublished(type, 1);
+                }
+                return null;
+            });
+    }
+
+    /**
+     * Igual que publish, para varias entidades en una escritura masiva
+     */
+    public CompletableFuture<Void> publishAll(EntityType type, Collection<String> entityIds) {
+        if (entityIds.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CacheInvalidation> invalidations = new ArrayList<>(entityIds.size());
+        for (String entityId : entityIds) {
+            invalidations.add(CacheInvalidation.builder()
+                .entityType(type)
+                .entityId(entityId)
+                .version(nextVersion())
+                .origin(origin)
+                .publishedAt(Timestamp.now())
+                .build());
+        }
+
+        return invalidationRepository.saveAllAsync(invalidations)
+            .handle((result, error) -> {
+                if (error != null) {
+                    log.warn("⚠️ No se pudieron publicar {} invalidaciones de {}: {}",
+                        entityIds.size(), type, error.getMessage());
+                } else {
+                    countPublished(type, result.getSucceeded());
+                }
+                return null;
+            });
+    }
+
+    /**
+     * IDs de las entidades de un tipo con avisos publicados después de since
+     * (de cualquier instancia). Sirve para ponerse al día después de un
+     * arranque en caliente, mientras since esté dentro de la retención.
+     */
+    public CompletableFuture<Set<String>> changedSince(EntityType type, Timestamp since) {
+        return invalidationRepository.findPublishedAfterAsync(since)
+            .thenApply(invalidations -> invalidations.stream()
+                .filter(invalidation -> invalidation.getEntityType() == type)
+                .map(CacheInvalidation::getEntityId)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    /**
+     * Milisegundos del reloj, pero siempre mayor que la versión anterior
+     */
+    private long nextVersion() {
+        long now = System.currentTimeMillis();
+        return lastVersion.updateAndGet(last -> Math.max(last + 1, now));
+    }
+
+    /**
+     * @param initial true solo en el arranque: su primer evento se ignora
+     */
+    private void subscribeToBus(boolean initial) {
+        if (stopped) {
+            return;
+        }
+
+        ListenerRegistration created = invalidationRepository.listen(new EntityChangeListener<>() {
+            private boolean first = true;
+
+            @Override
+            public void onChanges(Map<String, CacheInvalidation> upserted, Set<String> removed) {
+                if (first) {
+                    first = false;
+                    if (initial) {
+                        // Avisos anteriores al registro: no hay nada cacheado que invalidar
+                        upserted.values().forEach(CacheInvalidationBus.this::markReceived);
+                        log.info("✅ Bus de invalidación de cachés escuchando (instancia {})", origin);
+                    } else {
+                        replayMissed(upserted.values());
+                    }
+                    return;
+                }
+
+                upserted.values().forEach(CacheInvalidationBus.this::receive);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                log.error("❌ Listener del bus de invalidación detenido, reintentando en {}s: {}",
+                    RETRY_DELAY_SECONDS, error.getMessage());
+                if (downSince == 0) {
+                    downSince = System.currentTimeMillis();
+                }
+                if (!stopped) {
+                    scheduler.schedule(() -> subscribeToBus(false), RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+                }
+            }
+        });
+
+        synchronized (this) {
+            if (stopped) {
+                created.remove();
+            } else {
+                registration = created;
+            }
+        }
+    }
+
+    /**
+     * Primer evento después de una caída: trae todos los avisos guardados,
+     * incluidos los que se publicaron mientras el listener no estaba
+     */
+    private void replayMissed(Collection<CacheInvalidation> invalidations) {
+        Timestamp since = Timestamp.ofTimeMicroseconds(
+            (lastReceivedAt.toDate().getTime() - REPLAY_MARGIN_SECONDS * 1000) * 1000);
+
+        int replayed = 0;
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.getPublishedAt() == null || invalidation.getPublishedAt().compareTo(since) > 0) {
+                receive(invalidation);
+                replayed++;
+            }
+        }
+
+        long downMillis = System.currentTimeMillis() - downSince;
+        downSince = 0;
+        if (downMillis > retention.toMillis()) {
+            log.warn("⚠️ El bus de invalidación estuvo caído {}s (más que la retención): pueden faltar avisos",
+                downMillis / 1000);
+        }
+        log.info("✅ Bus de invalidación de cachés escuchando de nuevo: {} avisos reenviados", replayed);
+    }
+
+    private void receive(CacheInvalidation invalidation) {
+        markReceived(invalidation);
+        dispatch(invalidation);
+    }
+
+    private void markReceived(CacheInvalidation invalidation) {
+        Timestamp publishedAt = invalidation.getPublishedAt();
+        if (publishedAt != null && publishedAt.compareTo(lastReceivedAt) > 0) {
+            lastReceivedAt = publishedAt;
+        }
+    }
+
+    private void dispatch(CacheInvalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin()) || invalidation.getEntityType() == null) {
+            return;
+        }
+
+        EntityType type = invalidation.getEntityType();
+        String tag = type.name().toLowerCase();
+
+        Counter.builder("cache.invalidation.received")
+            .description("Avisos de invalidación recibidos de otras instancias")
+            .tag("entity", tag)
+            .register(meterRegistry)
+            .increment();
+
+        if (invalidation.getPublishedAt() != null) {
+            long lagMillis = System.currentTimeMillis() - invalidation.getPublishedAt().toDate().getTime();
+            Timer.builder("cache.invalidation.lag")
+                .description("Tiempo desde la publicación del aviso hasta su recepción")
+                .tag("entity", tag)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(lagMillis, 0)));
+        }
+
+        log.debug("Invalidación recibida: {} {} (versión {}, origen {})",
+            type, invalidation.getEntityId(), invalidation.getVersion(), invalidation.getOrigin());
+
+        for (Consumer<String> handler : handlers.get(type)) {
+            try {
+                handler.accept(invalidation.getEntityId());
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Error al invalidar {} {}: {}", type, invalidation.getEntityId(), e.getMessage());
+            }
+        }
+    }
+
+    private void countPublished(EntityType type, long amount) {
+        Counter.builder("cache.invalidation.published")
+            .description("Avisos de invalidación publicados por esta instancia")
+            .tag("entity", type.name().toLowerCase())
+            .register(meterRegistry)
+            .increment(amount);
+    }
+
+    /**
+     * Borra los avisos más viejos que la retención (cualquier instancia puede
+     * hacerlo; borrar dos veces el mismo aviso no es un problema)
+     */
+    private void purgeExpired() {
+        Timestamp cutoff = Timestamp.ofTimeMicroseconds(
+            (System.currentTimeMillis() - retention.toMillis()) * 1000);
+
+        invalidationRepository.findIdsPublishedBeforeAsync(cutoff)
+            .thenCompose(invalidationRepository::deleteAllAsync)
+            .whenComplete((result, error) -> {
+                if (error != null) {
+                    log.warn("⚠️ No se pudieron borrar las invalidaciones antiguas: {}", error.getMessage());
+                } else if (result.getTotal() > 0) {
+                    log.debug("Invalidaciones antiguas borradas: {}", result.getSucceeded());
+                }
+            });
+    }
+}
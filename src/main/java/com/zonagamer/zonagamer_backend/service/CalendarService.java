@@ -6,6 +6,7 @@ import com.zonagamer.zonagamer_backend.dto.CalendarEventResponseDTO;
 import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
 import com.zonagamer.zonagamer_backend.model.CalendarEvent;
 import com.zonagamer.zonagamer_backend.repository.CalendarEventRepository;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -79,6 +80,15 @@ public class CalendarService {
             .collect(Collectors.toList());
     }
     
+    public CursorPage<CalendarEventResponseDTO> getEventsPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        
+        log.debug("Obteniendo página de eventos del calendario");
+        
+        return calendarEventRepository.findPage(CursorPage.pageSize(limit), "fechaDeInicio", cursor)
+            .map(this::mapToResponseDTO);
+    }
+    
     public List<CalendarEventResponseDTO> getPendingEvents() 
             throws ExecutionException, InterruptedException {
         
@@ -225,9 +235,12 @@ public class CalendarService {
         log.info("✅ Evento eliminado: {}", eventId);
     }
     
+    public long countEvents() throws ExecutionException, InterruptedException {
+        return calendarEventRepository.count();
+    }
+    
     public long countPendingEvents() throws ExecutionException, InterruptedException {
-        List<CalendarEvent> events = calendarEventRepository.findAll();
-        return events.stream().filter(event -> !event.isCompleted()).count();
+        return calendarEventRepository.countWhere("completed", "==", false);
     }
     
     public List<CalendarEventResponseDTO> getUpcomingEvents(int days) 
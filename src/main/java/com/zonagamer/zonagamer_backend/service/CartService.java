@@ -1,35 +1,94 @@
 package com.zonagamer.zonagamer_backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CaffeineManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
 import com.zonagamer.zonagamer_backend.dto.AddToCartDTO;
 import com.zonagamer.zonagamer_backend.dto.CartItemDTO;
 import com.zonagamer.zonagamer_backend.dto.CartResponseDTO;
 import com.zonagamer.zonagamer_backend.exception.InsufficientStockException;
 import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
 import com.zonagamer.zonagamer_backend.model.Cart;
 import com.zonagamer.zonagamer_backend.model.CartItem;
 import com.zonagamer.zonagamer_backend.model.Product;
 import com.zonagamer.zonagamer_backend.repository.CartRepository;
 import com.zonagamer.zonagamer_backend.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+/**
+ * Carrito de compras con caché write-through por usuario.
+ *
+ * Cada operación lee el carrito desde la caché (solo consulta Firestore si
+ * no está) y cada cambio se escribe en Firestore y, si la escritura termina
+ * bien, en la caché. Si la escritura falla la entrada se descarta y la
+ * próxima lectura vuelve a Firestore.
+ *
+ * La caché guarda copias: lo que se entrega se puede modificar sin tocar
+ * la entrada cacheada. Acotada por tamaño y por inactividad. Cada escritura
+ * avisa por CacheInvalidationBus, así las demás instancias descartan el
+ * carrito del usuario.
+ *
+ * Métricas: cache.gets{cache=carts,result=hit|miss} y el Timer cart.write
+ * (latencia de la escritura en Firestore por operación).
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CartService {
     
+    public static final String CACHE_NAME = "carts";
+    
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus invalidationBus;
+    
+    private final Cache<String, Cart> carts;
     
 
     private static final double TAX_RATE = 0.19;
+    
+    public CartService(
+        CartRepository cartRepository,
+        ProductRepository productRepository,
+        MeterRegistry meterRegistry,
+        CacheRegistry cacheRegistry,
+        CacheInvalidationBus invalidationBus,
+        @Value("${cart.cache.idle-minutes:30}") long idleMinutes,
+        @Value("${cart.cache.max-size:10000}") long maxSize
+    ) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+        this.carts = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, carts, CACHE_NAME);
+        cacheRegistry.register(new CaffeineManagedCache<>(CACHE_NAME, carts,
+            entry -> MemoryEstimator.string(entry.getKey()) + estimateBytes(entry.getValue())));
+        invalidationBus.subscribe(EntityType.CART, carts::invalidate);
+    }
 
     public CartResponseDTO getCart(String userId) 
             throws ExecutionException, InterruptedException {
@@ -37,7 +96,7 @@ public class CartService {
         log.debug("Obteniendo carrito de usuario: {}", userId);
         
 
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = findCart(userId)
             .orElseGet(() -> {
 
                 log.info("Creando nuevo carrito para usuario: {}", userId);
@@ -49,8 +108,7 @@ public class CartService {
                     .build();
                 
                 try {
-                    String cartId = cartRepository.save(newCart);
-                    newCart.setId(cartId);
+                    writeThrough("create", newCart, () -> newCart.setId(cartRepository.save(newCart)));
                 } catch (ExecutionException | InterruptedException e) {
                     log.error("❌ Error al crear carrito: {}", e.getMessage());
                     throw new RuntimeException("Error al crear carrito", e);
@@ -69,8 +127,12 @@ public class CartService {
         log.info("Agregando producto al carrito: userId={}, productId={}, quantity={}", 
             userId, dto.getProductId(), dto.getQuantity());
         
-        // 1. Buscar producto por document ID
-        Product product = productRepository.findById(dto.getProductId())
+        // 1. Lanzar en paralelo la lectura del producto y del carrito
+        var productFuture = productRepository.findByIdAsync(dto.getProductId());
+        var cartFuture = findCartAsync(userId);
+        
+        // Buscar producto por document ID
+        Product product = productFuture.get()
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Producto no encontrado: " + dto.getProductId()
             ));
@@ -94,7 +156,7 @@ public class CartService {
         Cart cart;
         boolean isNewCart = false;
         
-        var existingCart = cartRepository.findByUserId(userId);
+        var existingCart = cartFuture.get();
         
         if (existingCart.isPresent()) {
             cart = existingCart.get();
@@ -110,11 +172,11 @@ public class CartService {
                 .build();
             
             // Guardar y obtener el ID generado
-            String cartId = cartRepository.save(cart);
-            cart.setId(cartId);
+            Cart created = cart;
+            writeThrough("create", created, () -> created.setId(cartRepository.save(created)));
             isNewCart = true;
             
-            log.info("✅ Nuevo carrito creado con ID: {}", cartId);
+            log.info("✅ Nuevo carrito creado con ID: {}", cart.getId());
         }
         
         // Verificar que tenemos un ID válido
@@ -144,6 +206,10 @@ public class CartService {
             existingItem.setQuantity(newQuantity);
             log.debug("Item actualizado en carrito: nueva cantidad={}", newQuantity);
             
+            // Firestore no modifica elementos de un array: se reescribe solo "items"
+            Cart updated = cart;
+            writeThrough("replace", updated, () -> cartRepository.replaceItems(updated.getId(), updated.getItems()));
+            
         } else {
             // No existe: agregar nuevo item
             CartItem newItem = CartItem.builder()
@@ -156,15 +222,15 @@ public class CartService {
             
             cart.getItems().add(newItem);
             log.debug("Nuevo item agregado al carrito");
+            
+            // arrayUnion: solo viaja el item nuevo
+            Cart updated = cart;
+            writeThrough("add", updated, () -> cartRepository.addItem(updated.getId(), newItem));
         }
         
-        // 6. Actualizar timestamp
+        // 6. Actualizar timestamp (en Firestore lo pone el servidor)
         cart.setFechaActualizacion(new Date());
         
-        // 7. Guardar cambios
-        log.debug("Actualizando carrito con ID: {}", cart.getId());
-        cartRepository.update(cart.getId(), cart);
-        
         log.info("✅ Carrito actualizado: {} items", cart.getItems().size());
         
         return mapToResponseDTO(cart);
@@ -181,8 +247,11 @@ public class CartService {
             throw new IllegalArgumentException("La cantidad debe ser al menos 1");
         }
         
-        // Obtener carrito
-        Cart cart = cartRepository.findByUserId(userId)
+        // Obtener carrito y producto en paralelo
+        var cartFuture = findCartAsync(userId);
+        var productFuture = productRepository.findByIdAsync(productId);
+        
+        Cart cart = cartFuture.get()
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Carrito no encontrado para usuario: " + userId
             ));
@@ -196,7 +265,7 @@ public class CartService {
             ));
         
         // Verificar stock disponible
-        Product product = productRepository.findById(productId)
+        Product product = productFuture.get()
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Producto no encontrado: " + productId
             ));
@@ -211,8 +280,8 @@ public class CartService {
         item.setQuantity(newQuantity);
         cart.setFechaActualizacion(new Date());
         
-        // Guardar cambios
-        cartRepository.update(cart.getId(), cart);
+        // Guardar cambios (solo el campo "items")
+        writeThrough("replace", cart, () -> cartRepository.replaceItems(cart.getId(), cart.getItems()));
         
         log.info("✅ Cantidad actualizada en carrito");
         
@@ -226,7 +295,7 @@ public class CartService {
             userId, productId);
         
         // Obtener carrito
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = findCart(userId)
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Carrito no encontrado para usuario: " + userId
             ));
@@ -245,8 +314,8 @@ public class CartService {
         // Actualizar timestamp
         cart.setFechaActualizacion(new Date());
         
-        // Guardar cambios
-        cartRepository.update(cart.getId(), cart);
+        // Guardar cambios (solo el campo "items")
+        writeThrough("replace", cart, () -> cartRepository.replaceItems(cart.getId(), cart.getItems()));
         
         log.info("✅ Producto eliminado del carrito");
         
@@ -259,7 +328,7 @@ public class CartService {
         
         log.info("Vaciando carrito de usuario: {}", userId);
         
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = findCart(userId)
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Carrito no encontrado para usuario: " + userId
             ));
@@ -267,7 +336,7 @@ public class CartService {
         cart.getItems().clear();
         cart.setFechaActualizacion(new Date());
         
-        cartRepository.update(cart.getId(), cart);
+        writeThrough("replace", cart, () -> cartRepository.replaceItems(cart.getId(), cart.getItems()));
         
         log.info("✅ Carrito vaciado");
     }
@@ -277,8 +346,10 @@ public class CartService {
         
         log.debug("Validando stock del carrito");
         
+        Map<String, Product> products = findCartProducts(cart);
+        
         for (CartItem item : cart.getItems()) {
-            Product product = productRepository.findById(item.getProductId())
+            Product product = Optional.ofNullable(products.get(item.getProductId()))
                 .orElseThrow(() -> new ResourceNotFoundException(
                     "Producto no encontrado: " + item.getProductId()
                 ));
@@ -313,10 +384,11 @@ public class CartService {
         // Convertir items a DTOs y verificar disponibilidad
         List<CartItemDTO> itemDTOs = new ArrayList<>();
         
+        Map<String, Product> products = findCartProducts(cart);
+        
         for (CartItem item : cart.getItems()) {
             try {
-                Product product = productRepository.findById(item.getProductId())
-                    .orElse(null);
+                Product product = products.get(item.getProductId());
                 
                 boolean available = product != null && 
                                 product.isActive() && 
@@ -362,4 +434,105 @@ public class CartService {
             .totalItems(totalItems)
             .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Carrito del usuario desde la caché, o desde Firestore si no está
+     * (y en ese caso queda cacheado). Devuelve una copia modificable.
+     */
+    private CompletableFuture<Optional<Cart>> findCartAsync(String userId) {
+        Cart cached = carts.getIfPresent(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(copyOf(cached)));
+        }
+        
+        return cartRepository.findByUserIdAsync(userId)
+            .thenApply(cart -> {
+                cart.ifPresent(found -> carts.put(userId, copyOf(found)));
+                return cart;
+            });
+    }
+    
+    private Optional<Cart> findCart(String userId) throws ExecutionException, InterruptedException {
+        return findCartAsync(userId).get();
+    }
+    
+    @FunctionalInterface
+    private interface CartWrite {
+        void run() throws ExecutionException, InterruptedException;
+    }
+    
+    /**
+     * Ejecuta la escritura en Firestore y, si termina bien, deja el carrito
+     * en la caché y avisa a las demás instancias. Si falla, descarta la
+     * entrada del usuario.
+     */
+    private void writeThrough(String operation, Cart cart, CartWrite write) 
+            throws ExecutionException, InterruptedException {
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            write.run();
+            carts.put(cart.getUserId(), copyOf(cart));
+            invalidationBus.publish(EntityType.CART, cart.getUserId());
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            carts.invalidate(cart.getUserId());
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("cart.write")
+                .description("Latencia de las escrituras del carrito en Firestore")
+                .tag("operation", operation)
+                .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * Memoria aproximada de un carrito cacheado (para CacheRegistry)
+     */
+    private static long estimateBytes(Cart cart) {
+        long bytes = MemoryEstimator.OBJECT * 4 + MemoryEstimator.string(cart.getId());
+        for (CartItem item : cart.getItems()) {
+            bytes += MemoryEstimator.OBJECT * 3
+                + MemoryEstimator.string(item.getProductId())
+                + MemoryEstimator.string(item.getProductName())
+                + MemoryEstimator.string(item.getImageUrl());
+        }
+        return bytes;
+    }
+    
+    /**
+     * Copia del carrito y de sus items (la caché nunca comparte instancias)
+     */
+    private static Cart copyOf(Cart cart) {
+        List<CartItem> items = cart.getItems().stream()
+            .map(item -> CartItem.builder()
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .imageUrl(item.getImageUrl())
+                .quantity(item.getQuantity())
+                .precio(item.getPrecio())
+                .build())
+            .collect(Collectors.toCollection(ArrayList::new));
+        
+        return Cart.builder()
+            .id(cart.getId())
+            .userId(cart.getUserId())
+            .items(items)
+            .fechaCreacion(cart.getFechaCreacion())
+            .fechaActualizacion(cart.getFechaActualizacion())
+            .build();
+    }
+
+    /**
+     * Obtiene todos los productos del carrito en un solo round trip (getAll),
+     * sin importar cuántos items tenga.
+     */
+    private Map<String, Product> findCartProducts(Cart cart) 
+            throws ExecutionException, InterruptedException {
+        
+        List<String> productIds = cart.getItems().stream()
+            .map(CartItem::getProductId)
+            .collect(Collectors.toList());
+        
+        return productRepository.findAllByIds(productIds);
+    }
+}
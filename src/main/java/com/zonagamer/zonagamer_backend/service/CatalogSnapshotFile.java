@@ -0,0 +1,280 @@
+package com.zonagamer.zonagamer_backend.service;
+
+import com.google.cloud.Timestamp;
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copia binaria del catálogo (productos + categorías) en disco local, para
+ * arrancar en caliente: ProductCatalog y CategoryService la cargan al iniciar
+ * y después solo leen de Firestore lo que cambió desde entonces. La escribe
+ * CatalogSnapshotWriter cada cierto tiempo y al apagar.
+ *
+ * Formato (big endian): magic, versión del formato, writtenAt, updatedUntil,
+ * productos y categorías. Los textos van como largo + UTF-8 y los campos
+ * opcionales con un byte de presencia. Se escribe en un archivo temporal y
+ * se renombra, así nunca se lee un archivo a medio escribir. Se lee con un
+ * memory-mapped file, sin copiar el archivo al heap.
+ *
+ * Una copia más vieja que max-age (o que la retención del bus de
+ * invalidación, que es lo que permite detectar los borrados) se descarta.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x5A47_4353; // "ZGCS"
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Margen por la diferencia de reloj entre instancias al pedir los cambios
+     * posteriores a la copia
+     */
+    private static final long CLOCK_SKEW_MILLIS = 60_000;
+
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+
+    /** Se lee una sola vez; la comparten ProductCatalog y CategoryService */
+    private Optional<CatalogSnapshot> warmStart;
+
+    /**
+     * @param writtenAt Momento en que se tomó la copia (reloj de esta instancia)
+     * @param updatedUntil Mayor fechaActualizacion de los productos, en milisegundos
+     */
+    public record CatalogSnapshot(long writtenAt, long updatedUntil, List<Product> products, List<Category> categories) {
+
+        /**
+         * Desde cuándo pedir avisos de CacheInvalidationBus para ponerse al día
+         */
+        public Timestamp changesSince() {
+            return Timestamp.ofTimeMicroseconds((writtenAt - CLOCK_SKEW_MILLIS) * 1000);
+        }
+    }
+
+    public CatalogSnapshotFile(
+        CacheInvalidationBus invalidationBus,
+        @Value("${catalog.snapshot.enabled:true}") boolean enabled,
+        @Value("${catalog.snapshot.path:${java.io.tmpdir}/zonagamer-catalog.snapshot}") String path,
+        @Value("${catalog.snapshot.max-age-minutes:10}") long maxAgeMinutes
+    ) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+
+        Duration configured = Duration.ofMinutes(maxAgeMinutes);
+        this.maxAge = configured.compareTo(invalidationBus.getRetention()) < 0
+            ? configured
+            : invalidationBus.getRetention();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Antigüedad máxima con que una copia sirve para arrancar en caliente
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Copia para arrancar en caliente, o vacío si no hay, está vencida o no
+     * se puede leer (en ese caso se arranca en frío, leyendo todo)
+     */
+    public synchronized Optional<CatalogSnapshot> warmStart() {
+        if (warmStart == null) {
+            warmStart = enabled ? read() : Optional.empty();
+        }
+        return warmStart;
+    }
+
+    public void write(CatalogSnapshot snapshot) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(snapshot.writtenAt());
+                out.writeLong(snapshot.updatedUntil());
+
+                out.writeInt(snapshot.products().size());
+                for (Product product : snapshot.products()) {
+                    writeProduct(out, product);
+                }
+
+                out.writeInt(snapshot.categories().size());
+                for (Category category : snapshot.categories()) {
+                    writeString(out, category.getId());
+                    writeString(out, category.getNombreCategoria());
+                    writeString(out, category.getParentId());
+                    out.writeBoolean(category.isActive());
+                }
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        log.debug("Copia del catálogo escrita en {}: {} productos, {} categorías",
+            path, snapshot.products().size(), snapshot.categories().size());
+    }
+
+    private Optional<CatalogSnapshot> read() {
+        if (!Files.isRegularFile(path)) {
+            log.info("Sin copia del catálogo en {}: arranque en frío", path);
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("⚠️ Copia del catálogo con formato desconocido, se ignora: {}", path);
+                return Optional.empty();
+            }
+
+            long writtenAt = buffer.getLong();
+            long updatedUntil = buffer.getLong();
+
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - writtenAt);
+            if (age.compareTo(maxAge) > 0) {
+                log.info("Copia del catálogo vencida ({} min, máximo {}): arranque en frío",
+                    age.toMinutes(), maxAge.toMinutes());
+                return Optional.empty();
+            }
+
+            int productCount = buffer.getInt();
+            List<Product> products = new ArrayList<>(Math.min(productCount, buffer.remaining()));
+            for (int i = 0; i < productCount; i++) {
+                products.add(readProduct(buffer));
+            }
+
+            int categoryCount = buffer.getInt();
+            List<Category> categories = new ArrayList<>(Math.min(categoryCount, buffer.remaining()));
+            for (int i = 0; i < categoryCount; i++) {
+                categories.add(Category.builder()
+                    .id(readString(buffer))
+                    .nombreCategoria(readString(buffer))
+                    .parentId(readString(buffer))
+                    .active(buffer.get() != 0)
+                    .build());
+            }
+
+            log.info("✅ Copia del catálogo cargada en {} ms: {} productos, {} categorías ({}s de antigüedad)",
+                (System.nanoTime() - start) / 1_000_000, productCount, categoryCount, age.toSeconds());
+
+            return Optional.of(new CatalogSnapshot(writtenAt, updatedUntil, products, categories));
+        } catch (IOException | RuntimeException e) {
+            // Archivo truncado o corrupto: mejor arrancar en frío que servir datos malos
+            log.warn("⚠️ No se pudo leer la copia del catálogo {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+        writeString(out, product.getId());
+        writeString(out, product.getNombreProducto());
+        writeString(out, product.getDescripcionProducto());
+
+        out.writeBoolean(product.getPrecio() != null);
+        if (product.getPrecio() != null) {
+            out.writeDouble(product.getPrecio());
+        }
+        out.writeBoolean(product.getStock() != null);
+        if (product.getStock() != null) {
+            out.writeInt(product.getStock());
+        }
+
+        writeString(out, product.getImageUrl());
+        writeString(out, product.getCategoryId());
+        out.writeBoolean(product.isFeatured());
+        out.writeBoolean(product.isActive());
+        writeDate(out, product.getFechaCreacion());
+        writeDate(out, product.getFechaActualizacion());
+    }
+
+    private static Product readProduct(ByteBuffer buffer) {
+        return Product.builder()
+            .id(readString(buffer))
+            .nombreProducto(readString(buffer))
+            .descripcionProducto(readString(buffer))
+            .precio(buffer.get() != 0 ? buffer.getDouble() : null)
+            .stock(buffer.get() != 0 ? buffer.getInt() : null)
+            .imageUrl(readString(buffer))
+            .categoryId(readString(buffer))
+            .featured(buffer.get() != 0)
+            .active(buffer.get() != 0)
+            .fechaCreacion(readDate(buffer))
+            .fechaActualizacion(readDate(buffer))
+            .build();
+    }
+
+    /**
+     * Largo en bytes (-1 para null) + UTF-8
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("largo de texto inválido: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    private static Date readDate(ByteBuffer buffer) {
+        return buffer.get() != 0 ? new Date(buffer.getLong()) : null;
+    }
+}
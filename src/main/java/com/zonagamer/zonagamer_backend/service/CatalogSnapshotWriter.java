@@ -0,0 +1,116 @@
+package com.zonagamer.zonagamer_backend.service;
+
+import com.zonagamer.zonagamer_backend.service.CatalogSnapshotFile.CatalogSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe la copia local del catálogo (CatalogSnapshotFile) cada
+ * interval-seconds y al apagar. Cada interval-seconds solo escribe si el
+ * catálogo o el árbol de categorías cambiaron desde la última copia, o si
+ * la copia ya tiene la mitad de max-age (con el catálogo quieto se vencería
+ * y el próximo arranque sería en frío). Al apagar escribe siempre, así la
+ * copia queda con la hora del apagado.
+ *
+ * Reescribir una copia sin cambios con la hora actual es seguro: tiene el
+ * mismo contenido, y lo que cambie después se revisa desde esa hora.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotWriter {
+
+    private final CatalogSnapshotFile snapshotFile;
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final long intervalSeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Versiones (catálogo, árbol) de la última copia escrita */
+    private long writtenCatalogVersion = -1;
+    private long writtenTreeVersion = -1;
+
+    /** writtenAt de la última copia escrita (0 si aún no se escribe) */
+    private long writtenAt;
+
+    public CatalogSnapshotWriter(
+        CatalogSnapshotFile snapshotFile,
+        ProductCatalog productCatalog,
+        CategoryService categoryService,
+        @Value("${catalog.snapshot.interval-seconds:60}") long intervalSeconds
+    ) {
+        this.snapshotFile = snapshotFile;
+        this.productCatalog = productCatalog;
+        this.categoryService = categoryService;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @PostConstruct
+    void start() {
+        if (snapshotFile.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(() -> write(false), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Se ejecuta antes que los @PreDestroy del catálogo (depende de él),
+     * así la última copia queda con el estado al apagar
+     */
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+
+        if (snapshotFile.isEnabled()) {
+            write(true);
+        }
+    }
+
+    /**
+     * @param always true para escribir aunque no haya cambios ni esté por vencer
+     */
+    synchronized void write(boolean always) {
+        long treeVersion = categoryService.getTreeVersion();
+
+        if (!productCatalog.isReady() || treeVersion < 0) {
+            return;
+        }
+
+        long catalogVersion = productCatalog.getVersion();
+        // Se toma antes de leer los datos: los avisos posteriores se revisan al arrancar
+        long now = System.currentTimeMillis();
+
+        boolean unchanged = catalogVersion == writtenCatalogVersion && treeVersion == writtenTreeVersion;
+        boolean fresh = now - writtenAt < snapshotFile.getMaxAge().toMillis() / 2;
+        if (unchanged && fresh && !always) {
+            return;
+        }
+
+        try {
+            snapshotFile.write(new CatalogSnapshot(
+                now,
+                productCatalog.getUpdatedUntil(),
+                productCatalog.getProducts(),
+                categoryService.getTree().all()
+            ));
+
+            writtenCatalogVersion = catalogVersion;
+            writtenTreeVersion = treeVersion;
+            writtenAt = now;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo escribir la copia del catálogo: {}", e.getMessage());
+        }
+    }
+}
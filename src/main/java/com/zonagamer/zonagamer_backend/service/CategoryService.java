@@ -1,20 +1,41 @@
 package com.zonagamer.zonagamer_backend.service;
 
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
 import com.zonagamer.zonagamer_backend.dto.CategoryCreateDTO;
 import com.zonagamer.zonagamer_backend.dto.CategoryResponseDTO;
 import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
 import com.zonagamer.zonagamer_backend.model.Category;
 import com.zonagamer.zonagamer_backend.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para gestionar categorías
+ *
+ * Las lecturas se responden desde un CategoryTree en memoria que se carga
+ * al iniciar y se reemplaza completo (copy-on-write) después de cada
+ * creación, actualización o eliminación hecha por este servicio. Los
+ * cambios hechos en otras instancias llegan por CacheInvalidationBus y se
+ * aplican releyendo la categoría.
+ *
+ * Si hay una copia local reciente (CatalogSnapshotFile) el árbol se arma con
+ * ella al iniciar, y solo se releen las categorías con avisos posteriores.
+ *
+ * El árbol se registra en CacheRegistry como "categories".
  */
 @Slf4j
 @Service
@@ -22,6 +43,84 @@ import java.util.stream.Collectors;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final CatalogSnapshotFile snapshotFile;
+    private final CacheRegistry cacheRegistry;
+    
+    private final CacheCounters counters = new CacheCounters();
+    
+    /** null hasta la primera carga */
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+    
+    /** Sube en 1 cada vez que se publica un árbol nuevo */
+    private final AtomicLong treeVersion = new AtomicLong();
+    
+    @PostConstruct
+    void loadTree() {
+        cacheRegistry.register(new TreeCache());
+        invalidationBus.subscribe(EntityType.CATEGORY, this::refreshFromRepository);
+        
+        var copy = snapshotFile.warmStart();
+        if (copy.isPresent()) {
+            tree.set(CategoryTree.of(copy.get().categories()));
+            treeVersion.incrementAndGet();
+            log.info("Árbol de categorías desde la copia local: {} categorías", tree.get().size());
+            
+            // Cambios hechos mientras la instancia estaba detenida
+            invalidationBus.changedSince(EntityType.CATEGORY, copy.get().changesSince())
+                .thenAccept(ids -> ids.forEach(this::refreshFromRepository))
+                .exceptionally(error -> {
+                    log.warn("⚠️ No se pudieron revisar los cambios posteriores a la copia: {}", error.getMessage());
+                    return null;
+                });
+            return;
+        }
+        
+        try {
+            reloadTree();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Se vuelve a intentar en la primera lectura
+            log.warn("⚠️ No se pudo cargar el árbol de categorías al iniciar: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Árbol de categorías actual (lo carga si todavía no está en memoria)
+     */
+    public CategoryTree getTree() throws ExecutionException, InterruptedException {
+        CategoryTree current = tree.get();
+        if (current != null) {
+            counters.recordHit();
+            return current;
+        }
+        
+        counters.recordMiss();
+        return reloadTree();
+    }
+    
+    /**
+     * Versión del árbol publicado, o -1 si todavía no se carga
+     */
+    public long getTreeVersion() {
+        return tree.get() != null ? treeVersion.get() : -1;
+    }
+    
+    /**
+     * Vuelve a leer todas las categorías y reemplaza el árbol
+     */
+    public CategoryTree reloadTree() throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        CategoryTree loaded = CategoryTree.of(categoryRepository.findAll());
+        tree.set(loaded);
+        treeVersion.incrementAndGet();
+        counters.recordLoad(System.nanoTime() - start);
+        
+        log.info("Árbol de categorías cargado: {} categorías", loaded.size());
+        
+        return loaded;
+    }
     
     /**
      * Obtiene todas las categorías
@@ -29,9 +128,7 @@ public class CategoryService {
     public List<CategoryResponseDTO> getAllCategories() 
             throws ExecutionException, InterruptedException {
         
-        List<Category> categories = categoryRepository.findAll();
-        
-        return categories.stream()
+        return getTree().all().stream()
             .filter(Category::isActive)
             .map(this::mapToResponseDTO)
             .collect(Collectors.toList());
@@ -43,9 +140,7 @@ public class CategoryService {
     public List<CategoryResponseDTO> getRootCategories() 
             throws ExecutionException, InterruptedException {
         
-        List<Category> categories = categoryRepository.findRootCategories();
-        
-        return categories.stream()
+        return getTree().roots().stream()
             .map(this::mapToResponseDTO)
             .collect(Collectors.toList());
     }
@@ -56,10 +151,17 @@ public class CategoryService {
     public CategoryResponseDTO getCategoryById(String id) 
             throws ExecutionException, InterruptedException {
         
+        Optional<CategoryTree.Node> node = getTree().get(id);
+        if (node.isPresent()) {
+            return mapToResponseDTO(node.get().category());
+        }
+        
+        // Pudo crearse en otra instancia
         Category category = categoryRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Categoría no encontrada: " + id
             ));
+        replaceInTree(category);
         
         return mapToResponseDTO(category);
     }
@@ -70,9 +172,8 @@ public class CategoryService {
     public List<CategoryResponseDTO> getCategoryChildren(String parentId) 
             throws ExecutionException, InterruptedException {
         
-        List<Category> children = categoryRepository.findByParentId(parentId);
-        
-        return children.stream()
+        return getTree().children(parentId).stream()
+            .filter(Category::isActive)
             .map(this::mapToResponseDTO)
             .collect(Collectors.toList());
     }
@@ -85,16 +186,22 @@ public class CategoryService {
         
         log.info("Creando categoría: {}", dto.getNombreCategoria());
         
+        // Lanzar ambas verificaciones en paralelo
+        var existingFuture = categoryRepository.findByIdAsync(dto.getId());
+        var parentFuture = dto.getParentId() != null
+            ? categoryRepository.findByIdAsync(dto.getParentId())
+            : null;
+        
         // Verificar que no exista el ID
-        if (categoryRepository.findById(dto.getId()).isPresent()) {
+        if (existingFuture.get().isPresent()) {
             throw new IllegalArgumentException(
                 "Ya existe una categoría con ID: " + dto.getId()
             );
         }
         
         // Verificar que la categoría padre exista (si se especifica)
-        if (dto.getParentId() != null) {
-            categoryRepository.findById(dto.getParentId())
+        if (parentFuture != null) {
+            parentFuture.get()
                 .orElseThrow(() -> new ResourceNotFoundException(
                     "Categoría padre no encontrada: " + dto.getParentId()
                 ));
@@ -108,6 +215,8 @@ public class CategoryService {
             .build();
         
         categoryRepository.save(category);
+        replaceInTree(category);
+        invalidationBus.publish(EntityType.CATEGORY, category.getId());
         
         log.info("✅ Categoría creada: {}", dto.getId());
         
@@ -121,7 +230,13 @@ public class CategoryService {
     public void ensureCategoryExists(String categoryId) 
             throws ExecutionException, InterruptedException {
         
-        // Verificar si la categoría ya existe
+        // Verificar si la categoría ya existe (en memoria, sin leer Firestore)
+        if (getTree().contains(categoryId)) {
+            log.debug("Categoría '{}' ya existe", categoryId);
+            return;
+        }
+        
+        // Pudo crearse en otra instancia
         var existingCategory = categoryRepository.findById(categoryId);
         
         if (existingCategory.isEmpty()) {
@@ -138,9 +253,12 @@ public class CategoryService {
                 .build();
             
             categoryRepository.save(category);
+            replaceInTree(category);
+            invalidationBus.publish(EntityType.CATEGORY, category.getId());
             
             log.info("✅ Categoría '{}' creada automáticamente", categoryId);
         } else {
+            replaceInTree(existingCategory.get());
             log.debug("Categoría '{}' ya existe", categoryId);
         }
     }
@@ -191,6 +309,8 @@ public class CategoryService {
         category.setParentId(dto.getParentId());
         
         categoryRepository.update(id, category);
+        replaceInTree(category);
+        invalidationBus.publish(EntityType.CATEGORY, category.getId());
         
         log.info("✅ Categoría actualizada: {}", id);
         
@@ -220,10 +340,42 @@ public class CategoryService {
         
         category.setActive(false);
         categoryRepository.update(id, category);
+        replaceInTree(category);
+        invalidationBus.publish(EntityType.CATEGORY, category.getId());
         
         log.info("✅ Categoría marcada como inactiva: {}", id);
     }
     
+    /**
+     * Publica un árbol nuevo con la categoría agregada o reemplazada.
+     * Si el árbol aún no se cargó no hace nada: la carga ya la incluirá.
+     */
+    private void replaceInTree(Category category) {
+        if (tree.updateAndGet(current -> current != null ? current.with(category) : null) != null) {
+            treeVersion.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Aviso de otra instancia: relee la categoría (sin bloquear el hilo del
+     * listener) y la reemplaza en el árbol, o la quita si ya no existe
+     */
+    private void refreshFromRepository(String categoryId) {
+        categoryRepository.findByIdAsync(categoryId)
+            .thenAccept(category -> {
+                if (category.isPresent()) {
+                    replaceInTree(category.get());
+                } else if (tree.updateAndGet(current -> current != null ? current.without(categoryId) : null) != null) {
+                    treeVersion.incrementAndGet();
+                }
+                log.debug("Categoría '{}' actualizada por aviso de otra instancia", categoryId);
+            })
+            .exceptionally(error -> {
+                log.warn("⚠️ No se pudo releer la categoría '{}': {}", categoryId, error.getMessage());
+                return null;
+            });
+    }
+    
     /**
      * Convierte Category a CategoryResponseDTO
      */
@@ -235,4 +387,59 @@ public class CategoryService {
             .active(category.isActive())
             .build();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Vista del árbol para CacheRegistry. flush lo descarta: la próxima
+     * lectura lo vuelve a cargar desde Firestore.
+     */
+    private class TreeCache implements ManagedCache {
+        
+        @Override
+        public String getName() {
+            return "categories";
+        }
+        
+        @Override
+        public long size() {
+            CategoryTree current = tree.get();
+            return current != null ? current.size() : 0;
+        }
+        
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+        
+        @Override
+        public long estimatedBytes() {
+            CategoryTree current = tree.get();
+            if (current == null) {
+                return 0;
+            }
+            
+            // Categoría + nodo con su ruta (un ID por nivel) + entradas en los mapas del árbol
+            return MemoryEstimator.sampled(current.all(), category -> MemoryEstimator.OBJECT * 3
+                + MemoryEstimator.MAP_ENTRY * 2
+                + MemoryEstimator.string(category.getId())
+                + MemoryEstimator.string(category.getNombreCategoria())
+                + MemoryEstimator.string(category.getParentId())
+                + current.get(category.getId()).map(node -> node.path().size() * MemoryEstimator.REFERENCE).orElse(0L));
+        }
+        
+        @Override
+        public void flush() {
+            tree.set(null);
+            log.info("Árbol de categorías descartado");
+        }
+        
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+        
+        @Override
+        public void warm() throws ExecutionException, InterruptedException {
+            reloadTree();
+        }
+    }
+}
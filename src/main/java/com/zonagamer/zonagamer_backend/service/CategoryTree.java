@@ -0,0 +1,242 @@
+package com.zonagamer.zonagamer_backend.service;
+
+import com.zonagamer.zonagamer_backend.model.Category;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Árbol de categorías inmutable. Se construye una vez con todas las
+ * categorías y cada cambio produce un árbol nuevo (with / without), así
+ * CategoryService lo puede reemplazar de forma atómica y las lecturas
+ * nunca ven un árbol a medio actualizar.
+ *
+ * Todas las búsquedas son O(1): ID -> nodo, padre -> hijos, raíces.
+ *
+ * Cada nodo tiene además su intervalo en un recorrido en preorden (las
+ * raíces y los hijos en orden de ID): las categorías de su subárbol son
+ * justo las de posición entre position y lastDescendant, así que lo que
+ * se ordene por posición de categoría tiene cada subárbol en un rango
+ * contiguo.
+ *
+ * Las Category del árbol son compartidas: solo se leen, nunca se modifican.
+ */
+public final class CategoryTree {
+
+    /**
+     * @param depth 0 para las raíces
+     * @param path IDs de los ancestros, desde la raíz hasta el padre
+     * @param position Posición en preorden
+     * @param lastDescendant Posición en preorden del último nodo de su subárbol
+     *                       (la propia si no tiene hijos)
+     */
+    public record Node(Category category, int depth, List<String> path, int position, int lastDescendant) {
+    }
+
+    private static final CategoryTree EMPTY = of(List.of());
+
+    /**
+     * Por ID, en orden de document ID (el mismo de findAll)
+     */
+    private final Map<String, Node> nodes;
+
+    private final List<Category> all;
+
+    private final List<Category> roots;
+
+    /**
+     * Todas las categorías en preorden (el índice es Node.position)
+     */
+    private final List<Category> preorder;
+
+    /**
+     * parentId -> hijos (activos e inactivos), en orden de ID
+     */
+    private final Map<String, List<Category>> children;
+
+    private CategoryTree(Map<String, Node> nodes, List<Category> all, List<Category> roots,
+            List<Category> preorder, Map<String, List<Category>> children) {
+        this.nodes = nodes;
+        this.all = all;
+        this.roots = roots;
+        this.preorder = preorder;
+        this.children = children;
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    public static CategoryTree of(Collection<Category> categories) {
+        TreeMap<String, Category> byId = new TreeMap<>();
+        for (Category category : categories) {
+            byId.put(category.getId(), category);
+        }
+
+        List<Category> roots = new ArrayList<>();
+        Map<String, List<Category>> children = new HashMap<>();
+
+        for (Category category : byId.values()) {
+            if (category.isRoot()) {
+                roots.add(category);
+            } else {
+                children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+
+        // Primero desde las raíces; después los que quedan sueltos (padre inexistente o ciclo)
+        List<Category> preorder = new ArrayList<>(byId.size());
+        Map<String, Integer> lastDescendants = new HashMap<>();
+        for (Category root : roots) {
+            visit(root, children, preorder, lastDescendants);
+        }
+        for (Category category : byId.values()) {
+            if (!lastDescendants.containsKey(category.getId())) {
+                visit(category, children, preorder, lastDescendants);
+            }
+        }
+
+        Map<String, Node> nodes = new TreeMap<>();
+        for (int position = 0; position < preorder.size(); position++) {
+            Category category = preorder.get(position);
+            List<String> path = ancestors(category, byId);
+            nodes.put(category.getId(),
+                new Node(category, path.size(), path, position, lastDescendants.get(category.getId())));
+        }
+
+        Map<String, List<Category>> frozenChildren = new HashMap<>();
+        children.forEach((parentId, list) -> frozenChildren.put(parentId, List.copyOf(list)));
+
+        return new CategoryTree(
+            Collections.unmodifiableMap(nodes),
+            List.copyOf(byId.values()),
+            List.copyOf(roots),
+            List.copyOf(preorder),
+            Collections.unmodifiableMap(frozenChildren)
+        );
+    }
+
+    /**
+     * Árbol nuevo con la categoría agregada o reemplazada
+     */
+    public CategoryTree with(Category category) {
+        Map<String, Category> next = new HashMap<>(nodes.size() + 1);
+        nodes.forEach((id, node) -> next.put(id, node.category()));
+        next.put(category.getId(), category);
+
+        return of(next.values());
+    }
+
+    /**
+     * Árbol nuevo sin la categoría (sus hijos quedan huérfanos, sin ancestros)
+     */
+    public CategoryTree without(String categoryId) {
+        if (!nodes.containsKey(categoryId)) {
+            return this;
+        }
+
+        List<Category> next = new ArrayList<>(nodes.size());
+        nodes.forEach((id, node) -> {
+            if (!id.equals(categoryId)) {
+                next.add(node.category());
+            }
+        });
+
+        return of(next);
+    }
+
+    public Optional<Node> get(String categoryId) {
+        return Optional.ofNullable(nodes.get(categoryId));
+    }
+
+    public boolean contains(String categoryId) {
+        return nodes.containsKey(categoryId);
+    }
+
+    /**
+     * Todas las categorías (activas e inactivas), en orden de ID
+     */
+    public List<Category> all() {
+        return all;
+    }
+
+    /**
+     * Categorías sin padre (activas e inactivas)
+     */
+    public List<Category> roots() {
+        return roots;
+    }
+
+    /**
+     * Hijos directos (activos e inactivos)
+     */
+    public List<Category> children(String parentId) {
+        return children.getOrDefault(parentId, List.of());
+    }
+
+    /**
+     * La categoría y todas sus descendientes (activas e inactivas), en
+     * preorden; vacío si no existe
+     */
+    public List<Category> subtree(String categoryId) {
+        Node node = nodes.get(categoryId);
+        if (node == null) {
+            return List.of();
+        }
+        return preorder.subList(node.position(), node.lastDescendant() + 1);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Agrega la categoría y su subárbol a preorder y anota la posición del
+     * último descendiente de cada uno. Un hijo ya visitado (ciclo) se salta.
+     */
+    private static void visit(Category category, Map<String, List<Category>> children, List<Category> preorder,
+            Map<String, Integer> lastDescendants) {
+        // Se marca antes de bajar para cortar los ciclos
+        lastDescendants.put(category.getId(), preorder.size());
+        preorder.add(category);
+
+        for (Category child : children.getOrDefault(category.getId(), List.of())) {
+            if (!lastDescendants.containsKey(child.getId())) {
+                visit(child, children, preorder, lastDescendants);
+            }
+        }
+
+        lastDescendants.put(category.getId(), preorder.size() - 1);
+    }
+
+    /**
+     * Ancestros desde la raíz hasta el padre. Se corta si un padre no existe
+     * o si hay un ciclo (parentId mal configurado), en lugar de fallar.
+     */
+    private static List<String> ancestors(Category category, Map<String, Category> byId) {
+        List<String> path = new ArrayList<>();
+        Set<String> visited = new LinkedHashSet<>();
+        visited.add(category.getId());
+
+        Category current = category;
+        while (!current.isRoot()) {
+            Category parent = byId.get(current.getParentId());
+            if (parent == null || !visited.add(parent.getId())) {
+                break;
+            }
+            path.add(parent.getId());
+            current = parent;
+        }
+
+        Collections.reverse(path);
+        return List.copyOf(path);
+    }
+}
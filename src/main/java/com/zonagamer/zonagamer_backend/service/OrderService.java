@@ -1,5 +1,6 @@
 package com.zonagamer.zonagamer_backend.service;
 
+import com.google.cloud.firestore.Query;
 import com.zonagamer.zonagamer_backend.dto.CheckoutDTO;
 import com.zonagamer.zonagamer_backend.dto.OrderItemDTO;
 import com.zonagamer.zonagamer_backend.dto.OrderResponseDTO;
@@ -7,6 +8,7 @@ import com.zonagamer.zonagamer_backend.exception.InsufficientStockException;
 import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
 import com.zonagamer.zonagamer_backend.model.*;
 import com.zonagamer.zonagamer_backend.repository.CartRepository;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,8 +18,10 @@ import java.util.Date;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Slf4j
@@ -35,19 +39,14 @@ public class OrderService {
         
         log.info("Procesando checkout para usuario: {}", userId);
         
-        // Obtener cart para validación
-        var cartResponse = cartService.getCart(userId);
+        // Obtener Cart real desde el repositorio (una sola lectura, sin mapear a DTO)
+        Cart cart = cartRepository.findByUserId(userId)
+            .orElse(null);
         
-        if (cartResponse.getItems().isEmpty()) {
+        if (cart == null || cart.getItems().isEmpty()) {
             throw new IllegalStateException("El carrito está vacío");
         }
         
-        // Obtener Cart real desde el repositorio
-        Cart cart = cartRepository.findByUserId(userId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "Carrito no encontrado para usuario: " + userId
-            ));
-        
         // Validar stock
         cartService.validateCartStock(cart);
         
@@ -66,11 +65,7 @@ public class OrderService {
         // ✅ Reducir stock ANTES de crear la orden (validación ya hecha arriba)
         log.info("Reduciendo stock de productos...");
         try {
-            for (OrderItem item : orderItems) {
-                productService.reduceStock(item.getProductId(), item.getQuantity());
-                log.debug("Stock reducido para: {} (-{})", 
-                    item.getProductName(), item.getQuantity());
-            }
+            productService.reduceStock(toQuantities(orderItems));
             log.info("✅ Stock reducido exitosamente para {} productos", orderItems.size());
         } catch (InsufficientStockException e) {
             log.error("❌ Stock insuficiente durante checkout: {}", e.getMessage());
@@ -130,16 +125,28 @@ public class OrderService {
         return mapToResponseDTO(order);
     }
 
-    public List<OrderResponseDTO> getAllOrders() 
-            throws ExecutionException, InterruptedException {
+    /**
+     * Todas las órdenes, leídas por páginas a medida que se consume el Stream
+     * (ver BaseRepository.streamAll). Quien lo recorre debe cerrarlo y no
+     * juntar los DTO en una lista: OrderController los escribe al JSON de a uno.
+     */
+    public Stream<OrderResponseDTO> streamAllOrders() {
         
         log.debug("Obteniendo todas las órdenes");
         
-        List<Order> orders = orderRepository.findAll();
+        return orderRepository.streamAll()
+            .map(this::mapToResponseDTO);
+    }
+    
+    public CursorPage<OrderResponseDTO> getOrdersPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        
+        log.debug("Obteniendo página de órdenes");
         
-        return orders.stream()
-            .map(this::mapToResponseDTO)
-            .collect(Collectors.toList());
+        // Más recientes primero
+        return orderRepository.findPage(
+                CursorPage.pageSize(limit), "fechaDeCreacion", Query.Direction.DESCENDING, cursor)
+            .map(this::mapToResponseDTO);
     }
     
     public List<OrderResponseDTO> getOrdersByStatus(Order.OrderStatus status) 
@@ -177,11 +184,7 @@ public class OrderService {
             log.info("Orden antigua en PENDING siendo aprobada. Reduciendo stock...");
             
             try {
-                for (OrderItem item : order.getItems()) {
-                    productService.reduceStock(item.getProductId(), item.getQuantity());
-                    log.debug("Stock reducido para: {} (-{})", 
-                        item.getProductName(), item.getQuantity());
-                }
+                productService.reduceStock(toQuantities(order.getItems()));
             } catch (InsufficientStockException e) {
                 log.error("❌ Stock insuficiente al aprobar orden: {}", e.getMessage());
                 throw new IllegalStateException(
@@ -195,7 +198,7 @@ public class OrderService {
             log.info("✅ Stock reducido exitosamente");
         }
         
-        orderRepository.update(orderId, order);
+        orderRepository.patch(orderId, Map.of("status", newStatus.name()));
         
         log.info("✅ Estado de orden actualizado: {} -> {}", oldStatus, newStatus);
         
@@ -236,23 +239,33 @@ public class OrderService {
             
             log.info("Restaurando stock de orden procesada...");
             
-            for (OrderItem item : order.getItems()) {
-                productService.increaseStock(item.getProductId(), item.getQuantity());
-                log.debug("Stock restaurado para: {} (+{})", 
-                    item.getProductName(), item.getQuantity());
-            }
+            productService.increaseStock(toQuantities(order.getItems()));
+            log.debug("Stock restaurado para {} productos", order.getItems().size());
         } else {
             log.info("Orden en estado {} - No se restaura stock (nunca fue reducido)", currentStatus);
         }
         
         // Marcar orden como cancelada
         order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.update(orderId, order);
+        orderRepository.patch(orderId, Map.of("status", Order.OrderStatus.CANCELLED.name()));
         
         log.info("✅ Orden cancelada: {} (Estado anterior: {})", orderId, currentStatus);
     }
     
 
+    /**
+     * Agrupa los items por producto (productId -> cantidad total) para
+     * actualizar el stock con una sola lectura.
+     */
+    private Map<String, Integer> toQuantities(List<OrderItem> items) {
+        return items.stream()
+            .collect(Collectors.toMap(
+                OrderItem::getProductId,
+                OrderItem::getQuantity,
+                Integer::sum
+            ));
+    }
+
     private String generateOrderNumber(String orderId) {
         String year = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy"));
         
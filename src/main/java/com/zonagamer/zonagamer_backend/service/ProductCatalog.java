@@ -0,0 +1,635 @@
+package com.zonagamer.zonagamer_backend.service;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import com.zonagamer.zonagamer_backend.cache.CacheCounters;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CacheStatistics;
+import com.zonagamer.zonagamer_backend.cache.ManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
+import com.zonagamer.zonagamer_backend.repository.EntityChangeListener;
+import com.zonagamer.zonagamer_backend.repository.PageCursor;
+import com.zonagamer.zonagamer_backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo de productos en memoria, mantenido al día con un snapshot
+ * listener sobre "products".
+ *
+ * - Al iniciar se descarga la colección una vez (primer evento del listener)
+ * - Después solo llegan los documentos que cambian, y cada lote publica un
+ *   snapshot nuevo e inmutable con version + 1
+ * - Si el lote solo modifica productos existentes sin cambiarles el nombre
+ *   (lo común: el stock de cada venta), las posiciones en las listas no
+ *   cambian: el snapshot nuevo comparte los índices por ID del anterior y
+ *   solo copia las dos listas reemplazando esos productos (sin ordenar ni
+ *   rearmar mapas)
+ * - Las lecturas no tocan Firestore: trabajan sobre el snapshot publicado
+ *
+ * Arranque en caliente: si hay una copia local reciente (CatalogSnapshotFile)
+ * el catálogo queda listo con ella apenas inicia, y el listener solo pide los
+ * productos con fechaActualizacion posterior a la copia. Los borrados de
+ * productos que no cambiaron desde la copia se detectan con los avisos de
+ * CacheInvalidationBus (releyendo esos IDs).
+ *
+ * Mientras no llega el primer evento (o si el listener se cae) isReady()
+ * es false y ProductService lee directo del repositorio. Si el listener se
+ * cae se vuelve a registrar cada RETRY_DELAY_SECONDS, pidiendo solo lo que
+ * cambió desde el último producto recibido.
+ *
+ * Las entidades del snapshot son compartidas: solo se leen, nunca se modifican.
+ *
+ * Se registra en CacheRegistry como "catalog": flush lo vacía y vuelve a
+ * descargar la colección (mientras tanto ProductService lee del repositorio);
+ * warm vuelve a descargarla sin dejar de servir el snapshot actual.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCatalog {
+
+    private static final long RETRY_DELAY_SECONDS = 5;
+
+    /**
+     * fechaActualizacion la pone el reloj de la instancia que escribe: el
+     * listener incremental pide desde un poco antes para no perder cambios
+     */
+    private static final long CLOCK_SKEW_MILLIS = 60_000;
+
+    /**
+     * Mismo orden que findPage(..., "nombreProducto", ...): nombre y luego document ID
+     */
+    private static final Comparator<Product> BY_NAME = Comparator
+        .comparing(Product::getNombreProducto)
+        .thenComparing(Product::getId);
+
+    private final ProductRepository productRepository;
+    private final CatalogSnapshotFile snapshotFile;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheRegistry cacheRegistry;
+
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-catalog-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Snapshot snapshot = Snapshot.empty(0);
+
+    private volatile boolean ready;
+
+    private volatile boolean stopped;
+
+    private ListenerRegistration registration;
+
+    private final List<EntityChangeListener<Product>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Estado publicado del catálogo. Nunca se modifica: cada cambio publica otro.
+     *
+     * @param updatedUntil Mayor fechaActualizacion de los productos (ms), o 0
+     * @param positions ID -> posición en all (se comparte entre snapshots con los mismos IDs)
+     * @param all Productos en orden de document ID (igual que findAll)
+     * @param byName Productos con nombre, ordenados por nombre e ID (para paginar)
+     * @param namePositions ID -> posición en byName (se comparte igual que positions)
+     */
+    private record Snapshot(long version, long updatedUntil, Map<String, Integer> positions, List<Product> all,
+            List<Product> byName, Map<String, Integer> namePositions) {
+
+        static Snapshot empty(long version) {
+            return new Snapshot(version, 0, Map.of(), List.of(), List.of(), Map.of());
+        }
+
+        /**
+         * Productos por ID, en orden de document ID
+         */
+        Map<String, Product> byId() {
+            return new ProductsById(positions, all);
+        }
+    }
+
+    /**
+     * Vista de solo lectura ID -> producto sobre positions y all, sin copiar nada
+     */
+    private static final class ProductsById extends AbstractMap<String, Product> {
+
+        private final Map<String, Integer> positions;
+        private final List<Product> all;
+
+        ProductsById(Map<String, Integer> positions, List<Product> all) {
+            this.positions = positions;
+            this.all = all;
+        }
+
+        @Override
+        public Product get(Object id) {
+            Integer position = positions.get(id);
+            return position != null ? all.get(position) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object id) {
+            return positions.containsKey(id);
+        }
+
+        @Override
+        public int size() {
+            return all.size();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return positions.keySet();
+        }
+
+        @Override
+        public Collection<Product> values() {
+            return all;
+        }
+
+        @Override
+        public Set<Entry<String, Product>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Product>> iterator() {
+                    Iterator<Product> products = all.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return products.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Product> next() {
+                            Product product = products.next();
+                            return new SimpleImmutableEntry<>(product.getId(), product);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return all.size();
+                }
+            };
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        cacheRegistry.register(new CatalogCache());
+        snapshotFile.warmStart().ifPresent(this::warmStart);
+        invalidationBus.subscribe(EntityType.PRODUCT, productId -> removeDeleted(List.of(productId)));
+        subscribe(false);
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        stopped = true;
+        retries.shutdownNow();
+
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    /**
+     * true cuando el catálogo refleja la colección (ya llegó el primer evento
+     * del listener y no se ha caído desde entonces)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Recibe cada lote de cambios aplicado, después de publicar el snapshot.
+     * Corre dentro del lock del catálogo (en orden, uno a la vez): no debe
+     * bloquear. El primer llamado trae el contenido actual del catálogo.
+     */
+    public synchronized void addListener(EntityChangeListener<Product> listener) {
+        listeners.add(listener);
+        listener.onChanges(snapshot.byId(), Set.of());
+    }
+
+    /**
+     * Sube en 1 con cada lote de cambios aplicado
+     */
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+     * Mayor fechaActualizacion de los productos del catálogo, en milisegundos (0 si está vacío)
+     */
+    public long getUpdatedUntil() {
+        return snapshot.updatedUntil();
+    }
+
+    /**
+     * Todos los productos (activos e inactivos), en orden de document ID
+     */
+    public List<Product> getProducts() {
+        counters.recordHit();
+        return snapshot.all();
+    }
+
+    public Optional<Product> getProduct(String id) {
+        Product product = snapshot.byId().get(id);
+        if (product != null) {
+            counters.recordHit();
+        } else {
+            counters.recordMiss();
+        }
+        return Optional.ofNullable(product);
+    }
+
+    /**
+     * Página ordenada por nombre, con cursores compatibles con
+     * ProductRepository.findPage(..., "nombreProducto", ...)
+     */
+    public CursorPage<Product> getPage(int pageSize, String startAfterCursor) {
+        List<Product> byName = snapshot.byName();
+        counters.recordHit();
+
+        int from = 0;
+        if (startAfterCursor != null && !startAfterCursor.isBlank()) {
+            Object[] cursor = PageCursor.decode(startAfterCursor);
+            if (!(cursor[0] instanceof String)) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+
+            Product last = Product.builder()
+                .nombreProducto((String) cursor[0])
+                .id((String) cursor[1])
+                .build();
+
+            int position = Collections.binarySearch(byName, last, BY_NAME);
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+
+        int to = Math.min(from + pageSize, byName.size());
+        List<Product> items = byName.subList(from, to);
+
+        String nextCursor = null;
+        if (to < byName.size()) {
+            Product lastItem = items.get(items.size() - 1);
+            nextCursor = PageCursor.encode(lastItem.getNombreProducto(), lastItem.getId());
+        }
+
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * No toma el lock del catálogo mientras registra: con el backend en memoria
+     * el primer evento llega en este mismo hilo y los siguientes dentro de
+     * cada escritura.
+     *
+     * @param full Descargar la colección completa aunque ya haya datos
+     */
+    private void subscribe(boolean full) {
+        if (stopped) {
+            return;
+        }
+
+        // Con datos ya cargados (copia local o listener anterior) solo se pide lo que cambió
+        long updatedUntil = snapshot.updatedUntil();
+        boolean incremental = !full && updatedUntil > 0;
+        long start = System.nanoTime();
+
+        log.info("Registrando listener del catálogo de productos ({})",
+            incremental ? "cambios desde " + new Date(updatedUntil - CLOCK_SKEW_MILLIS) : "colección completa");
+
+        EntityChangeListener<Product> listener = new EntityChangeListener<>() {
+            private boolean first = true;
+
+            @Override
+            public void onChanges(Map<String, Product> upserted, Set<String> removed) {
+                // Sin copia, el primer evento es la colección completa: reemplaza lo que
+                // hubiera (al reconectar pudieron borrarse productos sin que nos enteráramos)
+                apply(upserted, removed, first && !incremental);
+
+                if (first) {
+                    first = false;
+                    ready = true;
+                    counters.recordLoad(System.nanoTime() - start);
+                    log.info("✅ Catálogo de productos al día: {} productos, {} recibidos (versión {})",
+                        snapshot.byId().size(), upserted.size(), snapshot.version());
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                ready = false;
+                log.error("❌ Listener del catálogo detenido, reintentando en {}s: {}",
+                    RETRY_DELAY_SECONDS, error.getMessage());
+                retry();
+            }
+        };
+
+        ListenerRegistration created = incremental
+            ? productRepository.listenUpdatedSince(new Date(updatedUntil - CLOCK_SKEW_MILLIS), listener)
+            : productRepository.listen(listener);
+
+        synchronized (this) {
+            if (stopped) {
+                created.remove();
+            } else {
+                // Un reintento pendiente y un resync pueden cruzarse: queda solo el último
+                if (registration != null) {
+                    registration.remove();
+                }
+                registration = created;
+            }
+        }
+    }
+
+    /**
+     * Vuelve a descargar la colección completa con un listener nuevo
+     *
+     * @param clear Vaciar el catálogo ya (no sirve datos hasta que llegue la descarga)
+     */
+    private void resync(boolean clear) {
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+            if (clear) {
+                ready = false;
+                Set<String> evicted = snapshot.byId().keySet();
+                snapshot = Snapshot.empty(snapshot.version() + 1);
+                counters.recordEvictions(evicted.size());
+                notifyListeners(Map.of(), evicted);
+            }
+        }
+
+        subscribe(true);
+    }
+
+    /**
+     * Publica la copia local y, en segundo plano, quita los productos
+     * borrados mientras la instancia estaba detenida
+     */
+    private void warmStart(CatalogSnapshotFile.CatalogSnapshot copy) {
+        long start = System.nanoTime();
+        Map<String, Product> products = new LinkedHashMap<>();
+        copy.products().forEach(product -> products.put(product.getId(), product));
+
+        apply(products, Set.of(), true);
+        ready = true;
+        counters.recordLoad(System.nanoTime() - start);
+
+        log.info("✅ Catálogo de productos desde la copia local: {} productos (versión {})",
+            products.size(), snapshot.version());
+
+        invalidationBus.changedSince(EntityType.PRODUCT, copy.changesSince())
+            .thenAccept(this::removeDeleted)
+            .exceptionally(error -> {
+                log.warn("⚠️ No se pudieron revisar los cambios posteriores a la copia: {}", error.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Quita del catálogo los productos de la lista que ya no existen. El
+     * listener incremental no ve el borrado de un producto que no cambió
+     * desde la copia, por eso se confirma leyéndolos por ID.
+     */
+    private void removeDeleted(Collection<String> productIds) {
+        Map<String, Product> current = snapshot.byId();
+        List<String> known = productIds.stream()
+            .filter(current::containsKey)
+            .collect(Collectors.toList());
+
+        if (known.isEmpty()) {
+            return;
+        }
+
+        productRepository.findAllByIdsAsync(known)
+            .thenAccept(found -> {
+                Set<String> deleted = known.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .collect(Collectors.toSet());
+
+                if (!deleted.isEmpty()) {
+                    apply(Map.of(), deleted, false);
+                }
+            })
+            .exceptionally(error -> {
+                log.warn("⚠️ No se pudieron revisar productos borrados: {}", error.getMessage());
+                return null;
+            });
+    }
+
+    private void retry() {
+        if (!stopped) {
+            retries.schedule(() -> subscribe(false), RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void apply(Map<String, Product> upserted, Set<String> removed, boolean replaceAll) {
+        Snapshot current = snapshot;
+
+        if (replaceAll) {
+            // Para los listeners, lo que no vino en el reemplazo se eliminó
+            removed = current.positions().keySet().stream()
+                .filter(id -> !upserted.containsKey(id))
+                .collect(Collectors.toSet());
+        }
+
+        snapshot = !replaceAll && removed.isEmpty() && samePositions(current, upserted)
+            ? replaced(current, upserted)
+            : rebuilt(current, upserted, removed, replaceAll);
+
+        log.debug("Catálogo actualizado a versión {}: {} cambiados, {} eliminados",
+            snapshot.version(), upserted.size(), removed.size());
+
+        notifyListeners(upserted, removed);
+    }
+
+    /**
+     * true si todos los productos ya están en el catálogo con el mismo nombre:
+     * reemplazarlos no mueve a nadie en all ni en byName
+     */
+    private static boolean samePositions(Snapshot current, Map<String, Product> upserted) {
+        for (Product product : upserted.values()) {
+            Integer position = current.positions().get(product.getId());
+            if (position == null
+                    || !Objects.equals(current.all().get(position).getNombreProducto(), product.getNombreProducto())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Snapshot siguiente cambiando solo los productos de upserted, en sus
+     * mismas posiciones (ver samePositions). Comparte los índices por ID.
+     */
+    private static Snapshot replaced(Snapshot current, Map<String, Product> upserted) {
+        Product[] all = current.all().toArray(Product[]::new);
+        Product[] byName = current.byName().toArray(Product[]::new);
+        long updatedUntil = current.updatedUntil();
+
+        for (Product product : upserted.values()) {
+            all[current.positions().get(product.getId())] = product;
+
+            Integer namePosition = current.namePositions().get(product.getId());
+            if (namePosition != null) {
+                byName[namePosition] = product;
+            }
+
+            if (product.getFechaActualizacion() != null) {
+                updatedUntil = Math.max(updatedUntil, product.getFechaActualizacion().getTime());
+            }
+        }
+
+        return new Snapshot(current.version() + 1, updatedUntil, current.positions(),
+            Collections.unmodifiableList(Arrays.asList(all)),
+            Collections.unmodifiableList(Arrays.asList(byName)),
+            current.namePositions());
+    }
+
+    /**
+     * Snapshot siguiente armado desde cero (productos nuevos, borrados o renombrados)
+     */
+    private static Snapshot rebuilt(Snapshot current, Map<String, Product> upserted, Set<String> removed,
+            boolean replaceAll) {
+        TreeMap<String, Product> byId = new TreeMap<>();
+        if (!replaceAll) {
+            current.all().forEach(product -> byId.put(product.getId(), product));
+        }
+        removed.forEach(byId::remove);
+        byId.putAll(upserted);
+
+        Product[] all = byId.values().toArray(Product[]::new);
+        Map<String, Integer> positions = new LinkedHashMap<>(all.length * 2);
+        long updatedUntil = 0;
+        for (int position = 0; position < all.length; position++) {
+            positions.put(all[position].getId(), position);
+            if (all[position].getFechaActualizacion() != null) {
+                updatedUntil = Math.max(updatedUntil, all[position].getFechaActualizacion().getTime());
+            }
+        }
+
+        // Igual que orderBy en Firestore: sin nombre no aparece en la paginación
+        Product[] byName = Arrays.stream(all)
+            .filter(product -> product.getNombreProducto() != null)
+            .sorted(BY_NAME)
+            .toArray(Product[]::new);
+        Map<String, Integer> namePositions = new HashMap<>(byName.length * 2);
+        for (int position = 0; position < byName.length; position++) {
+            namePositions.put(byName[position].getId(), position);
+        }
+
+        return new Snapshot(
+            current.version() + 1,
+            updatedUntil,
+            Collections.unmodifiableMap(positions),
+            Collections.unmodifiableList(Arrays.asList(all)),
+            Collections.unmodifiableList(Arrays.asList(byName)),
+            Collections.unmodifiableMap(namePositions)
+        );
+    }
+
+    private void notifyListeners(Map<String, Product> upserted, Set<String> removed) {
+        for (EntityChangeListener<Product> listener : listeners) {
+            try {
+                listener.onChanges(upserted, removed);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Error en un listener del catálogo: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long estimateBytes(Product product) {
+        return MemoryEstimator.OBJECT * 5 // producto, precio, stock y las dos fechas
+            + MemoryEstimator.string(product.getId())
+            + MemoryEstimator.string(product.getNombreProducto())
+            + MemoryEstimator.string(product.getDescripcionProducto())
+            + MemoryEstimator.string(product.getImageUrl())
+            + MemoryEstimator.string(product.getCategoryId());
+    }
+
+    /**
+     * Vista del catálogo para CacheRegistry
+     */
+    private class CatalogCache implements ManagedCache {
+
+        @Override
+        public String getName() {
+            return "catalog";
+        }
+
+        @Override
+        public long size() {
+            return snapshot.byId().size();
+        }
+
+        @Override
+        public CacheStatistics stats() {
+            return counters.snapshot();
+        }
+
+        @Override
+        public long estimatedBytes() {
+            Snapshot current = snapshot;
+
+            // Las entidades + una entrada en cada índice por ID y una referencia en cada lista
+            return MemoryEstimator.sampled(current.all(), ProductCatalog::estimateBytes)
+                + (current.positions().size() + current.namePositions().size()) * MemoryEstimator.MAP_ENTRY
+                + (current.all().size() + current.byName().size()) * MemoryEstimator.REFERENCE;
+        }
+
+        @Override
+        public void flush() {
+            log.info("Vaciando el catálogo de productos");
+            resync(true);
+        }
+
+        @Override
+        public boolean supportsWarm() {
+            return true;
+        }
+
+        @Override
+        public void warm() {
+            log.info("Recargando el catálogo de productos");
+            resync(false);
+        }
+    }
+}
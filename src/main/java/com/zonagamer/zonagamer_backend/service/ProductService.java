@@ -1,15 +1,44 @@
 package com.zonagamer.zonagamer_backend.service;
 
+import com.google.cloud.firestore.FieldValue;
+import com.zonagamer.zonagamer_backend.dto.CategoryFacetDTO;
+import com.zonagamer.zonagamer_backend.dto.PriceFacetDTO;
 import com.zonagamer.zonagamer_backend.dto.ProductCreateDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductPatchDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductQueryResponseDTO;
 import com.zonagamer.zonagamer_backend.dto.ProductResponseDTO;
+import com.zonagamer.zonagamer_backend.dto.ProductSummaryDTO;
+import com.zonagamer.zonagamer_backend.dto.SuggestionDTO;
+import com.zonagamer.zonagamer_backend.exception.InsufficientStockException;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
+import com.zonagamer.zonagamer_backend.model.Category;
 import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.repository.BulkWriteResult;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.repository.ProductRepository;
+import com.zonagamer.zonagamer_backend.search.FacetIndex;
+import com.zonagamer.zonagamer_backend.search.FuzzyProductIndex;
+import com.zonagamer.zonagamer_backend.search.ProductFacetIndex;
+import com.zonagamer.zonagamer_backend.search.ProductPopularity;
+import com.zonagamer.zonagamer_backend.search.ProductQuery;
+import com.zonagamer.zonagamer_backend.search.ProductSearchIndex;
+import com.zonagamer.zonagamer_backend.search.ProductSuggester;
+import com.zonagamer.zonagamer_backend.search.SearchPage;
+import com.zonagamer.zonagamer_backend.search.SpanishAnalyzer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -17,9 +46,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
     
+    /** Campos que necesita ProductSummaryDTO (sin descripción ni fechas) */
+    private static final String[] SUMMARY_FIELDS = {
+        "nombreProducto", "precio", "stock", "imageUrl", "categoryId", "isFeatured", "featured", "active"
+    };
+    
     private final ProductRepository productRepository;
     private final StorageService storageService;
     private final CategoryService categoryService;
+    private final ProductCatalog productCatalog;
+    private final CacheInvalidationBus invalidationBus;
+    private final ProductSearchIndex searchIndex;
+    private final FuzzyProductIndex fuzzyIndex;
+    private final ProductSuggester suggester;
+    private final ProductFacetIndex facetIndex;
+    private final ProductPopularity popularity;
     
     public ProductResponseDTO createProduct(ProductCreateDTO dto, MultipartFile image) 
             throws ExecutionException, InterruptedException, IOException {
@@ -46,54 +87,207 @@ public class ProductService {
             
         String id = productRepository.save(product);
         product.setId(id);
+        invalidationBus.publish(EntityType.PRODUCT, id);
         
         return mapToDTO(product);
     }
     
     public List<ProductResponseDTO> getAllProducts() throws ExecutionException, InterruptedException {
-        return productRepository.findAll().stream()
+        return allProducts().stream()
             .map(this::mapToDTO)
             .collect(Collectors.toList());
     }
     
+    public CursorPage<ProductResponseDTO> getProductsPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        if (productCatalog.isReady()) {
+            return productCatalog.getPage(CursorPage.pageSize(limit), cursor).map(this::mapToDTO);
+        }
+        return productRepository.findPage(CursorPage.pageSize(limit), "nombreProducto", cursor)
+            .map(this::mapToDTO);
+    }
+    
+    public List<ProductSummaryDTO> getProductSummaries() 
+            throws ExecutionException, InterruptedException {
+        if (productCatalog.isReady()) {
+            return productCatalog.getProducts().stream()
+                .map(this::mapToSummaryDTO)
+                .collect(Collectors.toList());
+        }
+        return productRepository.findAllProjected(SUMMARY_FIELDS).stream()
+            .map(this::mapToSummaryDTO)
+            .collect(Collectors.toList());
+    }
+    
+    public CursorPage<ProductSummaryDTO> getProductSummariesPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        if (productCatalog.isReady()) {
+            return productCatalog.getPage(CursorPage.pageSize(limit), cursor).map(this::mapToSummaryDTO);
+        }
+        return productRepository.findPageProjected(CursorPage.pageSize(limit), "nombreProducto", cursor, SUMMARY_FIELDS)
+            .map(this::mapToSummaryDTO);
+    }
+    
+    /**
+     * Productos de la categoría y de todas sus subcategorías: un rango del
+     * índice de facetas (FacetIndex.inCategory). Sin catálogo cargado, una
+     * consulta por categoría del subárbol, todas en paralelo.
+     */
     public List<ProductResponseDTO> getProductsByCategory(String categoryId) 
             throws ExecutionException, InterruptedException {
-        return productRepository.findByCategory(categoryId).stream()
-            .map(this::mapToDTO)
+        if (facetIndex.isReady()) {
+            return facetIndex.inCategory(categoryId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        }
+        
+        List<String> categoryIds = categoryService.getTree().subtree(categoryId).stream()
+            .map(Category::getId)
             .collect(Collectors.toList());
+        if (categoryIds.isEmpty()) {
+            categoryIds = List.of(categoryId);
+        }
+        
+        List<CompletableFuture<List<Product>>> queries = new ArrayList<>(categoryIds.size());
+        for (String id : categoryIds) {
+            queries.add(productRepository.findByCategoryAsync(id));
+        }
+        CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).get();
+        
+        List<ProductResponseDTO> products = new ArrayList<>();
+        for (CompletableFuture<List<Product>> query : queries) {
+            query.join().stream()
+                .map(this::mapToDTO)
+                .forEach(products::add);
+        }
+        return products;
     }
     
+    /**
+     * La vista cuenta para la popularidad solo si el producto existe: la ruta
+     * es pública y un ID inventado no debe dejar una entrada en ProductPopularity
+     */
     public ProductResponseDTO getProductById(String id) 
             throws ExecutionException, InterruptedException {
+        Optional<Product> cached = productCatalog.getProduct(id);
+        if (cached.isPresent()) {
+            popularity.recordView(id);
+            return mapToDTO(cached.get());
+        }
+        
+        // Puede ser un producto recién creado que el listener aún no entrega
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        popularity.recordView(id);
         return mapToDTO(product);
     }
     
     public List<ProductResponseDTO> getFeaturedProducts() 
             throws ExecutionException, InterruptedException {
-        return productRepository.findAll().stream()
+        return allProducts().stream()
             .filter(Product::isFeatured)
             .filter(Product::isActive)
             .map(this::mapToDTO)
             .collect(Collectors.toList());
     }
     
-    public List<ProductResponseDTO> searchProducts(String searchTerm) 
+    /**
+     * Búsqueda por palabras en nombre, descripción y categoría (ver
+     * ProductSearchIndex). Sin catálogo cargado recorre los productos del
+     * repositorio buscando el texto, sin distinguir tildes.
+     *
+     * Los resultados vienen del más al menos relevante y se devuelven
+     * limit desde offset, con el total de coincidencias.
+     *
+     * @param fuzzy Tolerar errores de tipeo (ver FuzzyProductIndex); los
+     *              resultados vienen del más al menos parecido
+     */
+    public SearchPage<ProductResponseDTO> searchProducts(String searchTerm, boolean fuzzy, int offset, int limit) 
             throws ExecutionException, InterruptedException {
-        String lowerSearch = searchTerm.toLowerCase();
-        return productRepository.findAll().stream()
-            .filter(p -> p.getNombreProducto().toLowerCase().contains(lowerSearch) ||
-                        p.getDescripcionProducto().toLowerCase().contains(lowerSearch))
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset no puede ser negativo");
+        }
+        
+        if (fuzzy && fuzzyIndex.isReady()) {
+            return SearchPage.of(fuzzyIndex.search(searchTerm), offset, limit).map(this::mapToDTO);
+        }
+        
+        if (searchIndex.isReady()) {
+            return searchIndex.search(searchTerm, offset, limit).map(this::mapToDTO);
+        }
+        
+        String folded = SpanishAnalyzer.fold(searchTerm);
+        List<Product> matches = allProducts().stream()
+            .filter(p -> SpanishAnalyzer.fold(p.getNombreProducto()).contains(folded) ||
+                        SpanishAnalyzer.fold(p.getDescripcionProducto()).contains(folded))
             .filter(Product::isActive)
-            .map(this::mapToDTO)
             .collect(Collectors.toList());
+        return SearchPage.of(matches, offset, limit).map(this::mapToDTO);
+    }
+    
+    /**
+     * Filtros combinados con orden, página y conteos por faceta (ver
+     * FacetIndex). Sin catálogo cargado arma un índice de paso con los
+     * productos del repositorio y busca el texto sin distinguir tildes.
+     */
+    public ProductQueryResponseDTO queryProducts(ProductQuery query) 
+            throws ExecutionException, InterruptedException {
+        FacetIndex.Result result;
+        
+        if (facetIndex.isReady()) {
+            result = facetIndex.query(query);
+        } else {
+            List<Product> products = allProducts();
+            
+            List<String> textMatches = null;
+            if (query.text() != null) {
+                String folded = SpanishAnalyzer.fold(query.text());
+                textMatches = products.stream()
+                    .filter(p -> SpanishAnalyzer.fold(p.getNombreProducto()).contains(folded) ||
+                                SpanishAnalyzer.fold(p.getDescripcionProducto()).contains(folded))
+                    .map(Product::getId)
+                    .collect(Collectors.toList());
+            }
+            
+            result = FacetIndex.build(products, categoryService.getTree(), -1, -1).query(query, textMatches);
+        }
+        
+        return ProductQueryResponseDTO.builder()
+            .items(result.items().stream()
+                .map(this::mapToSummaryDTO)
+                .collect(Collectors.toList()))
+            .total(result.total())
+            .offset(query.offset())
+            .limit(query.limit())
+            .categories(result.categories().stream()
+                .map(c -> CategoryFacetDTO.builder()
+                    .categoryId(c.category().getId())
+                    .nombre(c.category().getNombreCategoria())
+                    .parentId(c.category().getParentId())
+                    .count(c.count())
+                    .build())
+                .collect(Collectors.toList()))
+            .prices(result.prices().stream()
+                .map(p -> PriceFacetDTO.builder()
+                    .min(p.min())
+                    .max(p.max())
+                    .count(p.count())
+                    .build())
+                .collect(Collectors.toList()))
+            .build();
+    }
+    
+    /**
+     * Sugerencias para autocompletar (productos y categorías), ver ProductSuggester
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
     }
     
     public List<ProductResponseDTO> getBajoStockProductos(int threshold) 
             throws ExecutionException, InterruptedException {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getStock() <= threshold)
+        return allProducts().stream()
+            .filter(p -> p.getStock() != null && p.getStock() <= threshold)
             .filter(Product::isActive)
             .map(this::mapToDTO)
             .collect(Collectors.toList());
@@ -114,6 +308,7 @@ public class ProductService {
         product.setFechaActualizacion(new java.util.Date());
         
         productRepository.update(id, product);
+        invalidationBus.publish(EntityType.PRODUCT, id);
         return mapToDTO(product);
     }
     
@@ -137,38 +332,216 @@ public class ProductService {
         product.setFechaActualizacion(new java.util.Date());
         
         productRepository.update(id, product);
+        invalidationBus.publish(EntityType.PRODUCT, id);
         return mapToDTO(product);
     }
     
     public void deleteProduct(String id) throws ExecutionException, InterruptedException {
         productRepository.delete(id);
+        invalidationBus.publish(EntityType.PRODUCT, id);
     }
     
-    public void reduceStock(String productId, Integer quantity) 
+    /**
+     * Crea varios productos con una sola escritura masiva. Las categorías se
+     * verifican una vez cada una, no una vez por producto.
+     */
+    public BulkWriteResult createProducts(List<ProductCreateDTO> dtos) 
             throws ExecutionException, InterruptedException {
         
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + productId));
+        Set<String> categoryIds = dtos.stream()
+            .map(ProductCreateDTO::getCategoryId)
+            .collect(Collectors.toSet());
         
-        int newStock = product.getStock() - quantity;
+        for (String categoryId : categoryIds) {
+            categoryService.ensureCategoryExists(categoryId);
+        }
+        
+        List<Product> products = dtos.stream()
+            .map(dto -> Product.builder()
+                .nombreProducto(dto.getNombreProducto())
+                .precio(dto.getPrice())
+                .descripcionProducto(dto.getDescripcion())
+                .categoryId(dto.getCategoryId())
+                .stock(dto.getStock())
+                .imageUrl(dto.getImageUrl())
+                .featured(dto.getIsFeatured())
+                .active(true)
+                .fechaCreacion(new Date())
+                .fechaActualizacion(new Date())
+                .build())
+            .collect(Collectors.toList());
         
-        if (newStock < 0) {
-            throw new RuntimeException("Stock insuficiente para producto: " + product.getNombreProducto());
+        return published(productRepository.saveAll(products));
+    }
+    
+    /**
+     * Aplica cambios parciales (precio, stock, activo, destacado) a varios
+     * productos sin leerlos antes: solo se escriben los campos enviados.
+     */
+    public BulkWriteResult patchProducts(List<ProductPatchDTO> patches) 
+            throws ExecutionException, InterruptedException {
+        
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+        
+        for (ProductPatchDTO patch : patches) {
+            Map<String, Object> fields = new HashMap<>();
+            
+            if (patch.getPrice() != null) {
+                fields.put("precio", patch.getPrice());
+            }
+            if (patch.getStock() != null) {
+                fields.put("stock", patch.getStock());
+            }
+            if (patch.getActive() != null) {
+                fields.put("active", patch.getActive());
+            }
+            if (patch.getIsFeatured() != null) {
+                // ProductCodec escribe ambos nombres del campo
+                fields.put("isFeatured", patch.getIsFeatured());
+                fields.put("featured", patch.getIsFeatured());
+            }
+            
+            if (fields.isEmpty()) {
+                throw new IllegalArgumentException(
+                    "No hay cambios para el producto: " + patch.getProductId()
+                );
+            }
+            
+            fields.put("fechaActualizacion", new Date());
+            changes.put(patch.getProductId(), fields);
+        }
+        
+        return published(productRepository.patchAll(changes));
+    }
+    
+    /**
+     * Desactiva todos los productos de una categoría
+     */
+    public BulkWriteResult deactivateProductsByCategory(String categoryId) 
+            throws ExecutionException, InterruptedException {
+        
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+        
+        for (Product product : productRepository.findByCategory(categoryId)) {
+            changes.put(product.getId(), Map.of(
+                "active", false,
+                "fechaActualizacion", new Date()
+            ));
+        }
+        
+        return published(productRepository.patchAll(changes));
+    }
+    
+    public BulkWriteResult deleteProducts(List<String> productIds) 
+            throws ExecutionException, InterruptedException {
+        
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("Debe incluir al menos un producto");
+        }
+        
+        if (productIds.size() > 1000) {
+            throw new IllegalArgumentException("No se pueden eliminar más de 1000 productos por solicitud");
         }
         
-        product.setStock(newStock);
-        productRepository.update(productId, product);
+        return published(productRepository.deleteAll(productIds));
+    }
+    
+    public void reduceStock(String productId, Integer quantity) 
+            throws ExecutionException, InterruptedException {
+        reduceStock(Map.of(productId, quantity));
     }
     
     public void increaseStock(String productId, Integer quantity) 
             throws ExecutionException, InterruptedException {
+        productRepository.patch(productId, stockDelta(quantity));
+        invalidationBus.publish(EntityType.PRODUCT, productId);
+    }
+    
+    /**
+     * Reduce el stock de varios productos (productId -> cantidad). La lectura,
+     * la validación y la escritura van en una sola transacción: dos checkouts
+     * simultáneos del último ejemplar no pueden pasar los dos, el segundo
+     * vuelve a leer y falla con InsufficientStockException. Si un producto
+     * falla no se reduce ninguno.
+     */
+    public void reduceStock(Map<String, Integer> quantities) 
+            throws ExecutionException, InterruptedException {
         
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + productId));
+        try {
+            productRepository.patchAtomically(quantities.keySet(), products -> {
+                Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+                
+                for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                    Product product = products.get(entry.getKey());
+                    
+                    if (product == null) {
+                        throw new RuntimeException("Producto no encontrado: " + entry.getKey());
+                    }
+                    
+                    if (product.getStock() == null || product.getStock() < entry.getValue()) {
+                        throw new InsufficientStockException(
+                            "Stock insuficiente para producto: " + product.getNombreProducto());
+                    }
+                    
+                    changes.put(entry.getKey(), stockDelta(-entry.getValue()));
+                }
+                
+                return changes;
+            });
+        } catch (ExecutionException e) {
+            // Se relanza la excepción de la validación tal cual, para que el checkout la distinga
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
         
-        int newStock = product.getStock() + quantity;
-        product.setStock(newStock);
-        productRepository.update(productId, product);
+        invalidationBus.publishAll(EntityType.PRODUCT, quantities.keySet());
+        quantities.forEach(popularity::recordPurchase);
+    }
+    
+    /**
+     * Restaura el stock de varios productos (productId -> cantidad) sin leerlos:
+     * cada uno es un increment en el servidor.
+     */
+    public void increaseStock(Map<String, Integer> quantities) 
+            throws ExecutionException, InterruptedException {
+        
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            writes.add(productRepository.patchAsync(entry.getKey(), stockDelta(entry.getValue())));
+        }
+        
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get();
+        invalidationBus.publishAll(EntityType.PRODUCT, quantities.keySet());
+    }
+    
+    /**
+     * Avisa a las demás instancias de los productos que sí se escribieron
+     */
+    private BulkWriteResult published(BulkWriteResult result) {
+        List<String> written = result.getIds().stream()
+            .filter(id -> !result.getFailures().containsKey(id))
+            .collect(Collectors.toList());
+        
+        invalidationBus.publishAll(EntityType.PRODUCT, written);
+        return result;
+    }
+    
+    /**
+     * Productos desde el catálogo en memoria (sin lecturas a Firestore), o
+     * desde el repositorio mientras el catálogo no está listo
+     */
+    private List<Product> allProducts() throws ExecutionException, InterruptedException {
+        return productCatalog.isReady() ? productCatalog.getProducts() : productRepository.findAll();
+    }
+    
+    private Map<String, Object> stockDelta(int delta) {
+        return Map.of(
+            "stock", FieldValue.increment(delta),
+            "fechaActualizacion", new Date()
+        );
     }
     
     private ProductResponseDTO mapToDTO(Product product) {
@@ -186,4 +559,17 @@ public class ProductService {
                 product.getFechaCreacion().toString() : null)
             .build();
     }
-}
\ No newline at end of file
+    
+    private ProductSummaryDTO mapToSummaryDTO(Product product) {
+        return ProductSummaryDTO.builder()
+            .id(product.getId())
+            .nombre(product.getNombreProducto())
+            .precio(product.getPrecio())
+            .stock(product.getStock())
+            .imageUrl(product.getImageUrl())
+            .categoryId(product.getCategoryId())
+            .featured(product.isFeatured())
+            .disponibilidad(product.isActive())
+            .build();
+    }
+}
@@ -1,15 +1,21 @@
 package com.zonagamer.zonagamer_backend.service;
 
 import com.zonagamer.zonagamer_backend.dto.UserResponseDTO;
+import com.zonagamer.zonagamer_backend.dto.UserSummaryDTO;
 import com.zonagamer.zonagamer_backend.exception.ResourceNotFoundException;
+import com.zonagamer.zonagamer_backend.model.CacheInvalidation.EntityType;
 import com.zonagamer.zonagamer_backend.model.User;
+import com.zonagamer.zonagamer_backend.repository.CursorPage;
 import com.zonagamer.zonagamer_backend.repository.UserRepository;
+import com.zonagamer.zonagamer_backend.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -18,8 +24,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserService {
     
+    /** Todos los campos de UserResponseDTO; el hash de la contraseña nunca se descarga */
+    private static final String[] RESPONSE_FIELDS = {
+        "email", "nombre", "apellido", "numeroDeTelefono", "admin", "isAdmin", "active", "fechaCreacion"
+    };
+    
+    /** Campos que necesita UserSummaryDTO */
+    private static final String[] SUMMARY_FIELDS = {
+        "email", "nombre", "apellido", "admin", "isAdmin", "active"
+    };
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final CacheInvalidationBus invalidationBus;
     
 
     public List<UserResponseDTO> getAllUsers() 
@@ -27,13 +45,41 @@ public class UserService {
         
         log.debug("Obteniendo todos los usuarios");
         
-        List<User> users = userRepository.findAll();
+        List<User> users = userRepository.findAllProjected(RESPONSE_FIELDS);
         
         return users.stream()
             .map(this::mapToResponseDTO)
             .collect(Collectors.toList());
     }
 
+    public CursorPage<UserResponseDTO> getUsersPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        
+        log.debug("Obteniendo página de usuarios");
+        
+        return userRepository.findPageProjected(CursorPage.pageSize(limit), "email", cursor, RESPONSE_FIELDS)
+            .map(this::mapToResponseDTO);
+    }
+
+    public List<UserSummaryDTO> getUserSummaries() 
+            throws ExecutionException, InterruptedException {
+        
+        log.debug("Obteniendo resumen de usuarios");
+        
+        return userRepository.findAllProjected(SUMMARY_FIELDS).stream()
+            .map(this::mapToSummaryDTO)
+            .collect(Collectors.toList());
+    }
+
+    public CursorPage<UserSummaryDTO> getUserSummariesPage(Integer limit, String cursor) 
+            throws ExecutionException, InterruptedException {
+        
+        log.debug("Obteniendo página de resumen de usuarios");
+        
+        return userRepository.findPageProjected(CursorPage.pageSize(limit), "email", cursor, SUMMARY_FIELDS)
+            .map(this::mapToSummaryDTO);
+    }
+
     public UserResponseDTO getUserById(String userId) 
             throws ExecutionException, InterruptedException {
         
@@ -66,8 +112,13 @@ public class UserService {
         user.setApellido(apellido);
         user.setNumeroDeTelefono(numeroDeTelefono);
         
-        // Guardar cambios (Firestore actualiza fechaActualizacion automáticamente)
-        userRepository.update(userId, user);
+        // Guardar solo los campos del perfil (Firestore actualiza fechaActualizacion automáticamente)
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("nombre", nombre);
+        fields.put("apellido", apellido);
+        fields.put("numeroDeTelefono", numeroDeTelefono);
+        userRepository.patch(userId, fields);
+        userChanged(userId);
         
         log.info("✅ Perfil actualizado para usuario: {}", userId);
         
@@ -99,9 +150,8 @@ public class UserService {
         }
         
         // 3. Encriptar y guardar
-        user.setPassword(passwordEncoder.encode(newPassword));
-        
-        userRepository.update(userId, user);
+        userRepository.patch(userId, Map.of("password", passwordEncoder.encode(newPassword)));
+        userChanged(userId);
         
         log.info("✅ Contraseña actualizada para usuario: {}", userId);
     }
@@ -120,9 +170,8 @@ public class UserService {
             throw new IllegalStateException("El usuario ya es administrador");
         }
         
-        user.setAdmin(true);
-        
-        userRepository.update(userId, user);
+        userRepository.patch(userId, Map.of("admin", true));
+        userChanged(userId);
         
         log.info("✅ Usuario promovido a admin: {}", userId);
     }
@@ -142,9 +191,8 @@ public class UserService {
             throw new IllegalStateException("El usuario no es administrador");
         }
         
-        user.setAdmin(false);
-        
-        userRepository.update(userId, user);
+        userRepository.patch(userId, Map.of("admin", false));
+        userChanged(userId);
         
         log.info("✅ Privilegios de admin revocados para usuario: {}", userId);
     }
@@ -160,9 +208,8 @@ public class UserService {
                 "Usuario no encontrado: " + userId
             ));
         
-        user.setActive(false);
-        
-        userRepository.update(userId, user);
+        userRepository.patch(userId, Map.of("active", false));
+        userChanged(userId);
         
         log.info("✅ Usuario desactivado: {}", userId);
     }
@@ -177,9 +224,8 @@ public class UserService {
                 "Usuario no encontrado: " + userId
             ));
         
-        user.setActive(true);
-        
-        userRepository.update(userId, user);
+        userRepository.patch(userId, Map.of("active", true));
+        userChanged(userId);
         
         log.info("✅ Usuario activado: {}", userId);
     }
@@ -191,8 +237,7 @@ public class UserService {
     
   
     public long countActiveUsers() throws ExecutionException, InterruptedException {
-        List<User> users = userRepository.findAll();
-        return users.stream().filter(User::isActive).count();
+        return userRepository.countWhere("active", "==", true);
     }
     
 
@@ -210,4 +255,22 @@ public class UserService {
                 user.getFechaCreacion().toString() : null)
             .build();
     }
-}
\ No newline at end of file
+
+    private UserSummaryDTO mapToSummaryDTO(User user) {
+        return UserSummaryDTO.builder()
+            .id(user.getId())
+            .email(user.getEmail())
+            .nombreCompleto(user.obtenerNombreCompleto())
+            .admin(user.isAdmin())
+            .active(user.isActive())
+            .build();
+    }
+
+    /**
+     * Descarta el principal cacheado aquí y avisa a las demás instancias
+     */
+    private void userChanged(String userId) {
+        principalCache.invalidate(userId);
+        invalidationBus.publish(EntityType.USER, userId);
+    }
+}
@@ -0,0 +1,372 @@
+package com.zonagamer.zonagamer_backend.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zonagamer.zonagamer_backend.cache.CacheRegistry;
+import com.zonagamer.zonagamer_backend.cache.CaffeineManagedCache;
+import com.zonagamer.zonagamer_backend.cache.MemoryEstimator;
+import com.zonagamer.zonagamer_backend.search.FuzzyProductIndex;
+import com.zonagamer.zonagamer_backend.search.ProductPopularity;
+import com.zonagamer.zonagamer_backend.search.ProductSearchIndex;
+import com.zonagamer.zonagamer_backend.service.CategoryService;
+import com.zonagamer.zonagamer_backend.service.ProductCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas ya serializadas para los GET públicos del catálogo
+ * (/api/products/** y /api/categorias/**).
+ *
+ * La clave es ruta + parámetros + versión de los datos de los que sale la
+ * respuesta, así un cambio invalida todo sin recorrer la caché. Las de
+ * /api/products dependen del catálogo y también del árbol de categorías (los
+ * listados por categoría incluyen las subcategorías, las facetas cuentan
+ * por categoría y la búsqueda indexa sus nombres): su versión es la de
+ * ProductCatalog y la de CategoryService juntas. Las de /api/categorias
+ * solo dependen del árbol. Cada
+ * entrada guarda el JSON en byte[], una copia comprimida con gzip y un ETag
+ * fuerte (SHA-256 del cuerpo; la copia gzip tiene su propio ETag).
+ *
+ * - Acierto: se escriben los bytes tal cual, sin pasar por el controlador,
+ *   el servicio ni Jackson
+ * - If-None-Match coincide: 304 Not Modified sin cuerpo
+ * - Fallo: se ejecuta el controlador y se guarda el resultado si es 200
+ *
+ * Si el catálogo o el árbol no están cargados (versión desconocida) no se
+ * usa la caché. Tampoco mientras ProductSearchIndex no aplicó la versión
+ * actual del catálogo (se publica antes de avisar a los índices), ni en la
+ * búsqueda aproximada mientras FuzzyProductIndex no se rearmó con ella: la
+ * respuesta saldría del índice viejo y quedaría guardada bajo la versión nueva.
+ * De los headers del controlador solo se guardan los de CACHED_HEADERS.
+ *
+ * Un acierto en el detalle de un producto no llega al servicio, así que la
+ * vista para ProductPopularity se cuenta acá (en un fallo la cuenta el
+ * servicio).
+ */
+@Slf4j
+@Component
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_NAME = "responses";
+
+    /**
+     * Cuerpos más chicos no se comprimen (gzip no ahorra casi nada)
+     */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private static final String PRODUCTS_PATH = "/api/products";
+
+    private static final String CATEGORIES_PATH = "/api/categorias";
+
+    /**
+     * Patrón de GET /api/products/{id} en ProductController
+     */
+    private static final String PRODUCT_DETAIL_PATTERN = PRODUCTS_PATH + "/{id}";
+
+    private static final String SEARCH_PATH = PRODUCTS_PATH + "/search";
+
+    /**
+     * Headers de la respuesta del controlador que se guardan con el cuerpo
+     */
+    private static final List<String> CACHED_HEADERS = List.of("X-Total-Count");
+
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final ProductSearchIndex searchIndex;
+    private final FuzzyProductIndex fuzzyIndex;
+    private final ProductPopularity popularity;
+    private final Cache<String, CachedResponse> responses;
+
+    /**
+     * @param etag ETag de body; el de gzipped es el mismo con sufijo "-gz"
+     * @param headers Valores de CACHED_HEADERS que puso el controlador
+     * @param viewedProductId ID del producto si es su detalle (cada acierto es una vista), si no null
+     */
+    record CachedResponse(String contentType, byte[] body, byte[] gzipped, String etag, Map<String, String> headers,
+            String viewedProductId) {
+
+        String etag(boolean gzip) {
+            return gzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+        }
+
+        int weight() {
+            return body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+
+    public CatalogResponseCacheFilter(
+        ProductCatalog productCatalog,
+        CategoryService categoryService,
+        ProductSearchIndex searchIndex,
+        FuzzyProductIndex fuzzyIndex,
+        ProductPopularity popularity,
+        MeterRegistry meterRegistry,
+        CacheRegistry cacheRegistry,
+        @Value("${catalog.response-cache.max-megabytes:32}") long maxMegabytes
+    ) {
+        this.productCatalog = productCatalog;
+        this.categoryService = categoryService;
+        this.searchIndex = searchIndex;
+        this.fuzzyIndex = fuzzyIndex;
+        this.popularity = popularity;
+        this.responses = Caffeine.newBuilder()
+            .maximumWeight(maxMegabytes * 1024 * 1024)
+            .<String, CachedResponse>weigher((key, response) -> response.weight())
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+        cacheRegistry.register(new CaffeineManagedCache<>(CACHE_NAME, responses, entry ->
+            MemoryEstimator.string(entry.getKey())
+                + MemoryEstimator.OBJECT * 3
+                + entry.getValue().weight()
+                + MemoryEstimator.string(entry.getValue().etag())
+                + MemoryEstimator.string(entry.getValue().contentType())
+                + MemoryEstimator.string(entry.getValue().viewedProductId())));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+
+        String path = request.getRequestURI();
+
+        // low-stock es de admin y cambia con cada venta: no vale la pena cachearlo.
+        // suggest ya responde desde memoria y cada tecla es una clave distinta
+        return !(path.equals(PRODUCTS_PATH) || path.startsWith(PRODUCTS_PATH + "/")
+                || path.equals(CATEGORIES_PATH) || path.startsWith(CATEGORIES_PATH + "/"))
+            || path.equals(PRODUCTS_PATH + "/low-stock")
+            || path.equals(PRODUCTS_PATH + "/suggest");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String version = currentVersion(request);
+        if (version == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request, version);
+        CachedResponse cached = responses.getIfPresent(key);
+
+        if (cached != null) {
+            log.debug("Respuesta desde caché: {}", key);
+            if (cached.viewedProductId() != null) {
+                popularity.recordView(cached.viewedProductId());
+            }
+            write(request, response, cached);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        boolean cacheable = wrapper.getStatus() == HttpServletResponse.SC_OK
+            && contentType != null
+            && contentType.startsWith("application/json")
+            // Si el catálogo cambió mientras se armaba la respuesta, no se sabe de qué versión es
+            && version.equals(currentVersion(request));
+
+        if (!cacheable) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        CachedResponse created = toCachedResponse(contentType, wrapper.getContentAsByteArray(), cachedHeaders(wrapper),
+            viewedProductId(request));
+        responses.put(key, created);
+
+        wrapper.resetBuffer();
+        write(request, response, created);
+    }
+
+    /**
+     * Descarta todas las respuestas cacheadas
+     */
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    /**
+     * Versión de los datos que responde la ruta ("catálogo/árbol" para
+     * productos, "árbol" para categorías), o null si alguna no se conoce o
+     * el índice que responde está atrasado
+     */
+    private String currentVersion(HttpServletRequest request) {
+        long treeVersion = categoryService.getTreeVersion();
+        if (treeVersion < 0) {
+            return null;
+        }
+
+        if (request.getRequestURI().startsWith(PRODUCTS_PATH)) {
+            if (!productCatalog.isReady()) {
+                return null;
+            }
+
+            long catalogVersion = productCatalog.getVersion();
+            if (searchIndex.getCatalogVersion() != catalogVersion) {
+                return null;
+            }
+            if (isFuzzySearch(request) && !fuzzyIndex.covers(catalogVersion, treeVersion)) {
+                return null;
+            }
+            return catalogVersion + "/" + treeVersion;
+        }
+        return String.valueOf(treeVersion);
+    }
+
+    /**
+     * Cualquier valor de fuzzy que no sea "false" cuenta como aproximada (en
+     * la duda, no se cachea)
+     */
+    private static boolean isFuzzySearch(HttpServletRequest request) {
+        String fuzzy = request.getParameter("fuzzy");
+        return request.getRequestURI().equals(SEARCH_PATH) && fuzzy != null && !"false".equalsIgnoreCase(fuzzy);
+    }
+
+    /**
+     * Ruta + parámetros ordenados + versión (el orden de los parámetros no importa)
+     */
+    private static String cacheKey(HttpServletRequest request, String version) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        params.forEach((name, values) -> key.append('&').append(name).append('=').append(String.join(",", values)));
+
+        return key.append('#').append(version).toString();
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request);
+        String etag = cached.etag(gzip);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // El navegador puede guardar la respuesta pero debe revalidarla siempre
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        cached.headers().forEach(response::setHeader);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? cached.gzipped() : cached.body();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * If-None-Match admite una lista de ETags o "*". Basta con que coincida
+     * cualquiera de las dos representaciones (con o sin gzip).
+     */
+    private static boolean matches(String ifNoneMatch, CachedResponse cached) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(cached.etag(false)) || tag.equals(cached.etag(true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static Map<String, String> cachedHeaders(HttpServletResponse response) {
+        Map<String, String> headers = new TreeMap<>();
+        for (String name : CACHED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * El {id} si la ruta que atendió el request es el detalle de un producto.
+     * Sale de los atributos que deja Spring MVC al elegir el handler, así no
+     * se confunde con /api/products/summary, /search, etc.
+     */
+    private static String viewedProductId(HttpServletRequest request) {
+        if (!PRODUCT_DETAIL_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))) {
+            return null;
+        }
+
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map<?, ?> map && map.get("id") instanceof String id ? id : null;
+    }
+
+    private static CachedResponse toCachedResponse(String contentType, byte[] body, Map<String, String> headers,
+            String viewedProductId) {
+        byte[] gzipped = body.length >= GZIP_MIN_BYTES ? gzip(body) : null;
+
+        return new CachedResponse(contentType, body, gzipped, "\"" + sha256(body) + "\"", headers, viewedProductId);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.zonagamer.zonagamer_backend.repository.codec;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+import com.zonagamer.zonagamer_backend.model.Order;
+import com.zonagamer.zonagamer_backend.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los codecs escritos a mano con el mapeo por reflection que usa
+ * DocumentSnapshot.toObject(Class) (CustomClassMapper + setId por reflection).
+ *
+ * Ejecutar con:
+ *   ./mvnw test-compile
+ *   java -cp "target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *       com.zonagamer.zonagamer_backend.repository.codec.FirestoreCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirestoreCodecBenchmark {
+
+    private final ProductCodec productCodec = new ProductCodec();
+    private final OrderCodec orderCodec = new OrderCodec();
+
+    private Map<String, Object> productData;
+    private Map<String, Object> orderData;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productData = new HashMap<>();
+        productData.put("nombreProducto", "PlayStation 5");
+        productData.put("descripcionProducto", "Consola de última generación con lector de discos");
+        productData.put("precio", 499990.0);
+        productData.put("stock", 25L);
+        productData.put("imageUrl", "https://storage.googleapis.com/zonagamer/products/ps5.jpg");
+        productData.put("categoryId", "consolas");
+        productData.put("isFeatured", true);
+        productData.put("active", true);
+        productData.put("fechaCreacion", Timestamp.now());
+        productData.put("fechaActualizacion", Timestamp.now());
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("productId", "prod-" + i);
+            item.put("productName", "Producto " + i);
+            item.put("quantity", 2L);
+            item.put("precioEnCompra", 19990.0);
+            item.put("subtotal", 39980.0);
+            items.add(item);
+        }
+
+        orderData = new HashMap<>();
+        orderData.put("userId", "user-1");
+        orderData.put("items", items);
+        orderData.put("total", 199900.0);
+        orderData.put("status", "PAID");
+        orderData.put("deliveryAddress", "Av. Siempre Viva 742, Santiago");
+        orderData.put("notes", "Dejar en conserjería");
+        orderData.put("fechaDeCreacion", Timestamp.now());
+
+        product = productCodec.decode("prod-1", productData);
+    }
+
+    @Benchmark
+    public Product decodeProductCodec() {
+        return productCodec.decode("prod-1", productData);
+    }
+
+    @Benchmark
+    public Product decodeProductReflection() throws Exception {
+        Product entity = CustomClassMapper.convertToCustomClass(productData, Product.class, null);
+        Product.class.getMethod("setId", String.class).invoke(entity, "prod-1");
+        return entity;
+    }
+
+    @Benchmark
+    public Order decodeOrderCodec() {
+        return orderCodec.decode("order-1", orderData);
+    }
+
+    @Benchmark
+    public Order decodeOrderReflection() throws Exception {
+        Order entity = CustomClassMapper.convertToCustomClass(orderData, Order.class, null);
+        Order.class.getMethod("setId", String.class).invoke(entity, "order-1");
+        return entity;
+    }
+
+    @Benchmark
+    public Map<String, Object> encodeProductCodec() {
+        return productCodec.encode(product);
+    }
+
+    @Benchmark
+    public Object encodeProductReflection() {
+        return CustomClassMapper.serialize(product);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FirestoreCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
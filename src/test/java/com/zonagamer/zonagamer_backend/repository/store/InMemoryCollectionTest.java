@@ -0,0 +1,158 @@
+package com.zonagamer.zonagamer_backend.repository.store;
+
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryCollectionTest {
+
+    @Test
+    void cursorDescendenteDesempataPorId() {
+        InMemoryCollection collection = new InMemoryCollection("orders");
+        collection.set("a", Map.of("total", 10L));
+        collection.set("b", Map.of("total", 20L));
+        collection.set("c", Map.of("total", 20L));
+        collection.set("d", Map.of("total", 20L));
+        collection.set("e", Map.of("total", 5L));
+        collection.set("f", Map.of("otro", 1L));
+
+        DocumentQuery byTotal = new DocumentQuery()
+            .orderBy("total", Query.Direction.DESCENDING)
+            .orderByDocumentId(Query.Direction.DESCENDING);
+
+        // Los empates en total van por ID descendente; f no tiene total y queda fuera
+        assertEquals(List.of("d", "c", "b", "a", "e"), ids(collection.query(byTotal)));
+
+        // Página de 2 en 2 siguiendo el último de la anterior
+        assertEquals(List.of("d", "c"), ids(collection.query(byTotal.limit(2))));
+        assertEquals(List.of("b", "a"), ids(collection.query(byTotal.startAfter(20L, "c").limit(2))));
+        assertEquals(List.of("e"), ids(collection.query(byTotal.startAfter(10L, "a").limit(2))));
+        assertEquals(List.of(), ids(collection.query(byTotal.startAfter(5L, "e").limit(2))));
+    }
+
+    @Test
+    void cursorAscendenteSoloPorId() {
+        InMemoryCollection collection = new InMemoryCollection("products");
+        for (String id : List.of("c", "a", "d", "b")) {
+            collection.set(id, Map.of("nombre", id));
+        }
+
+        DocumentQuery byId = new DocumentQuery().orderByDocumentId(Query.Direction.ASCENDING);
+
+        assertEquals(List.of("a", "b"), ids(collection.query(byId.limit(2))));
+        assertEquals(List.of("c", "d"), ids(collection.query(byId.startAfter("b").limit(2))));
+    }
+
+    @Test
+    void losIndicesDeIgualdadSiguenLasActualizacionesYBorrados() {
+        InMemoryCollection collection = new InMemoryCollection("products");
+        collection.set("1", Map.of("categoryId", "consolas"));
+        collection.set("2", Map.of("categoryId", "consolas"));
+        collection.set("3", Map.of("categoryId", "juegos"));
+
+        // La primera consulta crea el índice de categoryId
+        assertEquals(List.of("1", "2"), ids(collection.query(whereCategory("consolas"))));
+
+        collection.update("2", Map.of("categoryId", "juegos"));
+        assertEquals(List.of("1"), ids(collection.query(whereCategory("consolas"))));
+        assertEquals(List.of("2", "3"), ids(collection.query(whereCategory("juegos"))));
+
+        collection.delete("3");
+        assertEquals(List.of("2"), ids(collection.query(whereCategory("juegos"))));
+
+        collection.update("1", Map.of("categoryId", FieldValue.delete()));
+        assertEquals(List.of(), ids(collection.query(whereCategory("consolas"))));
+        assertEquals(1, collection.count(whereCategory("juegos")));
+
+        collection.set("1", Map.of("categoryId", "juegos"));
+        assertEquals(List.of("1", "2"), ids(collection.query(whereCategory("juegos"))));
+    }
+
+    @Test
+    void losIndicesDeRangoSiguenLasActualizacionesYBorrados() {
+        InMemoryCollection collection = new InMemoryCollection("products");
+        collection.set("1", Map.of("stock", 0L));
+        collection.set("2", Map.of("stock", 3L));
+        collection.set("3", Map.of("stock", 10L));
+
+        DocumentQuery lowStock = new DocumentQuery().whereLessThanOrEqualTo("stock", 5L);
+        assertEquals(List.of("1", "2"), ids(collection.query(lowStock)));
+
+        collection.update("3", Map.of("stock", FieldValue.increment(-8)));
+        collection.update("2", Map.of("stock", 7));
+        assertEquals(List.of("1", "3"), ids(collection.query(lowStock)));
+        assertEquals(List.of("2", "3"), ids(collection.query(new DocumentQuery().whereGreaterThanOrEqualTo("stock", 2L))));
+
+        collection.delete("1");
+        assertEquals(List.of("3"), ids(collection.query(lowStock)));
+        assertEquals(List.of("3"), ids(collection.query(new DocumentQuery().whereLessThan("stock", 3.5))));
+    }
+
+    @Test
+    void losListenersRecibenAltasCambiosYBajasSegunSusFiltros() {
+        InMemoryCollection collection = new InMemoryCollection("orders");
+        collection.set("1", Map.of("status", "PENDING"));
+        collection.set("2", Map.of("status", "PAID"));
+
+        List<String> received = new ArrayList<>();
+        ListenerRegistration registration = collection.listen(
+            new DocumentQuery().whereEqualTo("status", "PENDING"),
+            changes -> changes.forEach(change ->
+                received.add(change.getType() + " " + change.getDocument().getId() + " " + change.getDocument().get("status"))));
+
+        // Los existentes llegan como ADDED al registrarse
+        assertEquals(List.of("ADDED 1 PENDING"), received);
+
+        collection.update("1", Map.of("nota", "x"));
+        collection.update("2", Map.of("status", "PENDING"));
+        collection.update("1", Map.of("status", "PAID"));
+        collection.set("3", Map.of("status", "PAID"));
+        collection.delete("2");
+        collection.delete("3");
+
+        assertEquals(List.of(
+            "ADDED 1 PENDING",
+            "MODIFIED 1 PENDING",
+            "ADDED 2 PENDING",
+            // Deja de cumplir el filtro: llega con el último estado que lo cumplía
+            "REMOVED 1 PENDING",
+            "REMOVED 2 PENDING"
+        ), received);
+
+        registration.remove();
+        collection.set("4", Map.of("status", "PENDING"));
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    void unListenerQueFallaNoHaceFallarLaEscritura() {
+        InMemoryCollection collection = new InMemoryCollection("orders");
+        List<String> received = new ArrayList<>();
+        collection.listen(new DocumentQuery(), changes -> {
+            if (!changes.isEmpty()) {
+                throw new IllegalStateException("falla");
+            }
+        });
+        collection.listen(new DocumentQuery(), changes -> changes.forEach(c -> received.add(c.getDocument().getId())));
+
+        collection.set("1", Map.of("status", "PAID"));
+
+        assertEquals(List.of("1"), received);
+        assertEquals(1, collection.size());
+    }
+
+    private static DocumentQuery whereCategory(String categoryId) {
+        return new DocumentQuery().whereEqualTo("categoryId", categoryId);
+    }
+
+    private static List<String> ids(List<StoredDocument> documents) {
+        return documents.stream().map(StoredDocument::getId).toList();
+    }
+}
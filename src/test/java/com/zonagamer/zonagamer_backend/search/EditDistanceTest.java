@@ -0,0 +1,99 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EditDistanceTest {
+
+    @Test
+    void cuentaLasOperacionesBasicas() {
+        assertEquals(0, EditDistance.between("switch", "switch"));
+        assertEquals(3, EditDistance.between("", "abc"));
+        assertEquals(3, EditDistance.between("abc", ""));
+        assertEquals(3, EditDistance.between("kitten", "sitting"));
+    }
+
+    @Test
+    void unaTransposicionCuestaUno() {
+        assertEquals(1, EditDistance.between("swtich", "switch"));
+        assertEquals(1, EditDistance.between("ab", "ba"));
+        assertEquals(2, EditDistance.between("abcd", "badc"));
+    }
+
+    @Test
+    void esLaVersionRestringida() {
+        // Damerau completa daría 2 (ca -> ac -> abc); la restringida no edita dos veces la misma subcadena
+        assertEquals(3, EditDistance.between("ca", "abc"));
+    }
+
+    @Test
+    void devuelveLimitMasUnoAlSuperarElLimite() {
+        assertEquals(2, EditDistance.between("kitten", "sitting", 1));
+        assertEquals(3, EditDistance.between("kitten", "sitting", 3));
+        assertEquals(3, EditDistance.between("a", "abcdef", 2));
+        assertEquals(1, EditDistance.between("ab", "ba", 0));
+        assertEquals(1, EditDistance.between("abcd", "bacd", 1));
+        assertEquals(2, EditDistance.between("", "abc", 1));
+        assertEquals(2, EditDistance.between("abc", "", 1));
+        assertEquals(3, EditDistance.between("", "abc", 3));
+    }
+
+    @Test
+    void elCorteTempranoNoCambiaElResultado() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            String a = randomWord(random);
+            String b = random.nextBoolean() ? randomWord(random) : mutate(a, random);
+            int full = EditDistance.between(a, b);
+
+            for (int limit = 0; limit <= 4; limit++) {
+                assertEquals(Math.min(full, limit + 1), EditDistance.between(a, b, limit),
+                    a + " / " + b + " con límite " + limit);
+            }
+        }
+    }
+
+    @Test
+    void comparaContraElComienzoDeLaPalabra() {
+        assertEquals(0, EditDistance.toPrefix("swi", "switch", 1));
+        assertEquals(1, EditDistance.toPrefix("swt", "switch", 1));
+        assertEquals(1, EditDistance.toPrefix("plya", "playstation", 1));
+        assertEquals(0, EditDistance.toPrefix("switch", "switch", 1));
+        assertEquals(2, EditDistance.toPrefix("switches", "swit", 1));
+    }
+
+    @Test
+    void toleraMasErroresEnPalabrasLargas() {
+        assertEquals(0, EditDistance.allowed(2));
+        assertEquals(1, EditDistance.allowed(3));
+        assertEquals(1, EditDistance.allowed(4));
+        assertEquals(2, EditDistance.allowed(5));
+        assertEquals(2, EditDistance.allowed(7));
+        assertEquals(3, EditDistance.allowed(8));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(9);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static String mutate(String word, Random random) {
+        StringBuilder mutated = new StringBuilder(word);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits && mutated.length() > 1; i++) {
+            int position = random.nextInt(mutated.length() - 1);
+            char c = mutated.charAt(position);
+            mutated.setCharAt(position, mutated.charAt(position + 1));
+            mutated.setCharAt(position + 1, c);
+        }
+        return mutated.toString();
+    }
+}
@@ -0,0 +1,260 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import com.zonagamer.zonagamer_backend.model.Category;
+import com.zonagamer.zonagamer_backend.model.Product;
+import com.zonagamer.zonagamer_backend.service.CategoryTree;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetIndexTest {
+
+    private static final CategoryTree TREE = CategoryTree.of(List.of(
+        category("consolas", null),
+        category("playstation", "consolas"),
+        category("ps5", "playstation"),
+        category("xbox", "consolas"),
+        category("perifericos", null)
+    ));
+
+    private static final String[] CATEGORY_IDS = {"consolas", "playstation", "ps5", "xbox", "perifericos", "borrada", null};
+
+    private static final Double[] PRICES = {null, 0.0, 19_990.0, 20_000.0, 49_990.0, 100_000.0, 300_000.0, 500_000.0, 900_000.0};
+
+    @Test
+    void losConteosNoAplicanElFiltroDeSuPropiaFaceta() {
+        List<Product> products = List.of(
+            product("1", "ps5", 600_000.0, 3),
+            product("2", "ps5", 30_000.0, 0),
+            product("3", "xbox", 30_000.0, 5),
+            product("4", "perifericos", 30_000.0, 5)
+        );
+        FacetIndex index = FacetIndex.build(products, TREE, 1, 1);
+
+        FacetIndex.Result result = index.query(ProductQuery.builder()
+            .categoryId("playstation").minPrice(20_000.0).maxPrice(50_000.0).limit(10).build(), null);
+
+        assertEquals(List.of("2"), ids(result.items()));
+        // Categorías con el filtro de precio pero no el de categoría
+        assertEquals(List.of("consolas:2", "perifericos:1", "playstation:1", "ps5:1", "xbox:1"),
+            result.categories().stream().map(c -> c.category().getId() + ":" + c.count()).toList());
+        // Precios con el filtro de categoría pero no el de precio: 30.000 y 600.000
+        assertEquals(List.of(0, 1, 0, 0, 0, 1), result.prices().stream().map(FacetIndex.PriceCount::count).toList());
+
+        // Los demás filtros sí aplican a las dos facetas
+        FacetIndex.Result inStock = index.query(ProductQuery.builder()
+            .categoryId("playstation").minPrice(20_000.0).maxPrice(50_000.0).inStock(true).limit(10).build(), null);
+        assertEquals(List.of(), ids(inStock.items()));
+        assertEquals(List.of("consolas:1", "perifericos:1", "xbox:1"),
+            inStock.categories().stream().map(c -> c.category().getId() + ":" + c.count()).toList());
+        assertEquals(List.of(0, 0, 0, 0, 0, 1), inStock.prices().stream().map(FacetIndex.PriceCount::count).toList());
+    }
+
+    @Test
+    void lasPaginasDispersasYDensasCoincidenConUnRecorridoDirecto() {
+        Random random = new Random(7);
+        List<Product> products = randomCatalog(random, 400);
+        FacetIndex index = FacetIndex.build(products, TREE, 1, 1);
+        boolean sawSparse = false;
+        boolean sawDense = false;
+
+        for (int i = 0; i < 3000; i++) {
+            ProductQuery query = randomQuery(random);
+            Set<String> text = random.nextInt(4) == 0 ? randomIds(random, products) : null;
+
+            FacetIndex.Result result = index.query(query, text);
+            List<Product> expected = expected(products, query, text);
+
+            assertEquals(expected.size(), result.total(), query.toString());
+            assertEquals(ids(page(expected, query)), ids(result.items()), query.toString());
+
+            // La página dispersa se usa con menos de 400 / 16 resultados
+            sawSparse |= result.total() > 0 && result.total() * 16 < 400;
+            sawDense |= result.total() * 16 >= 400;
+        }
+
+        assertTrue(sawSparse && sawDense);
+    }
+
+    @Test
+    void updateReutilizaTodoSiSoloCambioElStock() throws Exception {
+        Random random = new Random(11);
+        List<Product> products = randomCatalog(random, 200);
+        FacetIndex previous = FacetIndex.build(products, TREE, 1, 1);
+
+        List<Product> restocked = new ArrayList<>();
+        for (Product product : products) {
+            Product copy = copy(product);
+            copy.setStock(random.nextInt(3));
+            restocked.add(copy);
+        }
+        FacetIndex updated = FacetIndex.update(previous, restocked, TREE, 2, 1);
+
+        assertEquals(2, updated.version());
+        for (String field : List.of("orders", "ranks", "subtrees", "byPrice", "priceBuckets", "featured")) {
+            assertSame(field(previous, field), field(updated, field), field);
+        }
+        assertNotSame(field(previous, "inStock"), field(updated, "inStock"));
+
+        // Mismo resultado que reconstruir desde cero
+        FacetIndex rebuilt = FacetIndex.build(restocked, TREE, 2, 1);
+        for (int i = 0; i < 500; i++) {
+            ProductQuery query = randomQuery(random);
+            assertEquals(rebuilt.query(query, null), updated.query(query, null), query.toString());
+        }
+    }
+
+    @Test
+    void updateReconstruyeSiCambiaOtroCampoOElArbol() throws Exception {
+        List<Product> products = randomCatalog(new Random(3), 50);
+        FacetIndex previous = FacetIndex.build(products, TREE, 1, 1);
+
+        List<Product> repriced = new ArrayList<>(products);
+        Product copy = copy(products.get(10));
+        copy.setPrecio(1.0);
+        repriced.set(10, copy);
+        assertNotSame(field(previous, "orders"), field(FacetIndex.update(previous, repriced, TREE, 2, 1), "orders"));
+
+        assertNotSame(field(previous, "orders"), field(FacetIndex.update(previous, products, TREE, 2, 2), "orders"));
+    }
+
+    private static List<Product> expected(List<Product> products, ProductQuery query, Set<String> text) {
+        Set<String> subtree = new HashSet<>();
+        if (query.categoryId() != null) {
+            TREE.subtree(query.categoryId()).forEach(c -> subtree.add(c.getId()));
+        }
+
+        Predicate<Product> matches = p -> p.isActive()
+            && (query.inStock() == null || query.inStock() == (p.getStock() != null && p.getStock() > 0))
+            && (query.featured() == null || query.featured() == p.isFeatured())
+            && (text == null || text.contains(p.getId()))
+            && (query.categoryId() == null || subtree.contains(p.getCategoryId()))
+            && (query.minPrice() == null || p.getPrecio() != null && p.getPrecio() >= query.minPrice())
+            && (query.maxPrice() == null || p.getPrecio() != null && p.getPrecio() <= query.maxPrice());
+
+        // Los productos vienen en orden de ID y el sort es estable
+        return products.stream().filter(matches).sorted(comparator(query.sort())).toList();
+    }
+
+    private static List<Product> page(List<Product> all, ProductQuery query) {
+        int from = Math.min(all.size(), query.offset());
+        return all.subList(from, Math.min(all.size(), from + query.limit()));
+    }
+
+    private static Comparator<Product> comparator(ProductQuery.Sort sort) {
+        Comparator<Product> byName = Comparator.comparing(Product::getNombreProducto,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+        return switch (sort) {
+            case NAME -> byName;
+            case PRICE_ASC -> Comparator.comparing(Product::getPrecio,
+                Comparator.nullsLast(Comparator.<Double>naturalOrder())).thenComparing(byName);
+            case PRICE_DESC -> Comparator.comparing(Product::getPrecio,
+                Comparator.nullsLast(Comparator.<Double>reverseOrder())).thenComparing(byName);
+            case NEWEST -> Comparator.comparing(Product::getFechaCreacion,
+                Comparator.nullsLast(Comparator.<Date>reverseOrder())).thenComparing(byName);
+        };
+    }
+
+    private static ProductQuery randomQuery(Random random) {
+        Double min = random.nextInt(3) == 0 ? PRICES[1 + random.nextInt(PRICES.length - 1)] : null;
+        Double max = random.nextInt(3) == 0 ? PRICES[1 + random.nextInt(PRICES.length - 1)] : null;
+        if (min != null && max != null && min > max) {
+            Double swap = min;
+            min = max;
+            max = swap;
+        }
+
+        return ProductQuery.builder()
+            .categoryId(random.nextInt(2) == 0 ? CATEGORY_IDS[random.nextInt(CATEGORY_IDS.length)] : null)
+            .minPrice(min)
+            .maxPrice(max)
+            .inStock(random.nextInt(3) == 0 ? random.nextBoolean() : null)
+            .featured(random.nextInt(3) == 0 ? random.nextBoolean() : null)
+            .sort(ProductQuery.Sort.values()[random.nextInt(ProductQuery.Sort.values().length)])
+            .offset(random.nextInt(4) == 0 ? random.nextInt(60) : 0)
+            .limit(1 + random.nextInt(30))
+            .build();
+    }
+
+    private static Set<String> randomIds(Random random, List<Product> products) {
+        Set<String> ids = new HashSet<>();
+        int count = random.nextInt(40);
+        for (int i = 0; i < count; i++) {
+            ids.add(products.get(random.nextInt(products.size())).getId());
+        }
+        ids.add("no-existe");
+        return ids;
+    }
+
+    /**
+     * En orden de ID, con nombres, precios y fechas repetidos para probar los desempates
+     */
+    private static List<Product> randomCatalog(Random random, int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(Product.builder()
+                .id(String.format("p%04d", i))
+                .nombreProducto(random.nextInt(10) == 0 ? null : "producto " + random.nextInt(50))
+                .precio(PRICES[random.nextInt(PRICES.length)])
+                .stock(random.nextInt(10) == 0 ? null : random.nextInt(3))
+                .categoryId(CATEGORY_IDS[random.nextInt(CATEGORY_IDS.length)])
+                .featured(random.nextInt(5) == 0)
+                .active(random.nextInt(8) != 0)
+                .fechaCreacion(random.nextInt(10) == 0 ? null : new Date(random.nextInt(20) * 1000L))
+                .build());
+        }
+        return products;
+    }
+
+    private static Product product(String id, String categoryId, double precio, int stock) {
+        return Product.builder()
+            .id(id)
+            .nombreProducto("producto " + id)
+            .precio(precio)
+            .stock(stock)
+            .categoryId(categoryId)
+            .active(true)
+            .build();
+    }
+
+    private static Product copy(Product product) {
+        return Product.builder()
+            .id(product.getId())
+            .nombreProducto(product.getNombreProducto())
+            .precio(product.getPrecio())
+            .stock(product.getStock())
+            .categoryId(product.getCategoryId())
+            .featured(product.isFeatured())
+            .active(product.isActive())
+            .fechaCreacion(product.getFechaCreacion())
+            .build();
+    }
+
+    private static Category category(String id, String parentId) {
+        return Category.builder().id(id).nombreCategoria(id).parentId(parentId).active(true).build();
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static Object field(FacetIndex index, String name) throws ReflectiveOperationException {
+        Field field = FacetIndex.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(index);
+    }
+}
@@ -0,0 +1,92 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrdinalSetTest {
+
+    @Test
+    void fullNoAgregaOrdinalesFueraDelTamano() {
+        for (int size : new int[] {0, 1, 63, 64, 65, 100, 128, 130}) {
+            OrdinalSet full = OrdinalSet.full(size);
+
+            assertEquals(size, full.cardinality(), "tamaño " + size);
+            assertEquals(size == 0 ? -1 : size - 1, lastSetBit(full), "tamaño " + size);
+            // Contra un conjunto armado a mano: los bits de más se notarían en andNot
+            OrdinalSet manual = OrdinalSet.empty(size);
+            for (int i = 0; i < size; i++) {
+                manual.add(i);
+            }
+            full.andNot(manual);
+            assertEquals(-1, full.nextSetBit(0), "tamaño " + size);
+        }
+    }
+
+    @Test
+    void nextSetBitCruzaLosBordesDePalabra() {
+        OrdinalSet set = OrdinalSet.empty(200);
+        set.add(0);
+        set.add(63);
+        set.add(64);
+        set.add(127);
+        set.add(199);
+
+        assertEquals(0, set.nextSetBit(0));
+        assertEquals(63, set.nextSetBit(1));
+        assertEquals(63, set.nextSetBit(63));
+        assertEquals(64, set.nextSetBit(64));
+        assertEquals(127, set.nextSetBit(65));
+        assertEquals(199, set.nextSetBit(128));
+        assertEquals(-1, set.nextSetBit(200));
+        assertEquals(-1, set.nextSetBit(256));
+    }
+
+    @Test
+    void nextSetBitSaltaPalabrasVacias() {
+        OrdinalSet set = OrdinalSet.empty(320);
+        set.add(300);
+
+        assertEquals(300, set.nextSetBit(0));
+        assertEquals(300, set.nextSetBit(256));
+        assertEquals(-1, set.nextSetBit(301));
+    }
+
+    @Test
+    void operacionesEntreConjuntos() {
+        OrdinalSet a = OrdinalSet.empty(130);
+        OrdinalSet b = OrdinalSet.empty(130);
+        for (int i = 0; i < 130; i += 2) {
+            a.add(i);
+        }
+        for (int i = 0; i < 130; i += 3) {
+            b.add(i);
+        }
+
+        assertEquals(22, a.andCardinality(b));
+
+        OrdinalSet and = a.copy();
+        and.and(b);
+        assertEquals(22, and.cardinality());
+        assertTrue(and.contains(66));
+        assertFalse(and.contains(64));
+        // copy no comparte las palabras
+        assertEquals(65, a.cardinality());
+
+        OrdinalSet andNot = a.copy();
+        andNot.andNot(b);
+        assertEquals(43, andNot.cardinality());
+        assertFalse(andNot.contains(6));
+        assertTrue(andNot.contains(128));
+    }
+
+    private static int lastSetBit(OrdinalSet set) {
+        int last = -1;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            last = i;
+        }
+        return last;
+    }
+}
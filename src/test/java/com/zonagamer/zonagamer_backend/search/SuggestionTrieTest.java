@@ -0,0 +1,110 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuggestionTrieTest {
+
+    @Test
+    void unaClavePuedeSerPrefijoDeOtra() {
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("ps5", "ps"), List.of(List.of("ps5"), List.of("ps")), 10);
+
+        assertEquals(List.of("ps5", "ps"), suggest(trie, "p", 10));
+        assertEquals(List.of("ps5", "ps"), suggest(trie, "ps", 10));
+        assertEquals(List.of("ps5"), suggest(trie, "ps5", 10));
+        assertEquals(List.of(), suggest(trie, "ps4", 10));
+    }
+
+    @Test
+    void nombresRepetidosAparecenUnaVezCadaUno() {
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("ps5 a", "ps5 b"), List.of(List.of("ps5"), List.of("ps5")), 10);
+
+        assertEquals(List.of("ps5 a", "ps5 b"), suggest(trie, "ps5", 10));
+    }
+
+    @Test
+    void unaEntradaConDosClavesNoSeRepite() {
+        // "sony ps5 sony": "sony" y "sony ps5 sony" pasan por los mismos nodos
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("sony ps5 sony", "sonic"),
+            List.of(List.of("sony ps5 sony", "ps5 sony", "sony"), List.of("sonic")),
+            2);
+
+        assertEquals(List.of("sony ps5 sony", "sonic"), suggest(trie, "so", 10));
+        assertEquals(List.of("sony ps5 sony"), suggest(trie, "sony", 10));
+        assertEquals(List.of("sony ps5 sony"), suggest(trie, "ps5 s", 10));
+    }
+
+    @Test
+    void respetaElOrdenYElLimite() {
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("mouse", "monitor", "mochila"),
+            List.of(List.of("mouse"), List.of("monitor"), List.of("mochila")),
+            2);
+
+        // Cada nodo guarda solo las 2 mejores
+        assertEquals(List.of("mouse", "monitor"), suggest(trie, "mo", 10));
+        assertEquals(List.of("mouse"), suggest(trie, "mo", 1));
+        assertEquals(List.of("mochila"), suggest(trie, "moc", 10));
+    }
+
+    @Test
+    void recorreLaColaDeUnaClaveUnica() {
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("playstation", "xbox"), List.of(List.of("playstation"), List.of("xbox")), 10);
+
+        // Cada clave comparte nada con la otra: un nodo y el resto como cola
+        assertEquals(3, trie.nodeCount());
+        assertEquals(List.of("playstation"), suggest(trie, "p", 10));
+        assertEquals(List.of("playstation"), suggest(trie, "plays", 10));
+        assertEquals(List.of("playstation"), suggest(trie, "playstation", 10));
+        assertEquals(List.of(), suggest(trie, "playx", 10));
+        assertEquals(List.of(), suggest(trie, "playstations", 10));
+        assertEquals(List.of(), suggest(trie, "playstation ", 10));
+    }
+
+    @Test
+    void recortaLasClavesYLosPrefijosEnMaxDepth() {
+        String longKey = "a".repeat(SuggestionTrie.MAX_DEPTH) + "bbbb";
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("largo", "corto"), List.of(List.of(longKey), List.of("a")), 10);
+
+        assertEquals(List.of("largo"), suggest(trie, "a".repeat(SuggestionTrie.MAX_DEPTH), 10));
+        assertEquals(List.of("largo"), suggest(trie, longKey, 10));
+        // Lo que pasa de MAX_DEPTH no se compara
+        assertEquals(List.of("largo"), suggest(trie, "a".repeat(SuggestionTrie.MAX_DEPTH) + "zzz", 10));
+    }
+
+    @Test
+    void normalizaSeparadoresYTildesDelPrefijo() {
+        SuggestionTrie<String> trie = SuggestionTrie.build(
+            List.of("PlayStation 5", "Sony"), List.of(List.of("playstation 5"), List.of("sony")), 10);
+
+        assertEquals(List.of("PlayStation 5"), suggest(trie, "  PLÁYSTATION--5", 10));
+        assertEquals(List.of("PlayStation 5"), suggest(trie, "playstation ", 10));
+        assertEquals(List.of("PlayStation 5"), suggest(trie, "pláy", 10));
+        assertEquals(List.of(), suggest(trie, "sony ", 10));
+        assertEquals(List.of(), suggest(trie, " - ", 10));
+    }
+
+    @Test
+    void foldDevuelveLetraEspacioOCero() {
+        assertEquals('a', SuggestionTrie.fold('Á'));
+        assertEquals('n', SuggestionTrie.fold('ñ'));
+        assertEquals('5', SuggestionTrie.fold('5'));
+        assertEquals(' ', SuggestionTrie.fold('-'));
+        assertEquals(0, SuggestionTrie.fold('\u0301'));
+    }
+
+    private static List<String> suggest(SuggestionTrie<String> trie, String prefix, int limit) {
+        List<String> out = new ArrayList<>();
+        trie.suggest(prefix, limit, out);
+        return out;
+    }
+}
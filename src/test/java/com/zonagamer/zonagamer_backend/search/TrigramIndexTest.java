@@ -0,0 +1,81 @@
+package com.zonagamer.zonagamer_backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    @Test
+    void partePalabrasCortasRodeadasDeEspacios() {
+        // " a "
+        assertEquals(1, TrigramIndex.trigrams(List.of("a")).length);
+        // " ab", "ab "
+        assertEquals(2, TrigramIndex.trigrams(List.of("ab")).length);
+        // " ps", "ps5", "s5 "
+        assertEquals(3, TrigramIndex.trigrams(List.of("ps5")).length);
+        // Sin repetidos
+        assertEquals(1, TrigramIndex.trigrams(List.of("a", "a")).length);
+    }
+
+    @Test
+    void encuentraPalabrasDeUnaLetra() {
+        TrigramIndex index = TrigramIndex.build(List.of(
+            List.of("a"), List.of("b"), List.of("ps", "a"), List.of("ab")));
+
+        assertArrayEquals(new int[] {0, 2}, sorted(index.candidates(List.of("a"), 10)));
+        assertEquals(1, index.candidates(List.of("a"), 1).length);
+    }
+
+    @Test
+    void elUmbralDePalabrasDeDosLetrasBajaSoloSiCabe() {
+        // "ab" comparte 2 trigramas con 0 y uno (" ab" o "ab ") con 1 y 3
+        TrigramIndex index = TrigramIndex.build(List.of(
+            List.of("ab"), List.of("abc"), List.of("xb"), List.of("cab")));
+
+        assertArrayEquals(new int[] {0}, sorted(index.candidates(List.of("ab"), 1)));
+        assertArrayEquals(new int[] {0}, sorted(index.candidates(List.of("ab"), 2)));
+        assertArrayEquals(new int[] {0, 1, 3}, sorted(index.candidates(List.of("ab"), 3)));
+    }
+
+    @Test
+    void siNingunoTieneTodosBajaHastaElPrimerNivelConDocumentos() {
+        // "abcd" tiene 4 trigramas; 1 y 2 comparten 2, 0 comparte 1 (menos del 30%)
+        TrigramIndex index = TrigramIndex.build(List.of(
+            List.of("abx"), List.of("xbcd"), List.of("abc")));
+
+        int[] one = index.candidates(List.of("abcd"), 1);
+        assertEquals(1, one.length);
+        assertTrue(one[0] == 1 || one[0] == 2);
+
+        assertArrayEquals(new int[] {1, 2}, sorted(index.candidates(List.of("abcd"), 10)));
+    }
+
+    @Test
+    void consultaOIndiceVacioNoDevuelvenNada() {
+        TrigramIndex index = TrigramIndex.build(List.of(List.of("ps5")));
+
+        assertEquals(0, index.candidates(List.of(), 10).length);
+        assertEquals(0, TrigramIndex.build(List.of()).candidates(List.of("ps5"), 10).length);
+    }
+
+    @Test
+    void repetirUnaConsultaDaElMismoResultado() {
+        TrigramIndex index = TrigramIndex.build(List.of(List.of("ab"), List.of("abc")));
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new int[] {0}, index.candidates(List.of("ab"), 1));
+        }
+    }
+
+    private static int[] sorted(int[] ordinals) {
+        int[] copy = ordinals.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}